@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.model.showcase;
+
+import com.yandex.money.api.Fixtures;
+import com.yandex.money.api.exceptions.IllegalAmountException;
+import com.yandex.money.api.model.showcase.components.uicontrols.Text;
+import com.yandex.money.api.typeadapters.model.showcase.ShowcaseTypeAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects payment parameters of a showcase, validates its form and calculates standard fees. Results of a form are
+ * cached until a value of its control changes, so {@code getPaymentParameters} and {@code isValid} measure cache hits
+ * and {@code *AfterSetValue} benchmarks measure invalidation and recomputation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShowcaseBenchmark {
+
+    private final Fee fee = new StdFee(new BigDecimal("0.005"), new BigDecimal("0.5"), new BigDecimal("1"),
+            new BigDecimal("500"), AmountType.AMOUNT);
+    private final BigDecimal amount = new BigDecimal("1010.03");
+
+    private Showcase showcase;
+    private Text text;
+    private int counter;
+
+    @Setup
+    public void setUp() throws IOException {
+        showcase = ShowcaseTypeAdapter.getInstance()
+                .fromJson(new ByteArrayInputStream(Fixtures.load("/showcase/showcase_bills.json")));
+        text = (Text) showcase.form.items.get(0);
+        text.setValue("7707083893");
+    }
+
+    @Benchmark
+    public Map<String, String> getPaymentParameters() {
+        return showcase.getPaymentParameters();
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return showcase.form.isValid();
+    }
+
+    @Benchmark
+    public Map<String, String> getPaymentParametersAfterSetValue() {
+        setNextValue();
+        return showcase.getPaymentParameters();
+    }
+
+    @Benchmark
+    public boolean isValidAfterSetValue() {
+        setNextValue();
+        return showcase.form.isValid();
+    }
+
+    @Benchmark
+    public BigDecimal feeAmount() {
+        return fee.amount(amount);
+    }
+
+    @Benchmark
+    public BigDecimal feeNetAmount() throws IllegalAmountException {
+        return fee.netAmount(amount);
+    }
+
+    private void setNextValue() {
+        text.setValue((++counter & 1) == 0 ? "7707083893" : "7736050003");
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ParametersBuffer} with {@link URLEncoder} based encoding it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParametersBufferBenchmark {
+
+    private static final String UTF8_NAME = "UTF-8";
+    private static final Charset UTF8_CHARSET = Charset.forName(UTF8_NAME);
+
+    private final Map<String, String> params = new HashMap<>();
+    private ParametersBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        // typical request-payment parameters
+        params.put("pattern_id", "p2p");
+        params.put("to", "410011161616877");
+        params.put("amount_due", "100.50");
+        params.put("comment", "Перевод за обед");
+        params.put("message", "Спасибо! See you tomorrow at 12:00");
+        params.put("label", "order #1234 & co");
+        params.put("codepro", "false");
+        params.put("instance_id", "Yjg5Y2M0ZTNhZTM5NjM1MTc3ZmU3ZWJjYjA2YjU0NmEyYTIzNmI3ODg2");
+        buffer = new ParametersBuffer().setParameters(params);
+    }
+
+    @Benchmark
+    public byte[] prepareBytes() {
+        return buffer.prepareBytes();
+    }
+
+    @Benchmark
+    public String prepareGet() {
+        return buffer.prepareGet();
+    }
+
+    @Benchmark
+    public byte[] prepareBytesUrlEncoder() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            if (stream.size() > 0) {
+                stream.write('&');
+            }
+            stream.write(URLEncoder.encode(param.getKey(), UTF8_NAME).getBytes(UTF8_CHARSET));
+            stream.write('=');
+            stream.write(URLEncoder.encode(param.getValue(), UTF8_NAME).getBytes(UTF8_CHARSET));
+        }
+        return stream.toByteArray();
+    }
+}
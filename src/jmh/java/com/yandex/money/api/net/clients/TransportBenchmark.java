@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.yandex.money.api.Fixtures;
+import com.yandex.money.api.methods.InstanceId;
+import com.yandex.money.api.net.providers.DefaultApiV1HostsProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares transports of {@link DefaultApiClient} against a local stand-in server that responds with a fixture.
+ * {@code executeAsync} measures a batch of concurrent calls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+
+    private static final int BATCH_SIZE = 32;
+
+    @Param({"okhttp", "urlconnection"})
+    public String transport;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private DefaultApiClient client;
+    private InstanceId.Request request;
+
+    @Setup
+    public void setUp() throws IOException {
+        // otherwise delayed ACKs add ~40 ms to every response of the stand-in server
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        final byte[] body = Fixtures.load("/methods/instance-id-success.json");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), BATCH_SIZE);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                InputStream input = exchange.getRequestBody();
+                while (input.read() != -1) {
+                    // consume request
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream output = exchange.getResponseBody();
+                output.write(body);
+                output.close();
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(BATCH_SIZE);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        final String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+        DefaultApiClient.Builder builder = new DefaultApiClient.Builder()
+                .setClientId("client_id")
+                .setHostsProvider(new DefaultApiV1HostsProvider(false) {
+                    @Override
+                    public String getMoneyApi() {
+                        return url;
+                    }
+                });
+        if ("urlconnection".equals(transport)) {
+            builder.setTransport(new UrlConnectionTransport.Builder().create());
+        }
+        client = builder.create();
+        request = new InstanceId.Request("client_id");
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public InstanceId execute() throws Exception {
+        return client.execute(request);
+    }
+
+    @Benchmark
+    public List<InstanceId> executeAsync() throws Exception {
+        List<Future<InstanceId>> futures = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            futures.add(client.executeAsync(request));
+        }
+        List<InstanceId> responses = new ArrayList<>(BATCH_SIZE);
+        for (Future<InstanceId> future : futures) {
+            responses.add(future.get());
+        }
+        return responses;
+    }
+}
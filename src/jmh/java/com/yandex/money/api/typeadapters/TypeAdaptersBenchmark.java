@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.typeadapters;
+
+import com.yandex.money.api.Fixtures;
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.methods.RequestPayment;
+import com.yandex.money.api.model.showcase.Showcase;
+import com.yandex.money.api.typeadapters.methods.AccountInfoTypeAdapter;
+import com.yandex.money.api.typeadapters.methods.OperationHistoryTypeAdapter;
+import com.yandex.money.api.typeadapters.methods.RequestPaymentTypeAdapter;
+import com.yandex.money.api.typeadapters.model.showcase.ShowcaseTypeAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses API responses from fixtures with {@link TypeAdapter#fromJson(java.io.InputStream)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypeAdaptersBenchmark {
+
+    private byte[] operationHistory;
+    private byte[] requestPayment;
+    private byte[] accountInfo;
+    private byte[] showcase;
+
+    @Setup
+    public void setUp() throws IOException {
+        operationHistory = Fixtures.load("/methods/operation-history-1.json");
+        requestPayment = Fixtures.load("/methods/request-payment-1.json");
+        accountInfo = Fixtures.load("/methods/account-info.json");
+        showcase = Fixtures.load("/showcase/showcase_bills.json");
+    }
+
+    @Benchmark
+    public OperationHistory operationHistory() {
+        return OperationHistoryTypeAdapter.getInstance().fromJson(new ByteArrayInputStream(operationHistory));
+    }
+
+    @Benchmark
+    public RequestPayment requestPayment() {
+        return RequestPaymentTypeAdapter.getInstance().fromJson(new ByteArrayInputStream(requestPayment));
+    }
+
+    @Benchmark
+    public AccountInfo accountInfo() {
+        return AccountInfoTypeAdapter.getInstance().fromJson(new ByteArrayInputStream(accountInfo));
+    }
+
+    @Benchmark
+    public Showcase showcase() {
+        return ShowcaseTypeAdapter.getInstance().fromJson(new ByteArrayInputStream(showcase));
+    }
+}
@@ -164,6 +164,23 @@ public class OperationHistory {
             addParameter("details", details);
         }
 
+        private Request(Request request, String startRecord) {
+            super(OperationHistoryTypeAdapter.getInstance());
+            addParameters(request.getParameters());
+            addParameter("start_record", startRecord);
+        }
+
+        /**
+         * Creates request for the next page of operations. The request has the same parameters as this one except
+         * for a start record.
+         *
+         * @param nextRecord {@link OperationHistory#nextRecord} of a page obtained with this request
+         * @return request for the next page
+         */
+        public Request nextPage(String nextRecord) {
+            return new Request(this, checkNotNull(nextRecord, "nextRecord"));
+        }
+
         @Override
         protected String requestUrlBase(HostsProvider hostsProvider) {
             return hostsProvider.getMoneyApi() + "/operation-history";
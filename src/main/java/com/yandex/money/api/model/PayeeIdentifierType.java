@@ -80,11 +80,12 @@ public enum PayeeIdentifierType implements Enums.WithCode<PayeeIdentifierType> {
             return null;
         }
 
-        if (identifier.matches(Patterns.ACCOUNT)) {
+        if (Patterns.Compiled.ACCOUNT.matcher(identifier).matches()) {
             return ACCOUNT;
-        } else if (identifier.matches(Patterns.PHONE)) {
+        } else if (Patterns.Compiled.PHONE.matcher(identifier).matches()) {
             return PHONE;
-        } else if (identifier.matches(Patterns.YANDEX) || identifier.matches(Patterns.EMAIL)) {
+        } else if (Patterns.Compiled.YANDEX.matcher(identifier).matches() ||
+                Patterns.Compiled.EMAIL.matcher(identifier).matches()) {
             return EMAIL;
         } else {
             return null;
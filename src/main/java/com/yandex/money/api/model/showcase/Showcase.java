@@ -26,10 +26,7 @@ package com.yandex.money.api.model.showcase;
 
 import com.yandex.money.api.exceptions.ResourceNotFoundException;
 import com.yandex.money.api.model.AllowedMoneySource;
-import com.yandex.money.api.model.showcase.components.Component;
-import com.yandex.money.api.model.showcase.components.Parameter;
 import com.yandex.money.api.model.showcase.components.containers.Group;
-import com.yandex.money.api.model.showcase.components.uicontrols.Select;
 import com.yandex.money.api.net.BaseApiRequest;
 import com.yandex.money.api.net.HttpClientResponse;
 import com.yandex.money.api.net.providers.HostsProvider;
@@ -74,7 +71,9 @@ public final class Showcase {
     public Map<String, String> getPaymentParameters() {
         Map<String, String> params = new HashMap<>();
         params.putAll(hiddenFields);
-        fillPaymentParameters(params, form);
+        if (form != null) {
+            params.putAll(form.getPaymentParameters());
+        }
         return params;
     }
 
@@ -102,23 +101,6 @@ public final class Showcase {
         return result;
     }
 
-    private static void fillPaymentParameters(Map<String, String> parameters, Group group) {
-        for (Component component : group.items) {
-            if (component instanceof Group) {
-                fillPaymentParameters(parameters, (Group) component);
-            } else if (component instanceof Parameter) {
-                Parameter parameter = (Parameter) component;
-                parameters.put(parameter.getName(), parameter.getValue());
-                if (component instanceof Select) {
-                    Group selectedGroup = ((Select) component).getSelectedOption().group;
-                    if (selectedGroup != null) {
-                        fillPaymentParameters(parameters, selectedGroup);
-                    }
-                }
-            }
-        }
-    }
-
     public static class Builder {
 
         private String title;
@@ -0,0 +1,254 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.model.showcase;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.yandex.money.api.exceptions.ResourceNotFoundException;
+import com.yandex.money.api.net.BaseApiRequest;
+import com.yandex.money.api.net.HttpClientResponse;
+import com.yandex.money.api.net.ShareableApiRequest;
+import com.yandex.money.api.net.clients.ApiClient;
+import com.yandex.money.api.net.providers.HostsProvider;
+import com.yandex.money.api.typeadapters.JsonUtils;
+import com.yandex.money.api.typeadapters.model.showcase.ShowcaseTypeAdapter;
+import com.yandex.money.api.util.HttpHeaders;
+import org.joda.time.DateTime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+import static com.yandex.money.api.util.Responses.parseDateHeader;
+import static com.yandex.money.api.util.Responses.processError;
+
+/**
+ * <p>Cache of showcases obtained with {@link Showcase.Request}. Showcases are kept until the time of {@code Expires}
+ * header of a response. A stale showcase is revalidated with {@code If-Modified-Since} header, if the server responds
+ * with {@code 304 Not Modified} the cached showcase is used again.</p>
+ *
+ * <p>Showcases are kept as parsed JSON trees, so neither hit nor revalidation downloads or parses a response body.
+ * Each call returns a new {@link ShowcaseContext} with its own {@link Showcase} instance, because showcase controls
+ * keep values entered by a user.</p>
+ *
+ * <p>When the number of showcases exceeds max size, the least recently used one is evicted. The cache is thread
+ * safe.</p>
+ */
+public final class ShowcaseCache {
+
+    private final ApiClient client;
+    private final int maxSize;
+
+    // guarded by this
+    private final Map<String, CachedShowcase> entries;
+
+    /**
+     * Constructor.
+     *
+     * @param client client to fetch showcases with
+     * @param maxSize max number of showcases to keep
+     */
+    public ShowcaseCache(ApiClient client, final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize should be greater than 0");
+        }
+        this.client = checkNotNull(client, "client");
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<String, CachedShowcase>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedShowcase> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets showcase by payment pattern id.
+     *
+     * @param patternId payment pattern id
+     * @return showcase context with the first step of the showcase
+     * @throws Exception if showcase can not be obtained
+     */
+    public ShowcaseContext get(String patternId) throws Exception {
+        checkNotNull(patternId, "patternId");
+        CachedShowcase entry;
+        synchronized (this) {
+            entry = entries.get(patternId);
+        }
+        if (entry == null || entry.isExpired()) {
+            entry = client.execute(new Request(patternId, entry));
+            synchronized (this) {
+                entries.put(patternId, entry);
+            }
+        }
+        return entry.createContext();
+    }
+
+    /**
+     * Gets showcase by showcase id.
+     *
+     * @param scid showcase id
+     * @return showcase context with the first step of the showcase
+     * @throws Exception if showcase can not be obtained
+     */
+    public ShowcaseContext get(long scid) throws Exception {
+        return get(String.valueOf(scid));
+    }
+
+    /**
+     * Removes showcase from the cache.
+     *
+     * @param patternId payment pattern id or showcase id
+     */
+    public synchronized void remove(String patternId) {
+        entries.remove(checkNotNull(patternId, "patternId"));
+    }
+
+    /**
+     * Removes all showcases from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return number of cached showcases
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return max number of cached showcases
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private static final class CachedShowcase {
+
+        final JsonElement showcase;
+        final String submitUrl;
+        final DateTime lastModified;
+        final long expires;
+
+        CachedShowcase(JsonElement showcase, String submitUrl, DateTime lastModified, long expires) {
+            this.showcase = showcase;
+            this.submitUrl = submitUrl;
+            this.lastModified = lastModified;
+            this.expires = expires;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expires;
+        }
+
+        ShowcaseContext createContext() {
+            ShowcaseContext context = new ShowcaseContext(ShowcaseTypeAdapter.getInstance().fromJson(showcase),
+                    submitUrl, lastModified == null ? new DateTime() : lastModified);
+            context.setState(ShowcaseContext.State.HAS_NEXT_STEP);
+            return context;
+        }
+    }
+
+    /**
+     * Same request as {@link Showcase.Request} that keeps a response as {@link CachedShowcase}. Concurrent misses of
+     * the same showcase share one HTTP call.
+     */
+    private static final class Request extends BaseApiRequest<CachedShowcase>
+            implements ShareableApiRequest<CachedShowcase> {
+
+        private final String patternId;
+        private final CachedShowcase cached;
+
+        Request(String patternId, CachedShowcase cached) {
+            this.patternId = patternId;
+            this.cached = cached;
+            if (cached != null && cached.lastModified != null) {
+                addHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified);
+            }
+        }
+
+        @Override
+        public Method getMethod() {
+            return Method.GET;
+        }
+
+        @Override
+        protected String requestUrlBase(HostsProvider hostsProvider) {
+            return hostsProvider.getMoneyApi() + "/showcase/" + patternId;
+        }
+
+        @Override
+        public CachedShowcase parse(HttpClientResponse response) throws Exception {
+            switch (response.getCode()) {
+                case HttpURLConnection.HTTP_MULT_CHOICE:
+                    JsonElement showcase;
+                    InputStream inputStream = response.getByteStream();
+                    try {
+                        showcase = JsonUtils.nextElement(new JsonReader(new InputStreamReader(inputStream, "UTF-8")));
+                    } finally {
+                        inputStream.close();
+                    }
+                    return new CachedShowcase(showcase, response.getHeader(HttpHeaders.LOCATION),
+                            parseHeader(response, HttpHeaders.LAST_MODIFIED), parseExpires(response));
+                case HttpURLConnection.HTTP_NOT_MODIFIED:
+                    if (cached == null) {
+                        throw new IOException("not modified response for unknown showcase: " + patternId);
+                    }
+                    return new CachedShowcase(cached.showcase, cached.submitUrl, cached.lastModified, parseExpires(response));
+                case HttpURLConnection.HTTP_NOT_FOUND:
+                    throw new ResourceNotFoundException(response.getUrl());
+                default:
+                    throw new IOException(processError(response));
+            }
+        }
+
+        private static long parseExpires(HttpClientResponse response) {
+            DateTime expires = parseHeader(response, HttpHeaders.EXPIRES);
+            return expires == null ? 0 : expires.getMillis();
+        }
+
+        /**
+         * Parses date header. Missing and invalid values are treated as {@code null} (invalid {@code Expires} means
+         * that the document is already expired).
+         */
+        private static DateTime parseHeader(HttpClientResponse response, String header) {
+            String value = response.getHeader(header);
+            if (value == null || value.isEmpty()) {
+                return null;
+            }
+            try {
+                return parseDateHeader(response, header);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
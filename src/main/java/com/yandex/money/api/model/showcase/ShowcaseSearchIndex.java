@@ -0,0 +1,392 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.model.showcase;
+
+import com.yandex.money.api.methods.ShowcaseSearch;
+import com.yandex.money.api.net.HttpResourceResponse;
+import com.yandex.money.api.net.clients.ApiClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.yandex.money.api.util.Common.checkNotEmpty;
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * <p>Local index of {@link ShowcaseReference}s that answers search-as-you-type queries from memory. The index is
+ * filled with results of {@link ShowcaseSearch.Request}: a query is sent to the server only if nothing is found
+ * locally.</p>
+ *
+ * <p>Titles are split into lower case tokens of letters and digits, showcase id is a token as well. A reference
+ * matches a query if each token of the query is a prefix of one of its tokens. Found references are ordered by
+ * {@link ShowcaseReference#topIndex} and title.</p>
+ *
+ * <p>Lookups use an immutable snapshot of the index and do not take locks. Updates build a new snapshot and replace
+ * the old one. Queries that were sent to the server are remembered with their results, {@link #refresh()} sends them
+ * again and rebuilds the index from scratch, so removed showcases disappear from it. Showcases added with
+ * {@link #add(Collection)} and queries sent while refresh is in progress are merged into the rebuilt index.</p>
+ */
+public final class ShowcaseSearchIndex {
+
+    /**
+     * Max number of remembered queries.
+     */
+    private static final int MAX_QUERIES = 256;
+
+    private static final Comparator<ShowcaseReference> ORDER = new Comparator<ShowcaseReference>() {
+        @Override
+        public int compare(ShowcaseReference lhs, ShowcaseReference rhs) {
+            if (lhs.topIndex == null) {
+                if (rhs.topIndex != null) {
+                    return 1;
+                }
+            } else if (rhs.topIndex == null) {
+                return -1;
+            } else if (!lhs.topIndex.equals(rhs.topIndex)) {
+                return lhs.topIndex < rhs.topIndex ? -1 : 1;
+            }
+            int result = lhs.title.compareToIgnoreCase(rhs.title);
+            return result != 0 ? result : lhs.scid < rhs.scid ? -1 : lhs.scid == rhs.scid ? 0 : 1;
+        }
+    };
+
+    private final ApiClient client;
+    private final int records;
+
+    private final Object refreshLock = new Object();
+
+    // guarded by this, results of remembered queries in order of their use
+    private final Map<String, Collection<ShowcaseReference>> queries = new LinkedHashMap<>();
+    // guarded by this, showcases added with add(Collection)
+    private final Map<Long, ShowcaseReference> added = new LinkedHashMap<>();
+    // guarded by this, not null while refresh is in progress
+    private Set<String> queriedDuringRefresh;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Constructor.
+     *
+     * @param client client to send queries with
+     * @param records number of records to request from the server
+     */
+    public ShowcaseSearchIndex(ApiClient client, int records) {
+        if (records < 1) {
+            throw new IllegalArgumentException("records should be greater than 0");
+        }
+        this.client = checkNotNull(client, "client");
+        this.records = records;
+    }
+
+    /**
+     * Searches showcases. If nothing is found locally the query is sent to the server and the index is updated with
+     * its result.
+     *
+     * @param query search terms
+     * @return search result
+     * @throws Exception if query can not be sent to the server
+     */
+    public ShowcaseSearch search(String query) throws Exception {
+        List<ShowcaseReference> found = find(query);
+        if (!found.isEmpty()) {
+            return ShowcaseSearch.success(found, null);
+        }
+
+        ShowcaseSearch result = request(query);
+        if (result.error == null) {
+            synchronized (this) {
+                queries.remove(query);
+                queries.put(query, result.result);
+                if (queries.size() > MAX_QUERIES) {
+                    Iterator<String> iterator = queries.keySet().iterator();
+                    iterator.next();
+                    iterator.remove();
+                }
+                snapshot = snapshot.add(result.result);
+                if (queriedDuringRefresh != null) {
+                    queriedDuringRefresh.add(query);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Searches showcases locally.
+     *
+     * @param query search terms
+     * @return found showcases, empty list if query has no tokens
+     */
+    public List<ShowcaseReference> find(String query) {
+        List<String> tokens = tokenize(checkNotEmpty(query, "query"));
+        return tokens.isEmpty() ? Collections.<ShowcaseReference>emptyList() : snapshot.find(tokens, records);
+    }
+
+    /**
+     * Adds showcases to the index replacing ones with the same showcase id. Added showcases are kept by
+     * {@link #refresh()}.
+     *
+     * @param references showcases to add
+     */
+    public synchronized void add(Collection<ShowcaseReference> references) {
+        snapshot = snapshot.add(checkNotNull(references, "references"));
+        for (ShowcaseReference reference : references) {
+            added.remove(reference.scid);
+            added.put(reference.scid, reference);
+        }
+    }
+
+    /**
+     * Sends all remembered queries to the server and replaces the index with their results. Queries that return an
+     * error or nothing are forgotten unless they are sent again while refresh is in progress. If a query can not be
+     * sent its previous results are kept. Concurrent refreshes are serialized.
+     *
+     * @throws InterruptedException if the thread is interrupted
+     */
+    public void refresh() throws InterruptedException {
+        synchronized (refreshLock) {
+            List<String> queries;
+            synchronized (this) {
+                queries = new ArrayList<>(this.queries.keySet());
+                queriedDuringRefresh = new HashSet<>();
+            }
+            try {
+                refresh(queries);
+            } finally {
+                synchronized (this) {
+                    queriedDuringRefresh = null;
+                }
+            }
+        }
+    }
+
+    private void refresh(List<String> queries) throws InterruptedException {
+        // null value means that the query should be forgotten, missing one that it has failed
+        Map<String, Collection<ShowcaseReference>> results = new HashMap<>();
+        for (String query : queries) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            try {
+                ShowcaseSearch result = request(query);
+                results.put(query, result.error == null && !result.result.isEmpty() ? result.result : null);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                // keep previous results of the query
+            }
+        }
+
+        synchronized (this) {
+            for (Map.Entry<String, Collection<ShowcaseReference>> entry : results.entrySet()) {
+                String query = entry.getKey();
+                if (queriedDuringRefresh.contains(query) || !this.queries.containsKey(query)) {
+                    continue;
+                }
+                if (entry.getValue() == null) {
+                    this.queries.remove(query);
+                } else {
+                    this.queries.put(query, entry.getValue());
+                }
+            }
+            List<Collection<ShowcaseReference>> merged = new ArrayList<>(this.queries.values());
+            merged.add(added.values());
+            snapshot = Snapshot.merge(merged);
+        }
+    }
+
+    /**
+     * Schedules periodic {@link #refresh()}.
+     *
+     * @param scheduler scheduler to refresh on
+     * @param period period of refreshing
+     * @param unit time unit of {@code period}
+     * @return future that can be used to stop refreshing
+     */
+    public ScheduledFuture<?> scheduleRefresh(ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+        return checkNotNull(scheduler, "scheduler").scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, period, period, checkNotNull(unit, "unit"));
+    }
+
+    /**
+     * @return number of showcases in the index
+     */
+    public int size() {
+        return snapshot.references.length;
+    }
+
+    private ShowcaseSearch request(String query) throws Exception {
+        HttpResourceResponse<ShowcaseSearch> response = client.execute(new ShowcaseSearch.Request(query, records));
+        return response.document;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); ++i) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Immutable state of the index.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new ShowcaseReference[0]);
+
+        /**
+         * References in order of results.
+         */
+        final ShowcaseReference[] references;
+
+        /**
+         * Sorted tokens.
+         */
+        final String[] tokens;
+
+        /**
+         * Indices of references for each token.
+         */
+        final int[][] postings;
+
+        Snapshot(ShowcaseReference[] references) {
+            this.references = references;
+
+            TreeMap<String, List<Integer>> index = new TreeMap<>();
+            for (int i = 0; i < references.length; ++i) {
+                List<String> tokens = tokenize(references[i].title);
+                tokens.add(String.valueOf(references[i].scid));
+                for (String token : tokens) {
+                    List<Integer> posting = index.get(token);
+                    if (posting == null) {
+                        posting = new ArrayList<>();
+                        index.put(token, posting);
+                    }
+                    if (posting.isEmpty() || posting.get(posting.size() - 1) != i) {
+                        posting.add(i);
+                    }
+                }
+            }
+
+            tokens = index.keySet().toArray(new String[index.size()]);
+            postings = new int[tokens.length][];
+            int t = 0;
+            for (List<Integer> posting : index.values()) {
+                int[] values = new int[posting.size()];
+                for (int i = 0; i < values.length; ++i) {
+                    values[i] = posting.get(i);
+                }
+                postings[t++] = values;
+            }
+        }
+
+        /**
+         * Creates a snapshot of showcases, later ones replace earlier ones with the same showcase id.
+         *
+         * @param results collections of showcases
+         * @return snapshot
+         */
+        static Snapshot merge(Collection<? extends Collection<ShowcaseReference>> results) {
+            Map<Long, ShowcaseReference> merged = new HashMap<>();
+            for (Collection<ShowcaseReference> result : results) {
+                for (ShowcaseReference reference : result) {
+                    merged.put(reference.scid, reference);
+                }
+            }
+            if (merged.isEmpty()) {
+                return EMPTY;
+            }
+            ShowcaseReference[] references = merged.values().toArray(new ShowcaseReference[merged.size()]);
+            Arrays.sort(references, ORDER);
+            return new Snapshot(references);
+        }
+
+        Snapshot add(Collection<ShowcaseReference> added) {
+            if (added.isEmpty()) {
+                return this;
+            }
+            return merge(Arrays.<Collection<ShowcaseReference>>asList(Arrays.asList(references), added));
+        }
+
+        List<ShowcaseReference> find(List<String> query, int limit) {
+            BitSet found = null;
+            for (String prefix : query) {
+                BitSet matches = new BitSet(references.length);
+                int i = Arrays.binarySearch(tokens, prefix);
+                for (i = i < 0 ? -i - 1 : i; i < tokens.length && tokens[i].startsWith(prefix); ++i) {
+                    for (int reference : postings[i]) {
+                        matches.set(reference);
+                    }
+                }
+                if (found == null) {
+                    found = matches;
+                } else {
+                    found.and(matches);
+                }
+                if (found.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<ShowcaseReference> result = new ArrayList<>(Math.min(limit, found.cardinality()));
+            for (int i = found.nextSetBit(0); i >= 0 && result.size() < limit; i = found.nextSetBit(i + 1)) {
+                result.add(references[i]);
+            }
+            return result;
+        }
+    }
+}
@@ -27,6 +27,11 @@ package com.yandex.money.api.model.showcase.components;
 import com.yandex.money.api.util.Enums;
 import com.yandex.money.api.util.ToStringBuilder;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
 /**
  * Base entity of payment form. All components have appropriate builders and should be
  * constructed by them.
@@ -35,6 +40,11 @@ import com.yandex.money.api.util.ToStringBuilder;
  */
 public abstract class Component {
 
+    /**
+     * Components that contain this component. Usually there is only one parent or none.
+     */
+    private List<Component> parents;
+
     @Override
     public final String toString() {
         return getToStringBuilder().toString();
@@ -49,6 +59,40 @@ public abstract class Component {
 
     protected abstract ToStringBuilder getToStringBuilder();
 
+    /**
+     * Notifies this component and all components that contain it that the state of the component has changed.
+     */
+    protected final void invalidate() {
+        onInvalidate();
+        if (parents != null) {
+            for (Component parent : parents) {
+                parent.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Called when the state of this component or one of its children has changed. Components that cache anything
+     * derived from their state should drop it here.
+     */
+    protected void onInvalidate() {
+    }
+
+    /**
+     * Makes {@code parent} to be invalidated when {@code child} is invalidated.
+     *
+     * @param child child component
+     * @param parent component that contains {@code child}
+     */
+    protected static void addParent(Component child, Component parent) {
+        checkNotNull(child, "child");
+        checkNotNull(parent, "parent");
+        if (child.parents == null) {
+            child.parents = new ArrayList<>(1);
+        }
+        child.parents.add(parent);
+    }
+
     /**
      * Possible field types.
      */
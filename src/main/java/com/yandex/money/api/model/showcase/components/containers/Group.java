@@ -25,14 +25,25 @@
 package com.yandex.money.api.model.showcase.components.containers;
 
 import com.yandex.money.api.model.showcase.components.Component;
+import com.yandex.money.api.model.showcase.components.Parameter;
+import com.yandex.money.api.model.showcase.components.uicontrols.Checkbox;
+import com.yandex.money.api.model.showcase.components.uicontrols.Select;
 import com.yandex.money.api.util.Enums;
 import com.yandex.money.api.util.ToStringBuilder;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import static com.yandex.money.api.util.Common.checkNotNull;
 
 /**
  * A {@link Group} is implementation of a {@link Component} that can contain only {@link Component}
  * instances.
+ * <p/>
+ * Validity and payment parameters of a group are cached until one of the contained components changes, so only
+ * groups on the path from a changed control to the root are checked again. Groups that contain a {@link Checkbox}
+ * are not cached, because its state can be changed without notification.
  *
  * @author Aleksandr Ershov (asershov@yamoney.com)
  */
@@ -43,9 +54,20 @@ public class Group extends Container<Component> {
      */
     public final Layout layout;
 
+    private final boolean cacheable;
+
+    private Boolean valid;
+    private Map<String, String> paymentParameters;
+
     private Group(Builder builder) {
         super(builder);
         layout = builder.layout;
+        boolean cacheable = true;
+        for (Component component : items) {
+            addParent(component, this);
+            cacheable &= isCacheable(component);
+        }
+        this.cacheable = cacheable;
     }
 
     /**
@@ -55,12 +77,28 @@ public class Group extends Container<Component> {
      */
     @Override
     public boolean isValid() {
-        for (Component component : items) {
-            if (!component.isValid()) {
-                return false;
-            }
+        if (!cacheable) {
+            return isValidInner();
         }
-        return true;
+        if (valid == null) {
+            valid = isValidInner();
+        }
+        return valid;
+    }
+
+    /**
+     * Collects payment parameters of contained components including nested groups and groups of selected options.
+     *
+     * @return key-value pairs of payment parameters
+     */
+    public Map<String, String> getPaymentParameters() {
+        if (!cacheable) {
+            return Collections.unmodifiableMap(getPaymentParametersInner());
+        }
+        if (paymentParameters == null) {
+            paymentParameters = Collections.unmodifiableMap(getPaymentParametersInner());
+        }
+        return paymentParameters;
     }
 
     @Override
@@ -88,6 +126,55 @@ public class Group extends Container<Component> {
                 .append("layout", layout);
     }
 
+    @Override
+    protected void onInvalidate() {
+        valid = null;
+        paymentParameters = null;
+    }
+
+    private static boolean isCacheable(Component component) {
+        if (component instanceof Checkbox) {
+            return false;
+        } else if (component instanceof Group) {
+            return ((Group) component).cacheable;
+        } else if (component instanceof Select) {
+            for (Select.Option option : ((Select) component).options) {
+                if (option.group != null && !option.group.cacheable) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isValidInner() {
+        for (Component component : items) {
+            if (!component.isValid()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, String> getPaymentParametersInner() {
+        Map<String, String> parameters = new HashMap<>();
+        for (Component component : items) {
+            if (component instanceof Group) {
+                parameters.putAll(((Group) component).getPaymentParameters());
+            } else if (component instanceof Parameter) {
+                Parameter parameter = (Parameter) component;
+                parameters.put(parameter.getName(), parameter.getValue());
+                if (component instanceof Select) {
+                    Select.Option selectedOption = ((Select) component).getSelectedOption();
+                    if (selectedOption != null && selectedOption.group != null) {
+                        parameters.putAll(selectedOption.group.getPaymentParameters());
+                    }
+                }
+            }
+        }
+        return parameters;
+    }
+
     /**
      * Possible options that specifies arrangement of contained {@link Component}s.
      */
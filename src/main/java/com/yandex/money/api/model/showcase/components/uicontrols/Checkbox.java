@@ -34,8 +34,11 @@ import com.yandex.money.api.util.ToStringBuilder;
 public class Checkbox extends ParameterControl {
 
     /**
-     * Initial state. Default is {@code false}.
+     * Current state. Default is {@code false}.
+     *
+     * @deprecated use {@link #isChecked()} and {@link #setChecked(boolean)} instead
      */
+    @Deprecated
     public boolean checked;
 
     private Checkbox(Builder builder) {
@@ -43,6 +46,26 @@ public class Checkbox extends ParameterControl {
         checked = builder.checked;
     }
 
+    /**
+     * @return {@code true} if checkbox is checked
+     */
+    public boolean isChecked() {
+        return checked;
+    }
+
+    /**
+     * Sets state of the checkbox.
+     *
+     * @param checked {@code true} if checkbox should be checked
+     */
+    public void setChecked(boolean checked) {
+        if (readonly) {
+            throw new IllegalArgumentException("trying to set a value for readonly parameter '" + name + "'");
+        }
+        this.checked = checked;
+        invalidate();
+    }
+
     @Override
     public boolean isValid(String value) {
         return !required || checked;
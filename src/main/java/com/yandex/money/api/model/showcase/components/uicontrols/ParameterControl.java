@@ -86,6 +86,7 @@ public abstract class ParameterControl extends Control implements Parameter {
         }
         this.value = value;
         onValueSet(value);
+        invalidate();
     }
 
     @Override
@@ -63,6 +63,11 @@ public class Select extends ParameterControl {
         options = Collections.unmodifiableList(builder.options);
         values = Collections.unmodifiableList(getValues(options));
         style = builder.style;
+        for (Option option : options) {
+            if (option.group != null) {
+                addParent(option.group, this);
+            }
+        }
     }
 
     @Override
@@ -26,8 +26,11 @@ package com.yandex.money.api.model.showcase.components.uicontrols;
 
 
 import com.yandex.money.api.util.Enums;
+import com.yandex.money.api.util.Patterns;
 import com.yandex.money.api.util.ToStringBuilder;
 
+import java.util.regex.Pattern;
+
 /**
  * Text field. Specializes {@link TextArea} with optional keyboard layout and pattern.
  *
@@ -47,6 +50,11 @@ public class Text extends TextArea {
      */
     public final Keyboard keyboard;
 
+    /**
+     * Compiled {@link #pattern}, initialized on first validation.
+     */
+    private volatile Pattern compiledPattern;
+
     protected Text(Builder builder) {
         super(builder);
         pattern = builder.pattern;
@@ -56,7 +64,16 @@ public class Text extends TextArea {
     @Override
     public boolean isValid(String value) {
         return super.isValid(value) && (value == null || value.isEmpty() ||
-                (pattern == null || value.matches(pattern)) && !value.contains("\n"));
+                (pattern == null || getCompiledPattern().matcher(value).matches()) && !value.contains("\n"));
+    }
+
+    private Pattern getCompiledPattern() {
+        Pattern compiledPattern = this.compiledPattern;
+        if (compiledPattern == null) {
+            compiledPattern = Patterns.compile(pattern);
+            this.compiledPattern = compiledPattern;
+        }
+        return compiledPattern;
     }
 
     @Override
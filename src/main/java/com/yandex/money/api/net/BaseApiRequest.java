@@ -31,7 +31,9 @@ import com.yandex.money.api.util.MimeTypes;
 import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
+import okio.BufferedSink;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.HashMap;
@@ -44,18 +46,23 @@ import java.util.Map;
  *
  * @author Slava Yasevich (vyasevich@yamoney.ru)
  */
-public abstract class BaseApiRequest<T> implements ApiRequest<T> {
+public abstract class BaseApiRequest<T> implements StreamingApiRequest<T> {
 
     public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormat
             .forPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT")
             .withLocale(Locale.US)
             .withZoneUTC();
 
-    private final Map<String, String> headers = new HashMap<>();
     private final Map<String, String> parameters = new HashMap<>();
     private final ParametersBuffer buffer = new ParametersBuffer();
 
+    // most requests have no headers, so the map is created on demand
+    private Map<String, String> headers;
+
     private byte[] body;
+    private JsonElement jsonBody;
+    // serialized jsonBody, so the length and the body are serialized once
+    private byte[] jsonBytes;
 
     @Override
     public final String requestUrl(HostsProvider hostsProvider) {
@@ -65,7 +72,7 @@ public abstract class BaseApiRequest<T> implements ApiRequest<T> {
 
     @Override
     public final Map<String, String> getHeaders() {
-        return Collections.unmodifiableMap(headers);
+        return headers == null ? Collections.<String, String>emptyMap() : Collections.unmodifiableMap(headers);
     }
 
     @Override
@@ -76,7 +83,37 @@ public abstract class BaseApiRequest<T> implements ApiRequest<T> {
     @Override
     public final byte[] getBody() {
         prepareBody();
-        return body == null ? buffer.setParameters(parameters).prepareBytes() : body;
+        if (body != null) {
+            return body;
+        } else if (jsonBody != null) {
+            return getJsonBytes();
+        } else {
+            return buffer.setParameters(parameters).prepareBytes();
+        }
+    }
+
+    @Override
+    public final long contentLength() {
+        prepareBody();
+        if (body != null) {
+            return body.length;
+        } else if (jsonBody != null) {
+            return getJsonBytes().length;
+        } else {
+            return buffer.setParameters(parameters).encodedLength();
+        }
+    }
+
+    @Override
+    public final void writeBody(BufferedSink sink) throws IOException {
+        prepareBody();
+        if (body != null) {
+            sink.write(body);
+        } else if (jsonBody != null) {
+            sink.write(getJsonBytes());
+        } else {
+            buffer.setParameters(parameters).writeTo(sink);
+        }
     }
 
     @Override
@@ -100,7 +137,7 @@ public abstract class BaseApiRequest<T> implements ApiRequest<T> {
      * @param value value
      */
     protected final void addHeader(String key, String value) {
-        headers.put(key, value);
+        getMutableHeaders().put(key, value);
     }
 
     /**
@@ -119,7 +156,7 @@ public abstract class BaseApiRequest<T> implements ApiRequest<T> {
      * @param headers headers to add
      */
     protected final void addHeaders(Map<String, String> headers) {
-        this.headers.putAll(headers);
+        getMutableHeaders().putAll(headers);
     }
 
     /**
@@ -208,6 +245,8 @@ public abstract class BaseApiRequest<T> implements ApiRequest<T> {
      */
     protected final void setBody(byte[] body) {
         this.body = body;
+        this.jsonBody = null;
+        this.jsonBytes = null;
     }
 
     /**
@@ -217,13 +256,30 @@ public abstract class BaseApiRequest<T> implements ApiRequest<T> {
      * @see #setBody(byte[])
      */
     protected final void setBody(JsonElement json) {
-        setBody(JsonUtils.getBytes(json));
+        this.body = null;
+        this.jsonBody = json;
+        this.jsonBytes = null;
     }
 
     /**
-     * Allows you to lazily prepare request body before {@link #getBody()} method returns. You can use
+     * Allows you to lazily prepare request body before {@link #getBody()} or {@link #writeBody(BufferedSink)} method
+     * returns. The method can be called several times for the same request. You can use
      * {@link #setBody(byte[])} or any of {@code addParameter*} methods here.
      */
     protected void prepareBody() {
     }
+
+    private byte[] getJsonBytes() {
+        if (jsonBytes == null) {
+            jsonBytes = JsonUtils.getBytes(jsonBody);
+        }
+        return jsonBytes;
+    }
+
+    private Map<String, String> getMutableHeaders() {
+        if (headers == null) {
+            headers = new HashMap<>();
+        }
+        return headers;
+    }
 }
@@ -48,8 +48,12 @@ import static com.yandex.money.api.util.Responses.processError;
  * <p>If server returns HTTP status code 404 (Not Found) then {@link ResourceNotFoundException} is thrown.</p>
  *
  * <p>In other cases {@link IOException} is thrown</p>.
+ *
+ * <p>Documents must be immutable, because concurrent identical requests can be coalesced (see
+ * {@link ShareableApiRequest}).</p>
  */
-public abstract class DocumentApiRequest<T> extends BaseApiRequest<HttpResourceResponse<T>> {
+public abstract class DocumentApiRequest<T> extends BaseApiRequest<HttpResourceResponse<T>>
+        implements ShareableApiRequest<HttpResourceResponse<T>> {
 
     private final TypeAdapter<T> typeAdapter;
 
@@ -25,11 +25,9 @@
 package com.yandex.money.api.net;
 
 import com.yandex.money.api.util.Strings;
+import okio.BufferedSink;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.Map;
@@ -39,13 +37,37 @@ import static com.yandex.money.api.util.Common.checkNotNull;
 /**
  * Buffers request parameters and creates request body for different methods. It also encodes keys
  * and values if needed using UTF-8 charset.
+ * <p>
+ * Keys and values are encoded in the same way as {@link java.net.URLEncoder} does it for UTF-8, but without
+ * intermediate strings: encoded length is computed first and then parameters are written directly to the
+ * resulting array.
  *
  * @author Slava Yasevich (vyasevich@yamoney.ru)
  */
 public final class ParametersBuffer {
 
-    private static final String UTF8_NAME = "UTF-8";
-    private static final Charset UTF8_CHARSET = Charset.forName(UTF8_NAME);
+    private static final Charset US_ASCII_CHARSET = Charset.forName("US-ASCII");
+
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(US_ASCII_CHARSET);
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; ++c) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; ++c) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; ++c) {
+            UNRESERVED[c] = true;
+        }
+        UNRESERVED['.'] = true;
+        UNRESERVED['-'] = true;
+        UNRESERVED['*'] = true;
+        UNRESERVED['_'] = true;
+    }
+
+    private static final byte[] EMPTY = new byte[0];
 
     private Map<String, String> params = Collections.emptyMap();
 
@@ -56,11 +78,9 @@ public final class ParametersBuffer {
      * @return UTF-8 byte array
      */
     public static byte[] encodeUtf8(String value) {
-        try {
-            return encode(value).getBytes(UTF8_CHARSET);
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
+        byte[] bytes = new byte[encodedLength(value)];
+        encode(value, bytes, 0);
+        return bytes;
     }
 
     /**
@@ -88,9 +108,14 @@ public final class ParametersBuffer {
      * @return url parameters
      */
     public String prepareGet() {
-        GetBuffer buffer = new GetBuffer();
-        iterate(buffer);
-        return buffer.toString();
+        int length = encodedLength();
+        if (length == 0) {
+            return "";
+        }
+        byte[] bytes = new byte[length + 1];
+        bytes[0] = '?';
+        write(bytes, 1);
+        return new String(bytes, US_ASCII_CHARSET);
     }
 
     /**
@@ -102,85 +127,144 @@ public final class ParametersBuffer {
      * {@code params.put("key1", "value1");}<br/>
      * {@code params.put("key2", "value2");}
      * <p>
-     * Then the method will return byte array containing "?key1=value1&key2=value2".
+     * Then the method will return byte array containing "key1=value1&key2=value2".
      *
      * @return byte array of parameters
      */
     public byte[] prepareBytes() {
-        PostBuffer buffer = new PostBuffer();
-        iterate(buffer);
-        return buffer.getBytes();
+        byte[] bytes = new byte[encodedLength()];
+        write(bytes, 0);
+        return bytes;
     }
 
-    private static String encode(String value) throws UnsupportedEncodingException {
-        return URLEncoder.encode(value, UTF8_NAME);
+    /**
+     * Writes encoded parameters to a sink. The same bytes as {@link #prepareBytes()} returns are written.
+     *
+     * @param sink sink to write to
+     * @throws IOException if sink fails
+     */
+    public void writeTo(BufferedSink sink) throws IOException {
+        checkNotNull(sink, "sink");
+        byte[] scratch = EMPTY;
+        boolean first = true;
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            if (isValid(param)) {
+                if (first) {
+                    first = false;
+                } else {
+                    sink.writeByte('&');
+                }
+                String key = param.getKey();
+                String value = param.getValue();
+                int length = encodedLength(key) + 1 + encodedLength(value);
+                if (scratch.length < length) {
+                    scratch = new byte[Math.max(length, 2 * scratch.length)];
+                }
+                int offset = encode(key, scratch, 0);
+                scratch[offset++] = '=';
+                sink.write(scratch, 0, encode(value, scratch, offset));
+            }
+        }
     }
 
-    private void iterate(Buffer buffer) {
+    /**
+     * Computes length of encoded parameters.
+     *
+     * @return length in bytes
+     */
+    public int encodedLength() {
+        int length = 0;
         for (Map.Entry<String, String> param : params.entrySet()) {
-            String key = param.getKey();
-            if (Strings.isNullOrEmpty(key)) {
-                continue; // ignore empty keys
+            if (isValid(param)) {
+                if (length > 0) {
+                    ++length; // ampersand
+                }
+                length += encodedLength(param.getKey()) + 1 + encodedLength(param.getValue());
             }
+        }
+        return length;
+    }
 
-            String value = param.getValue();
-            if (Strings.isNullOrEmpty(value)) {
-                continue;
+    private void write(byte[] bytes, int offset) {
+        int start = offset;
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            if (isValid(param)) {
+                if (offset > start) {
+                    bytes[offset++] = '&';
+                }
+                offset = encode(param.getKey(), bytes, offset);
+                bytes[offset++] = '=';
+                offset = encode(param.getValue(), bytes, offset);
             }
-
-            buffer.nextParameter(key, value);
         }
     }
 
-    private interface Buffer {
-        void nextParameter(String key, String value);
+    private static boolean isValid(Map.Entry<String, String> param) {
+        // ignore empty keys and values
+        return !Strings.isNullOrEmpty(param.getKey()) && !Strings.isNullOrEmpty(param.getValue());
     }
 
-    private static final class GetBuffer implements Buffer {
-
-        public final StringBuilder builder = new StringBuilder();
-
-        @Override
-        public void nextParameter(String key, String value) {
-            try {
-                builder.append(builder.length() == 0 ? '?' : '&')
-                        .append(encode(key))
-                        .append('=')
-                        .append(encode(value));
-            } catch (UnsupportedEncodingException e) {
-                throw new RuntimeException(e);
+    private static int encodedLength(String value) {
+        int length = 0;
+        for (int i = 0, n = value.length(); i < n; ++i) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += UNRESERVED[c] || c == ' ' ? 1 : 3;
+            } else if (c < 0x800) {
+                length += 6;
+            } else if (isSurrogatePair(value, i)) {
+                length += 12;
+                ++i;
+            } else if (Character.isSurrogate(c)) {
+                length += 3;
+            } else {
+                length += 9;
             }
         }
-
-        @Override
-        public String toString() {
-            return builder.toString();
-        }
+        return length;
     }
 
-    private static final class PostBuffer implements Buffer {
-
-        private static final byte[] AMPERSAND = "&".getBytes(UTF8_CHARSET);
-        private static final byte[] EQUALS_SIGN = "=".getBytes(UTF8_CHARSET);
-
-        private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-
-        @Override
-        public void nextParameter(String key, String value) {
-            try {
-                if (stream.size() > 0) {
-                    stream.write(AMPERSAND);
+    private static int encode(String value, byte[] bytes, int offset) {
+        for (int i = 0, n = value.length(); i < n; ++i) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (UNRESERVED[c]) {
+                    bytes[offset++] = (byte) c;
+                } else if (c == ' ') {
+                    bytes[offset++] = '+';
+                } else {
+                    offset = percentEncode(c, bytes, offset);
                 }
-                stream.write(encodeUtf8(key));
-                stream.write(EQUALS_SIGN);
-                stream.write(encodeUtf8(value));
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+            } else if (c < 0x800) {
+                offset = percentEncode(0xC0 | (c >> 6), bytes, offset);
+                offset = percentEncode(0x80 | (c & 0x3F), bytes, offset);
+            } else if (isSurrogatePair(value, i)) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                offset = percentEncode(0xF0 | (codePoint >> 18), bytes, offset);
+                offset = percentEncode(0x80 | ((codePoint >> 12) & 0x3F), bytes, offset);
+                offset = percentEncode(0x80 | ((codePoint >> 6) & 0x3F), bytes, offset);
+                offset = percentEncode(0x80 | (codePoint & 0x3F), bytes, offset);
+            } else if (Character.isSurrogate(c)) {
+                // malformed input is replaced with '?' as String.getBytes does
+                offset = percentEncode('?', bytes, offset);
+            } else {
+                offset = percentEncode(0xE0 | (c >> 12), bytes, offset);
+                offset = percentEncode(0x80 | ((c >> 6) & 0x3F), bytes, offset);
+                offset = percentEncode(0x80 | (c & 0x3F), bytes, offset);
             }
         }
+        return offset;
+    }
 
-        public byte[] getBytes() {
-            return stream.toByteArray();
-        }
+    private static boolean isSurrogatePair(String value, int index) {
+        return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length() &&
+                Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
+    private static int percentEncode(int b, byte[] bytes, int offset) {
+        bytes[offset] = '%';
+        bytes[offset + 1] = HEX_DIGITS[(b >> 4) & 0xF];
+        bytes[offset + 2] = HEX_DIGITS[b & 0xF];
+        return offset + 3;
     }
 }
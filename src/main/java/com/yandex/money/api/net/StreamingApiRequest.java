@@ -0,0 +1,54 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net;
+
+import okio.BufferedSink;
+
+import java.io.IOException;
+
+/**
+ * API request that writes its body directly to a sink instead of creating a byte array with {@link #getBody()}.
+ * Clients should prefer {@link #writeBody(BufferedSink)} over {@link #getBody()} if supported. {@link BaseApiRequest}
+ * implements this interface.
+ *
+ * @param <T> response
+ */
+public interface StreamingApiRequest<T> extends ApiRequest<T> {
+
+    /**
+     * Gets length of a body in bytes.
+     *
+     * @return length of a body or -1 if unknown
+     */
+    long contentLength();
+
+    /**
+     * Writes a body of a request to a sink. Can be called several times, for instance when request is retried.
+     *
+     * @param sink sink to write to
+     * @throws IOException if sink fails
+     */
+    void writeBody(BufferedSink sink) throws IOException;
+}
@@ -0,0 +1,50 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import com.yandex.money.api.net.ApiRequest;
+
+/**
+ * Receives the result of an {@link ApiRequest} executed with {@link ApiClient#executeAsync(ApiRequest, ApiCallback)}.
+ * Exactly one of the methods is called for every request unless the request was cancelled.
+ *
+ * @param <T> response document type
+ */
+public interface ApiCallback<T> {
+
+    /**
+     * Called when response was successfully parsed.
+     *
+     * @param response response document
+     */
+    void onSuccess(T response);
+
+    /**
+     * Called when request could not be executed or its response could not be parsed.
+     *
+     * @param exception the reason of a failure
+     */
+    void onFailure(Exception exception);
+}
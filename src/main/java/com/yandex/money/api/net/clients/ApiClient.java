@@ -31,6 +31,8 @@ import com.yandex.money.api.net.UserAgent;
 import com.yandex.money.api.net.providers.HostsProvider;
 import com.yandex.money.api.util.Language;
 
+import java.util.concurrent.Future;
+
 /**
  * Yandex.Money API client. The purpose of this interface is to provide methods to execute API functions, get resources
  * from server and help with user's authorization.
@@ -67,6 +69,26 @@ public interface ApiClient {
      */
     <T> T execute(ApiRequest<T> request) throws Exception;
 
+    /**
+     * Executes {@link ApiRequest} asynchronously. The calling thread is not blocked.
+     *
+     * @param request request to execute
+     * @param <T> response document type
+     * @return future of a response document
+     */
+    <T> Future<T> executeAsync(ApiRequest<T> request);
+
+    /**
+     * Executes {@link ApiRequest} asynchronously and notifies {@code callback} when the response document is ready.
+     * A request that can not be prepared is reported to {@code callback} and the returned future too.
+     *
+     * @param request request to execute
+     * @param callback callback to notify
+     * @param <T> response document type
+     * @return future of a response document
+     */
+    <T> Future<T> executeAsync(ApiRequest<T> request, ApiCallback<T> callback);
+
     /**
      * Creates {@link AuthorizationData} based on a client's configuration and provided {@link AuthorizationParameters}.
      *
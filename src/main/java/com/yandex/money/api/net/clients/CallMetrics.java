@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import com.yandex.money.api.model.Error;
+import com.yandex.money.api.util.ToStringBuilder;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * Timings and outcome of a single API call. Durations are in nanoseconds. If a call fails, durations of phases that
+ * were not reached are {@code 0}.
+ */
+public final class CallMetrics {
+
+    /**
+     * API method, the path of request URL, for instance {@code /api/request-payment}. Parameterized paths are
+     * collapsed: all showcases and their steps are reported as {@code /api/showcase/*}, paths deeper than two segments
+     * are truncated to two segments followed by {@code /*}.
+     */
+    public final String method;
+
+    /**
+     * HTTP status code or {@code 0} if there is no response.
+     */
+    public final int httpCode;
+
+    /**
+     * Error of a parsed response document or {@code null} if there is no error or document type has no errors.
+     */
+    public final Error error;
+
+    /**
+     * Exception thrown by a call or {@code null} if the call succeeded.
+     */
+    public final Exception exception;
+
+    private final long[] durations;
+
+    CallMetrics(String method, int httpCode, Error error, Exception exception, long[] durations) {
+        this.method = checkNotNull(method, "method");
+        this.httpCode = httpCode;
+        this.error = error;
+        this.exception = exception;
+        this.durations = checkNotNull(durations, "durations");
+    }
+
+    /**
+     * Gets duration of a phase.
+     *
+     * @param phase phase of a call
+     * @return duration in nanoseconds
+     */
+    public long getDuration(Phase phase) {
+        return durations[checkNotNull(phase, "phase").ordinal()];
+    }
+
+    /**
+     * @return total duration of a call in nanoseconds
+     */
+    public long getTotalDuration() {
+        long total = 0;
+        for (long duration : durations) {
+            total += duration;
+        }
+        return total;
+    }
+
+    /**
+     * @return {@code true} if a call succeeded and the response document has no error
+     */
+    public boolean isSuccessful() {
+        return exception == null && error == null;
+    }
+
+    @Override
+    public String toString() {
+        ToStringBuilder builder = new ToStringBuilder("CallMetrics")
+                .append("method", method)
+                .append("httpCode", httpCode)
+                .append("error", error)
+                .append("exception", exception);
+        for (Phase phase : Phase.values()) {
+            builder.append(phase.name(), durations[phase.ordinal()]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Phases of a call.
+     */
+    public enum Phase {
+
+        /**
+         * Waiting in dispatcher's queue. Applies to asynchronous calls only.
+         */
+        QUEUE,
+
+        /**
+         * Obtaining a connection: DNS lookup, TCP and TLS handshakes. Close to zero if a pooled connection is reused.
+         */
+        CONNECT,
+
+        /**
+         * Sending a request and waiting for response headers (time to first byte).
+         */
+        WAIT,
+
+        /**
+         * Reading response body.
+         */
+        TRANSFER,
+
+        /**
+         * Parsing a response excluding time spent on reading its body. For asynchronous calls includes waiting for
+         * the response executor.
+         */
+        PARSE
+    }
+}
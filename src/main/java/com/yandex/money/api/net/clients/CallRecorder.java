@@ -0,0 +1,293 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import com.yandex.money.api.methods.AuxToken;
+import com.yandex.money.api.methods.BaseProcessPayment;
+import com.yandex.money.api.methods.BaseRequestPayment;
+import com.yandex.money.api.methods.OperationDetails;
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.methods.ShowcaseSearch;
+import com.yandex.money.api.methods.Token;
+import com.yandex.money.api.model.Error;
+import com.yandex.money.api.net.HttpResourceResponse;
+import com.yandex.money.api.util.logging.Log;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * Tracks a single call in {@link ClientStats}, records its timings and reports them to {@link ClientMetricsListener}.
+ * To record timings recorder is attached to a request as a tag, interceptors installed with
+ * {@link #install(OkHttpClient)} find it there.
+ */
+final class CallRecorder {
+
+    private static final String TAG = CallRecorder.class.getName();
+
+    private static final String SHOWCASE_SEGMENT = "showcase";
+    private static final int MAX_METHOD_SEGMENTS = 2;
+
+    private static final Interceptor INTERCEPTOR = new Interceptor() {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            CallRecorder recorder = of(chain.request());
+            if (recorder != null) {
+                recorder.dispatched = System.nanoTime();
+            }
+            return chain.proceed(chain.request());
+        }
+    };
+
+    private static final Interceptor NETWORK_INTERCEPTOR = new Interceptor() {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            CallRecorder recorder = of(chain.request());
+            if (recorder == null) {
+                return chain.proceed(chain.request());
+            }
+            recorder.connected = System.nanoTime();
+            Response response = chain.proceed(chain.request());
+            recorder.headersReceived = System.nanoTime();
+            recorder.httpCode = response.code();
+            ResponseBody body = response.body();
+            return body == null ? response : response.newBuilder()
+                    .body(new RecordingResponseBody(body, recorder))
+                    .build();
+        }
+    };
+
+    private final ClientMetricsListener listener;
+    private final ClientStats stats;
+    private final String method;
+    private final long started = System.nanoTime();
+
+    private volatile long dispatched;
+    private volatile long connected;
+    private volatile long headersReceived;
+    private volatile long transfer;
+    private volatile int httpCode;
+
+    /**
+     * Constructor. Call is considered started.
+     *
+     * @param listener metrics listener or {@code null} if timings are not needed
+     * @param stats statistics of a client
+     * @param request request to execute
+     */
+    CallRecorder(ClientMetricsListener listener, ClientStats stats, Request request) {
+        this.listener = listener;
+        this.stats = checkNotNull(stats, "stats");
+        this.method = getMethod(checkNotNull(request, "request").url());
+        stats.onCallStarted(method);
+    }
+
+    /**
+     * Gets API method of a request: the path of its URL with parameterized segments collapsed, so the number of methods
+     * stays bounded. Paths of showcases and their steps are collapsed to {@code <prefix>/showcase/*}, other paths are
+     * truncated to two segments followed by {@code /*}. For instance, {@code /api/request-payment} is kept as is and
+     * {@code /api/showcase/5551} becomes {@code /api/showcase/*}.
+     *
+     * @param url URL of a request
+     * @return API method
+     */
+    static String getMethod(HttpUrl url) {
+        List<String> segments = url.encodedPathSegments();
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < segments.size(); ++i) {
+            if (i == MAX_METHOD_SEGMENTS) {
+                return builder.append("/*").toString();
+            }
+            String segment = segments.get(i);
+            builder.append('/').append(segment);
+            if (SHOWCASE_SEGMENT.equals(segment) && i < segments.size() - 1) {
+                return builder.append("/*").toString();
+            }
+        }
+        return builder.length() == 0 ? "/" : builder.toString();
+    }
+
+    /**
+     * Adds interceptors recording timings to HTTP client.
+     *
+     * @param httpClient HTTP client
+     * @return HTTP client with recording interceptors
+     */
+    static OkHttpClient install(OkHttpClient httpClient) {
+        return httpClient.newBuilder()
+                .addInterceptor(INTERCEPTOR)
+                .addNetworkInterceptor(NETWORK_INTERCEPTOR)
+                .build();
+    }
+
+    /**
+     * Attaches this recorder to a request if timings are needed.
+     *
+     * @param request request to execute
+     * @return request with this recorder as a tag
+     */
+    Request attach(Request request) {
+        return listener == null ? request : request.newBuilder()
+                .tag(this)
+                .build();
+    }
+
+    /**
+     * Reports successfully completed call.
+     *
+     * @param response parsed response
+     */
+    void onSuccess(Object response) {
+        stats.onCallCompleted(method, null);
+        if (listener != null) {
+            report(getError(response), null);
+        }
+    }
+
+    /**
+     * Reports failed call.
+     *
+     * @param exception exception thrown
+     */
+    void onFailure(Exception exception) {
+        stats.onCallCompleted(method, exception);
+        if (listener != null) {
+            report(null, exception);
+        }
+    }
+
+    /**
+     * Reports cancelled call. Cancelled calls are not reported to metrics listener.
+     */
+    void onCancel() {
+        stats.onCallCompleted(method, null);
+    }
+
+    private void report(Error error, Exception exception) {
+        long completed = System.nanoTime();
+        long[] durations = new long[CallMetrics.Phase.values().length];
+        long last = started;
+        last = setDuration(durations, CallMetrics.Phase.QUEUE, last, dispatched);
+        last = setDuration(durations, CallMetrics.Phase.CONNECT, last, connected);
+        last = setDuration(durations, CallMetrics.Phase.WAIT, last, headersReceived);
+        long transfer = this.transfer;
+        durations[CallMetrics.Phase.TRANSFER.ordinal()] = transfer;
+        durations[CallMetrics.Phase.PARSE.ordinal()] = Math.max(0, completed - last - transfer);
+
+        try {
+            listener.onCallCompleted(new CallMetrics(method, httpCode, error, exception, durations));
+        } catch (RuntimeException e) {
+            Log.e(TAG, "metrics listener failed", e);
+        }
+    }
+
+    private static long setDuration(long[] durations, CallMetrics.Phase phase, long from, long to) {
+        if (to == 0) {
+            return from;
+        }
+        durations[phase.ordinal()] = Math.max(0, to - from);
+        return to;
+    }
+
+    private static CallRecorder of(Request request) {
+        Object tag = request.tag();
+        return tag instanceof CallRecorder ? (CallRecorder) tag : null;
+    }
+
+    private static Error getError(Object response) {
+        if (response instanceof HttpResourceResponse) {
+            response = ((HttpResourceResponse<?>) response).document;
+        }
+        if (response instanceof BaseRequestPayment) {
+            return ((BaseRequestPayment) response).error;
+        } else if (response instanceof BaseProcessPayment) {
+            return ((BaseProcessPayment) response).error;
+        } else if (response instanceof Token) {
+            return ((Token) response).error;
+        } else if (response instanceof AuxToken) {
+            return ((AuxToken) response).error;
+        } else if (response instanceof OperationDetails) {
+            return ((OperationDetails) response).error;
+        } else if (response instanceof OperationHistory) {
+            return ((OperationHistory) response).error;
+        } else if (response instanceof ShowcaseSearch) {
+            return ((ShowcaseSearch) response).error;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Response body that counts time spent on reading.
+     */
+    private static final class RecordingResponseBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        RecordingResponseBody(ResponseBody delegate, final CallRecorder recorder) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long started = System.nanoTime();
+                    try {
+                        return super.read(sink, byteCount);
+                    } finally {
+                        recorder.transfer += System.nanoTime() - started;
+                    }
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * Cancels a call when {@link HttpClientConfig#callTimeout} expires. OkHttp 3.4 has no call timeout of its own and
+ * neither has {@link UrlConnectionTransport}, so watchdogs of all transports share a single daemon thread.
+ */
+final class CallWatchdog implements Runnable {
+
+    private final Transport.Call call;
+    private final ScheduledFuture<?> future;
+
+    private volatile boolean expired;
+
+    private CallWatchdog(Transport.Call call, long timeout) {
+        this.call = checkNotNull(call, "call");
+        this.future = Scheduler.INSTANCE.schedule(this, timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts watching a call.
+     *
+     * @param call call to cancel
+     * @param timeout timeout in milliseconds, 0 for no timeout
+     * @return started watchdog or {@code null} if there is no timeout
+     */
+    static CallWatchdog start(Transport.Call call, long timeout) {
+        return timeout > 0 ? new CallWatchdog(call, timeout) : null;
+    }
+
+    /**
+     * Stops watching a call. Call this method when the call is complete.
+     *
+     * @param watchdog watchdog to stop, can be {@code null}
+     */
+    static void stop(CallWatchdog watchdog) {
+        if (watchdog != null) {
+            watchdog.future.cancel(false);
+        }
+    }
+
+    /**
+     * Replaces an exception of the call with {@link InterruptedIOException} if the call has been cancelled by the
+     * watchdog.
+     *
+     * @param watchdog watchdog of the call, can be {@code null}
+     * @param exception exception of the call
+     * @return exception to report
+     */
+    static Exception translate(CallWatchdog watchdog, Exception exception) {
+        if (watchdog == null || !watchdog.expired || !(exception instanceof IOException)) {
+            return exception;
+        }
+        InterruptedIOException timeout = new InterruptedIOException("call timeout");
+        timeout.initCause(exception);
+        return timeout;
+    }
+
+    @Override
+    public void run() {
+        expired = true;
+        call.cancel();
+    }
+
+    private static final class Scheduler {
+
+        static final ScheduledThreadPoolExecutor INSTANCE = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "YandexMoney call watchdog");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        static {
+            INSTANCE.setRemoveOnCancelPolicy(true);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import com.yandex.money.api.exceptions.InsufficientScopeException;
+import com.yandex.money.api.exceptions.InvalidRequestException;
+import com.yandex.money.api.exceptions.InvalidTokenException;
+import okhttp3.OkHttpClient;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * Gauges and counters of {@link DefaultApiClient}: state of HTTP client's connection pool and dispatcher, calls in
+ * progress and errors. Counters are striped, so updating them does not contend between threads. Statistics of a
+ * client are shared with its views created by {@link DefaultApiClient#withAccessToken(String)}.
+ * <p/>
+ * Calls in progress are counted by API method as in {@link CallMetrics#method}. Like
+ * {@link HistogramMetricsListener}, at most {@link HistogramMetricsListener#MAX_METHODS} methods are counted
+ * separately, calls of other methods are counted as {@link HistogramMetricsListener#OTHER_METHODS}.
+ * <p/>
+ * Connection pool and dispatcher gauges are available for {@link OkHttpTransport} only, they are 0 for other
+ * transports.
+ *
+ * @see DefaultApiClient#getStats()
+ * @see ClientStatsExporter
+ */
+public final class ClientStats implements ClientStatsMXBean {
+
+    private final OkHttpClient httpClient;
+    private final ConcurrentMap<String, StripedCounter> inFlight = new ConcurrentHashMap<>();
+    private final StripedCounter calls = new StripedCounter();
+    private final StripedCounter invalidToken = new StripedCounter();
+    private final StripedCounter insufficientScope = new StripedCounter();
+    private final StripedCounter invalidRequest = new StripedCounter();
+    private final StripedCounter ioErrors = new StripedCounter();
+    private final StripedCounter otherErrors = new StripedCounter();
+
+    /**
+     * Constructor.
+     *
+     * @param httpClient HTTP client to get gauges from, {@code null} if transport is not based on OkHttp
+     */
+    ClientStats(OkHttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public int getConnectionCount() {
+        return httpClient == null ? 0 : httpClient.connectionPool().connectionCount();
+    }
+
+    @Override
+    public int getIdleConnectionCount() {
+        return httpClient == null ? 0 : httpClient.connectionPool().idleConnectionCount();
+    }
+
+    @Override
+    public int getQueuedCallCount() {
+        return httpClient == null ? 0 : httpClient.dispatcher().queuedCallsCount();
+    }
+
+    @Override
+    public int getRunningCallCount() {
+        return httpClient == null ? 0 : httpClient.dispatcher().runningCallsCount();
+    }
+
+    @Override
+    public long getInFlightCount() {
+        long count = 0;
+        for (StripedCounter counter : inFlight.values()) {
+            count += counter.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> getInFlightCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, StripedCounter> entry : inFlight.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    /**
+     * Gets number of calls in progress for API method.
+     *
+     * @param method API method as in {@link CallMetrics#method}, for instance {@code /api/request-payment} or
+     *               {@code /api/showcase/*}
+     * @return number of calls in progress
+     */
+    public long getInFlightCount(String method) {
+        StripedCounter counter = inFlight.get(checkNotNull(method, "method"));
+        return counter == null ? 0 : counter.sum();
+    }
+
+    @Override
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getInvalidTokenCount() {
+        return invalidToken.sum();
+    }
+
+    @Override
+    public long getInsufficientScopeCount() {
+        return insufficientScope.sum();
+    }
+
+    @Override
+    public long getInvalidRequestCount() {
+        return invalidRequest.sum();
+    }
+
+    @Override
+    public long getIoErrorCount() {
+        return ioErrors.sum();
+    }
+
+    @Override
+    public long getOtherErrorCount() {
+        return otherErrors.sum();
+    }
+
+    void onCallStarted(String method) {
+        calls.increment();
+        getInFlightCounter(method).increment();
+    }
+
+    void onCallCompleted(String method, Exception exception) {
+        getInFlightCounter(method).decrement();
+        if (exception == null) {
+            return;
+        }
+        if (exception instanceof InvalidTokenException) {
+            invalidToken.increment();
+        } else if (exception instanceof InsufficientScopeException) {
+            insufficientScope.increment();
+        } else if (exception instanceof InvalidRequestException) {
+            invalidRequest.increment();
+        } else if (exception instanceof IOException) {
+            ioErrors.increment();
+        } else {
+            otherErrors.increment();
+        }
+    }
+
+    private StripedCounter getInFlightCounter(String method) {
+        StripedCounter counter = inFlight.get(method);
+        if (counter == null) {
+            if (inFlight.size() >= HistogramMetricsListener.MAX_METHODS &&
+                    !HistogramMetricsListener.OTHER_METHODS.equals(method)) {
+                return getInFlightCounter(HistogramMetricsListener.OTHER_METHODS);
+            }
+            counter = new StripedCounter();
+            StripedCounter current = inFlight.putIfAbsent(method, counter);
+            if (current != null) {
+                counter = current;
+            }
+        }
+        return counter;
+    }
+}
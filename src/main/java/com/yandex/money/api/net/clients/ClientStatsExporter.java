@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * Exports {@link ClientStats} as JMX MXBeans. Not available on platforms without {@code javax.management}, such as
+ * Android.
+ */
+public final class ClientStatsExporter {
+
+    /**
+     * Domain of exported object names.
+     */
+    public static final String DOMAIN = "com.yandex.money.api";
+
+    private ClientStatsExporter() {
+    }
+
+    /**
+     * Registers statistics in the platform MBean server with object name
+     * {@code com.yandex.money.api:type=ClientStats,name=<name>}.
+     *
+     * @param stats statistics to register
+     * @param name name of a client
+     * @return object name of registered MXBean
+     * @throws JMException if unable to register statistics
+     */
+    public static ObjectName register(ClientStats stats, String name) throws JMException {
+        return register(ManagementFactory.getPlatformMBeanServer(), stats, name);
+    }
+
+    /**
+     * Registers statistics in an MBean server with object name
+     * {@code com.yandex.money.api:type=ClientStats,name=<name>}.
+     *
+     * @param server MBean server
+     * @param stats statistics to register
+     * @param name name of a client
+     * @return object name of registered MXBean
+     * @throws JMException if unable to register statistics
+     */
+    public static ObjectName register(MBeanServer server, ClientStats stats, String name) throws JMException {
+        ObjectName objectName = getObjectName(name);
+        checkNotNull(server, "server").registerMBean(checkNotNull(stats, "stats"), objectName);
+        return objectName;
+    }
+
+    /**
+     * Unregisters statistics from the platform MBean server.
+     *
+     * @param name name of a client used for registration
+     * @throws JMException if unable to unregister statistics
+     */
+    public static void unregister(String name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(getObjectName(name));
+    }
+
+    private static ObjectName getObjectName(String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=ClientStats,name=" + ObjectName.quote(checkNotNull(name, "name")));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link ClientStats}. Use {@link ClientStatsExporter} to register it in a JMX MBean server.
+ */
+public interface ClientStatsMXBean {
+
+    /**
+     * @return total number of connections in HTTP client's pool
+     */
+    int getConnectionCount();
+
+    /**
+     * @return number of idle connections in HTTP client's pool
+     */
+    int getIdleConnectionCount();
+
+    /**
+     * @return number of calls waiting in dispatcher's queue
+     */
+    int getQueuedCallCount();
+
+    /**
+     * @return number of calls being executed by dispatcher
+     */
+    int getRunningCallCount();
+
+    /**
+     * @return number of calls in progress
+     */
+    long getInFlightCount();
+
+    /**
+     * @return numbers of calls in progress by API method, see {@link CallMetrics#method}
+     */
+    Map<String, Long> getInFlightCounts();
+
+    /**
+     * @return total number of calls started
+     */
+    long getCallCount();
+
+    /**
+     * @return number of calls failed with {@link com.yandex.money.api.exceptions.InvalidTokenException}
+     */
+    long getInvalidTokenCount();
+
+    /**
+     * @return number of calls failed with {@link com.yandex.money.api.exceptions.InsufficientScopeException}
+     */
+    long getInsufficientScopeCount();
+
+    /**
+     * @return number of calls failed with {@link com.yandex.money.api.exceptions.InvalidRequestException}
+     */
+    long getInvalidRequestCount();
+
+    /**
+     * @return number of calls failed with {@link java.io.IOException}
+     */
+    long getIoErrorCount();
+
+    /**
+     * @return number of calls failed with other exceptions
+     */
+    long getOtherErrorCount();
+}
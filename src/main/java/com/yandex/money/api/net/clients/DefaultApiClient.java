@@ -28,6 +28,8 @@ import com.yandex.money.api.authorization.AuthorizationData;
 import com.yandex.money.api.authorization.AuthorizationParameters;
 import com.yandex.money.api.net.ApiRequest;
 import com.yandex.money.api.net.DefaultUserAgent;
+import com.yandex.money.api.net.ShareableApiRequest;
+import com.yandex.money.api.net.StreamingApiRequest;
 import com.yandex.money.api.net.UserAgent;
 import com.yandex.money.api.net.providers.DefaultApiV1HostsProvider;
 import com.yandex.money.api.net.providers.HostsProvider;
@@ -39,30 +41,54 @@ import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
-import okhttp3.Response;
 
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 import static com.yandex.money.api.util.Common.checkNotNull;
 
 /**
  * Default implementation of {@link ApiClient} interface. This implementation is suitable in most cases. To create an
  * instance of this class use {@link DefaultApiClient.Builder}.
+ * <p>
+ * The client is thread safe. To serve many users with one HTTP client create a view for each of them with
+ * {@link #withAccessToken(String)} instead of changing access token of a shared client.
+ * <p>
+ * Concurrent identical {@link ShareableApiRequest}s are coalesced into a single HTTP call, see
+ * {@link Builder#setRequestCoalescing(boolean)}.
+ * <p>
+ * HTTP calls are executed by a {@link Transport}, {@link OkHttpTransport} by default, see
+ * {@link Builder#setTransport(Transport)}.
  *
  * @author Slava Yasevich (vyasevich@yamoney.ru)
  */
 public class DefaultApiClient implements ApiClient {
 
-    private final CacheControl cacheControl = new CacheControl.Builder().noCache().build();
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static final CacheControl CACHE_CONTROL = new CacheControl.Builder().noCache().build();
 
     private final String clientId;
     private final HostsProvider hostsProvider;
     private final UserAgent userAgent;
     private final Language language;
     private final boolean debugMode;
-    private final OkHttpClient httpClient;
+    private final Transport transport;
+    private final Executor responseExecutor;
+    private final long callTimeout;
+    private final boolean accessTokenFixed;
+    private final SingleFlight singleFlight;
+    private final ClientMetricsListener metricsListener;
+    private final ClientStats stats;
 
-    private String accessToken;
+    private volatile String accessToken;
 
     /**
      * Constructor.
@@ -76,10 +102,57 @@ public class DefaultApiClient implements ApiClient {
         language = builder.language;
         debugMode = builder.debugMode;
 
-        if (builder.httpClient == null) {
-            builder.httpClient = HttpClientFactory.newOkHttpClient(debugMode);
+        metricsListener = builder.metricsListener;
+        Transport transport = builder.transport;
+        if (transport == null) {
+            if (builder.httpClient == null) {
+                builder.httpClient = HttpClientFactory.newOkHttpClient(builder.httpClientConfig, debugMode);
+            }
+            transport = new OkHttpTransport(builder.httpClient);
+        }
+        OkHttpClient httpClient = null;
+        if (transport instanceof OkHttpTransport) {
+            httpClient = ((OkHttpTransport) transport).getHttpClient();
+            if (metricsListener != null) {
+                httpClient = CallRecorder.install(httpClient);
+                transport = new OkHttpTransport(httpClient);
+            }
         }
-        httpClient = builder.httpClient;
+        this.transport = transport;
+        stats = new ClientStats(httpClient);
+        callTimeout = builder.httpClientConfig.callTimeout;
+        responseExecutor = builder.responseExecutor == null ? DIRECT_EXECUTOR : builder.responseExecutor;
+        accessTokenFixed = false;
+        singleFlight = builder.requestCoalescing ? new SingleFlight() : null;
+    }
+
+    private DefaultApiClient(DefaultApiClient client, String accessToken) {
+        clientId = client.clientId;
+        hostsProvider = client.hostsProvider;
+        userAgent = client.userAgent;
+        language = client.language;
+        debugMode = client.debugMode;
+        transport = client.transport;
+        callTimeout = client.callTimeout;
+        responseExecutor = client.responseExecutor;
+        accessTokenFixed = true;
+        singleFlight = client.singleFlight;
+        metricsListener = client.metricsListener;
+        stats = client.stats;
+        this.accessToken = accessToken;
+    }
+
+    /**
+     * Creates a view of this client authorized with {@code accessToken}. The view shares transport and all the
+     * settings with this client, so it is cheap to create one per user. Access token of the view can not be changed:
+     * its {@link #setAccessToken(String)} method throws {@link UnsupportedOperationException}. Methods overridden in
+     * subclasses are not used by the view.
+     *
+     * @param accessToken access token to use, {@code null} for unauthorized view
+     * @return client authorized with {@code accessToken}
+     */
+    public final ApiClient withAccessToken(String accessToken) {
+        return new DefaultApiClient(this, accessToken);
     }
 
     @Override
@@ -104,8 +177,78 @@ public class DefaultApiClient implements ApiClient {
 
     @Override
     public <T> T execute(ApiRequest<T> request) throws Exception {
-        Response response = httpClient.newCall(prepareRequest(request)).execute();
-        return request.parse(new OkHttpClientResponse(response, debugMode));
+        Request httpRequest = prepareRequest(request);
+        if (!isShareable(request)) {
+            return execute(request, httpRequest);
+        }
+
+        while (true) {
+            SingleFlight.Flight<T> flight = singleFlight.join(request, httpRequest);
+            if (flight.tryStart()) {
+                T response;
+                try {
+                    response = execute(request, httpRequest);
+                } catch (Exception e) {
+                    flight.onFailure(e);
+                    throw e;
+                } catch (Error e) {
+                    flight.onFailure(new ExecutionException(e));
+                    throw e;
+                }
+                flight.onSuccess(response);
+                return response;
+            }
+
+            Future<T> waiter = flight.newWaiter(null);
+            if (waiter != null) {
+                try {
+                    return waiter.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw (Exception) cause;
+                } catch (InterruptedException e) {
+                    waiter.cancel(true);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public <T> Future<T> executeAsync(ApiRequest<T> request) {
+        return executeAsync(request, null);
+    }
+
+    @Override
+    public <T> Future<T> executeAsync(ApiRequest<T> request, ApiCallback<T> callback) {
+        checkNotNull(request, "request");
+        Request httpRequest;
+        try {
+            httpRequest = prepareRequest(request);
+        } catch (RuntimeException e) {
+            if (callback != null) {
+                callback.onFailure(e);
+            }
+            return new FailedFuture<>(e);
+        }
+        if (!isShareable(request)) {
+            return enqueue(request, httpRequest, callback);
+        }
+
+        while (true) {
+            SingleFlight.Flight<T> flight = singleFlight.join(request, httpRequest);
+            boolean leader = flight.tryStart();
+            Future<T> waiter = flight.newWaiter(callback);
+            if (waiter != null) {
+                if (leader) {
+                    flight.setCall(enqueue(request, httpRequest, flight));
+                }
+                return waiter;
+            }
+        }
     }
 
     @Override
@@ -116,6 +259,9 @@ public class DefaultApiClient implements ApiClient {
 
     @Override
     public final void setAccessToken(String accessToken) {
+        if (accessTokenFixed) {
+            throw new UnsupportedOperationException("access token of this client can not be changed");
+        }
         this.accessToken = accessToken;
     }
 
@@ -124,6 +270,16 @@ public class DefaultApiClient implements ApiClient {
         return !Strings.isNullOrEmpty(accessToken);
     }
 
+    /**
+     * Gets statistics of this client. Views created with {@link #withAccessToken(String)} share statistics with the
+     * client.
+     *
+     * @return statistics
+     */
+    public final ClientStats getStats() {
+        return stats;
+    }
+
     /**
      * @return {@code true} if debug mode is enabled
      */
@@ -141,16 +297,55 @@ public class DefaultApiClient implements ApiClient {
     protected void configHttpClient(OkHttpClient.Builder builder) {
     }
 
+    private <T> T execute(ApiRequest<T> request, Request httpRequest) throws Exception {
+        CallRecorder recorder = new CallRecorder(metricsListener, stats, httpRequest);
+        Transport.Call call = transport.newCall(recorder.attach(httpRequest));
+        CallWatchdog watchdog = CallWatchdog.start(call, callTimeout);
+        try {
+            T result;
+            TransportResponse response = call.execute();
+            try {
+                result = request.parse(debugMode ? new LoggingClientResponse(response) : response);
+            } finally {
+                response.close();
+            }
+            recorder.onSuccess(result);
+            return result;
+        } catch (Exception e) {
+            Exception exception = CallWatchdog.translate(watchdog, e);
+            recorder.onFailure(exception);
+            throw exception;
+        } catch (Error e) {
+            recorder.onFailure(new ExecutionException(e));
+            throw e;
+        } finally {
+            CallWatchdog.stop(watchdog);
+        }
+    }
+
+    private <T> Future<T> enqueue(ApiRequest<T> request, Request httpRequest, ApiCallback<T> callback) {
+        CallRecorder recorder = new CallRecorder(metricsListener, stats, httpRequest);
+        TransportAsyncCall<T> call = new TransportAsyncCall<>(request, callback, responseExecutor, debugMode, recorder);
+        call.enqueue(transport.newCall(recorder.attach(httpRequest)), callTimeout);
+        return call;
+    }
+
+    private boolean isShareable(ApiRequest<?> request) {
+        return singleFlight != null && request instanceof ShareableApiRequest &&
+                request.getMethod() == ApiRequest.Method.GET;
+    }
+
     private Request prepareRequest(ApiRequest<?> request) {
         checkNotNull(request, "request");
 
         Request.Builder builder = new Request.Builder()
-                .cacheControl(cacheControl)
+                .cacheControl(CACHE_CONTROL)
                 .url(request.requestUrl(getHostsProvider()))
                 .addHeader(HttpHeaders.USER_AGENT, getUserAgent().getName())
                 .addHeader(HttpHeaders.ACCEPT_LANGUAGE, getLanguage().iso6391Code);
 
-        if (isAuthorized()) {
+        String accessToken = this.accessToken;
+        if (!Strings.isNullOrEmpty(accessToken)) {
             builder.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken);
         }
 
@@ -163,7 +358,10 @@ public class DefaultApiClient implements ApiClient {
 
         ApiRequest.Method method = request.getMethod();
         if (method != ApiRequest.Method.GET) {
-            RequestBody body = RequestBody.create(MediaType.parse(request.getContentType()), request.getBody());
+            MediaType contentType = MediaType.parse(request.getContentType());
+            RequestBody body = request instanceof StreamingApiRequest
+                    ? new StreamingRequestBody(contentType, (StreamingApiRequest<?>) request)
+                    : RequestBody.create(contentType, request.getBody());
             switch (method) {
                 case POST:
                     builder.post(body);
@@ -188,6 +386,11 @@ public class DefaultApiClient implements ApiClient {
         private HostsProvider hostsProvider = new DefaultApiV1HostsProvider(false);
         private Language language = Language.getDefault();
         private OkHttpClient httpClient;
+        private Transport transport;
+        private HttpClientConfig httpClientConfig = HttpClientConfig.DEFAULT;
+        private Executor responseExecutor;
+        private boolean requestCoalescing = true;
+        private ClientMetricsListener metricsListener;
 
         /**
          * Sets debug mode. Enables logging. Default value is {@code false}.
@@ -258,7 +461,7 @@ public class DefaultApiClient implements ApiClient {
         }
 
         /**
-         * Sets HTTP client to use.
+         * Sets HTTP client to use. Ignored if transport is set with {@link #setTransport(Transport)}.
          *
          * @param httpClient HTTP client
          * @return itself
@@ -268,6 +471,72 @@ public class DefaultApiClient implements ApiClient {
             return this;
         }
 
+        /**
+         * Sets configuration of HTTP client. Used to create HTTP client if neither it is set with
+         * {@link #setHttpClient(OkHttpClient)} nor transport is set with {@link #setTransport(Transport)}.
+         * {@link HttpClientConfig#callTimeout} is applied in any case. Default value is
+         * {@link HttpClientConfig#DEFAULT}.
+         *
+         * @param httpClientConfig configuration of HTTP client
+         * @return itself
+         */
+        public final Builder setHttpClientConfig(HttpClientConfig httpClientConfig) {
+            this.httpClientConfig = checkNotNull(httpClientConfig, "httpClientConfig");
+            return this;
+        }
+
+        /**
+         * Sets transport to execute HTTP calls with. By default {@link OkHttpTransport} is created with HTTP client
+         * set by {@link #setHttpClient(OkHttpClient)} or configured by {@link #setHttpClientConfig(HttpClientConfig)}.
+         * Debug mode of the client does not enable wire logging of a transport set with this method, see
+         * {@link HttpClientFactory#applyLogging(OkHttpClient.Builder)}.
+         *
+         * @param transport transport or {@code null} to use the default one
+         * @return itself
+         */
+        public final Builder setTransport(Transport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Sets executor to parse responses of asynchronous requests on. By default responses are parsed on HTTP
+         * client's threads.
+         *
+         * @param responseExecutor executor to parse responses on
+         * @return itself
+         */
+        public final Builder setResponseExecutor(Executor responseExecutor) {
+            this.responseExecutor = responseExecutor;
+            return this;
+        }
+
+        /**
+         * Enables coalescing of concurrent identical requests that implement {@link ShareableApiRequest}: while such
+         * request is in progress, requests of the same class with the same URL and headers wait for its response
+         * instead of making their own HTTP calls. Enabled by default.
+         *
+         * @param requestCoalescing {@code true} to enable coalescing
+         * @return itself
+         */
+        public final Builder setRequestCoalescing(boolean requestCoalescing) {
+            this.requestCoalescing = requestCoalescing;
+            return this;
+        }
+
+        /**
+         * Sets listener to report timings and outcomes of API calls to. Use {@link HistogramMetricsListener} to get
+         * latency percentiles of each API method. Durations of call phases are recorded with {@link OkHttpTransport}
+         * only, other transports report total durations. Not set by default.
+         *
+         * @param metricsListener metrics listener or {@code null} to disable metrics
+         * @return itself
+         */
+        public final Builder setMetricsListener(ClientMetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+            return this;
+        }
+
         /**
          * Creates instance of {@link DefaultApiClient}.
          *
@@ -0,0 +1,171 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * {@link ClientMetricsListener} that keeps {@link LatencyHistogram}s of total and per phase durations and counts of
+ * outcomes for each API method. Snapshots can be taken at any time while calls are recorded:
+ * <pre>
+ * {@code
+ * LatencyHistogram.Snapshot snapshot = listener.getSnapshot("/api/request-payment");
+ * long p99 = snapshot.getValueAtPercentile(99);
+ * }
+ * </pre>
+ * At most {@link #MAX_METHODS} methods are tracked, calls of other methods are recorded as {@link #OTHER_METHODS}.
+ */
+public class HistogramMetricsListener implements ClientMetricsListener {
+
+    /**
+     * Maximum number of methods tracked separately.
+     */
+    public static final int MAX_METHODS = 64;
+
+    /**
+     * Method to record calls of methods above {@link #MAX_METHODS} limit as.
+     */
+    public static final String OTHER_METHODS = "*";
+
+    private static final LatencyHistogram EMPTY = new LatencyHistogram();
+
+    private final ConcurrentMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    @Override
+    public void onCallCompleted(CallMetrics metrics) {
+        MethodMetrics methodMetrics = getMethodMetrics(metrics.method);
+        methodMetrics.total.record(metrics.getTotalDuration());
+        for (CallMetrics.Phase phase : CallMetrics.Phase.values()) {
+            methodMetrics.phases[phase.ordinal()].record(metrics.getDuration(phase));
+        }
+        methodMetrics.increment(getOutcome(metrics));
+    }
+
+    /**
+     * @return API methods that have been called
+     */
+    public Set<String> getMethods() {
+        return Collections.unmodifiableSet(methods.keySet());
+    }
+
+    /**
+     * Gets snapshot of total durations of calls.
+     *
+     * @param method API method
+     * @return snapshot of durations in nanoseconds
+     */
+    public LatencyHistogram.Snapshot getSnapshot(String method) {
+        MethodMetrics metrics = methods.get(checkNotNull(method, "method"));
+        return (metrics == null ? EMPTY : metrics.total).snapshot();
+    }
+
+    /**
+     * Gets snapshot of durations of a phase of calls.
+     *
+     * @param method API method
+     * @param phase phase of calls
+     * @return snapshot of durations in nanoseconds
+     */
+    public LatencyHistogram.Snapshot getSnapshot(String method, CallMetrics.Phase phase) {
+        checkNotNull(phase, "phase");
+        MethodMetrics metrics = methods.get(checkNotNull(method, "method"));
+        return (metrics == null ? EMPTY : metrics.phases[phase.ordinal()]).snapshot();
+    }
+
+    /**
+     * Gets counts of call outcomes. An outcome is either HTTP status code with error code of a response document if
+     * any (for instance, {@code "200"} or {@code "200 illegal_param_amount"}) or simple name of an exception class if
+     * there is no response.
+     *
+     * @param method API method
+     * @return counts of outcomes
+     */
+    public Map<String, Long> getOutcomes(String method) {
+        Map<String, Long> outcomes = new HashMap<>();
+        MethodMetrics metrics = methods.get(checkNotNull(method, "method"));
+        if (metrics == null) {
+            return outcomes;
+        }
+        for (Map.Entry<String, AtomicLong> entry : metrics.outcomes.entrySet()) {
+            outcomes.put(entry.getKey(), entry.getValue().get());
+        }
+        return outcomes;
+    }
+
+    private MethodMetrics getMethodMetrics(String method) {
+        MethodMetrics metrics = methods.get(method);
+        if (metrics == null) {
+            if (methods.size() >= MAX_METHODS && !OTHER_METHODS.equals(method)) {
+                return getMethodMetrics(OTHER_METHODS);
+            }
+            metrics = new MethodMetrics();
+            MethodMetrics current = methods.putIfAbsent(method, metrics);
+            if (current != null) {
+                metrics = current;
+            }
+        }
+        return metrics;
+    }
+
+    private static String getOutcome(CallMetrics metrics) {
+        if (metrics.httpCode == 0) {
+            return metrics.exception == null ? "unknown" : metrics.exception.getClass().getSimpleName();
+        }
+        return metrics.error == null ? String.valueOf(metrics.httpCode) : metrics.httpCode + " " + metrics.error.code;
+    }
+
+    private static final class MethodMetrics {
+
+        final LatencyHistogram total = new LatencyHistogram();
+        final LatencyHistogram[] phases = new LatencyHistogram[CallMetrics.Phase.values().length];
+        final ConcurrentMap<String, AtomicLong> outcomes = new ConcurrentHashMap<>();
+
+        MethodMetrics() {
+            for (int i = 0; i < phases.length; ++i) {
+                phases[i] = new LatencyHistogram();
+            }
+        }
+
+        void increment(String outcome) {
+            AtomicLong counter = outcomes.get(outcome);
+            if (counter == null) {
+                counter = new AtomicLong();
+                AtomicLong current = outcomes.putIfAbsent(outcome, counter);
+                if (current != null) {
+                    counter = current;
+                }
+            }
+            counter.incrementAndGet();
+        }
+    }
+}
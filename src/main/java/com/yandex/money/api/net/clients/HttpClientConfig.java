@@ -0,0 +1,300 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import okhttp3.Protocol;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * Configuration of HTTP client created by {@link HttpClientFactory}. To create an instance of this class use
+ * {@link HttpClientConfig.Builder}. Default values are:
+ * <ul>
+ *     <li>4 idle connections kept alive for 10 minutes;</li>
+ *     <li>64 concurrent requests, 5 of them per host;</li>
+ *     <li>OkHttp's default protocols;</li>
+ *     <li>30 seconds connect and read timeouts, 10 seconds write timeout, no call timeout;</li>
+ *     <li>platform's default TCP options.</li>
+ * </ul>
+ */
+public final class HttpClientConfig {
+
+    /**
+     * Default configuration.
+     */
+    public static final HttpClientConfig DEFAULT = new Builder().create();
+
+    public final int maxIdleConnections;
+    public final long keepAliveDuration;
+    public final int maxRequests;
+    public final int maxRequestsPerHost;
+    public final List<Protocol> protocols;
+    public final long connectTimeout;
+    public final long readTimeout;
+    public final long writeTimeout;
+    public final long callTimeout;
+    public final Boolean tcpNoDelay;
+    public final Boolean keepAlive;
+    public final Integer sendBufferSize;
+    public final Integer receiveBufferSize;
+
+    private HttpClientConfig(Builder builder) {
+        maxIdleConnections = builder.maxIdleConnections;
+        keepAliveDuration = builder.keepAliveDuration;
+        maxRequests = builder.maxRequests;
+        maxRequestsPerHost = builder.maxRequestsPerHost;
+        protocols = builder.protocols == null ? null : Collections.unmodifiableList(builder.protocols);
+        connectTimeout = builder.connectTimeout;
+        readTimeout = builder.readTimeout;
+        writeTimeout = builder.writeTimeout;
+        callTimeout = builder.callTimeout;
+        tcpNoDelay = builder.tcpNoDelay;
+        keepAlive = builder.keepAlive;
+        sendBufferSize = builder.sendBufferSize;
+        receiveBufferSize = builder.receiveBufferSize;
+    }
+
+    /**
+     * @return {@code true} if any of TCP options is set
+     */
+    public boolean hasSocketOptions() {
+        return tcpNoDelay != null || keepAlive != null || sendBufferSize != null || receiveBufferSize != null;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpClientConfig{" +
+                "maxIdleConnections=" + maxIdleConnections +
+                ", keepAliveDuration=" + keepAliveDuration +
+                ", maxRequests=" + maxRequests +
+                ", maxRequestsPerHost=" + maxRequestsPerHost +
+                ", protocols=" + protocols +
+                ", connectTimeout=" + connectTimeout +
+                ", readTimeout=" + readTimeout +
+                ", writeTimeout=" + writeTimeout +
+                ", callTimeout=" + callTimeout +
+                ", tcpNoDelay=" + tcpNoDelay +
+                ", keepAlive=" + keepAlive +
+                ", sendBufferSize=" + sendBufferSize +
+                ", receiveBufferSize=" + receiveBufferSize +
+                '}';
+    }
+
+    /**
+     * Creates {@link HttpClientConfig}. All durations are stored in milliseconds.
+     */
+    public static final class Builder {
+
+        private int maxIdleConnections = 4;
+        private long keepAliveDuration = TimeUnit.MINUTES.toMillis(10);
+        private int maxRequests = 64;
+        private int maxRequestsPerHost = 5;
+        private List<Protocol> protocols;
+        private long connectTimeout = TimeUnit.SECONDS.toMillis(30);
+        private long readTimeout = TimeUnit.SECONDS.toMillis(30);
+        private long writeTimeout = TimeUnit.SECONDS.toMillis(10);
+        private long callTimeout;
+        private Boolean tcpNoDelay;
+        private Boolean keepAlive;
+        private Integer sendBufferSize;
+        private Integer receiveBufferSize;
+
+        /**
+         * Sets connection pool parameters.
+         *
+         * @param maxIdleConnections max number of idle connections to keep in pool
+         * @param keepAliveDuration time to keep idle connection alive
+         * @param unit time unit of {@code keepAliveDuration}
+         * @return itself
+         */
+        public Builder setConnectionPool(int maxIdleConnections, long keepAliveDuration, TimeUnit unit) {
+            if (maxIdleConnections < 0) {
+                throw new IllegalArgumentException("maxIdleConnections should not be negative");
+            }
+            this.maxIdleConnections = maxIdleConnections;
+            this.keepAliveDuration = toMillis("keepAliveDuration", keepAliveDuration, unit);
+            return this;
+        }
+
+        /**
+         * Sets max number of concurrent requests.
+         *
+         * @param maxRequests max number of concurrent requests
+         * @return itself
+         */
+        public Builder setMaxRequests(int maxRequests) {
+            this.maxRequests = checkPositive("maxRequests", maxRequests);
+            return this;
+        }
+
+        /**
+         * Sets max number of concurrent requests to a single host.
+         *
+         * @param maxRequestsPerHost max number of concurrent requests to a single host
+         * @return itself
+         */
+        public Builder setMaxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = checkPositive("maxRequestsPerHost", maxRequestsPerHost);
+            return this;
+        }
+
+        /**
+         * Sets protocols in order of preference. The list must contain {@link Protocol#HTTP_1_1}, for instance
+         * {@code Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)} prefers HTTP/2 and falls back to HTTP/1.1.
+         *
+         * @param protocols protocols to use or {@code null} for OkHttp's defaults
+         * @return itself
+         */
+        public Builder setProtocols(List<Protocol> protocols) {
+            if (protocols != null && !protocols.contains(Protocol.HTTP_1_1)) {
+                throw new IllegalArgumentException("protocols should contain http/1.1: " + protocols);
+            }
+            this.protocols = protocols == null ? null : new ArrayList<>(protocols);
+            return this;
+        }
+
+        /**
+         * Sets timeout for new connections.
+         *
+         * @param timeout timeout, 0 for no timeout
+         * @param unit time unit
+         * @return itself
+         */
+        public Builder setConnectTimeout(long timeout, TimeUnit unit) {
+            this.connectTimeout = toMillis("timeout", timeout, unit);
+            return this;
+        }
+
+        /**
+         * Sets read timeout for connections.
+         *
+         * @param timeout timeout, 0 for no timeout
+         * @param unit time unit
+         * @return itself
+         */
+        public Builder setReadTimeout(long timeout, TimeUnit unit) {
+            this.readTimeout = toMillis("timeout", timeout, unit);
+            return this;
+        }
+
+        /**
+         * Sets write timeout for connections.
+         *
+         * @param timeout timeout, 0 for no timeout
+         * @param unit time unit
+         * @return itself
+         */
+        public Builder setWriteTimeout(long timeout, TimeUnit unit) {
+            this.writeTimeout = toMillis("timeout", timeout, unit);
+            return this;
+        }
+
+        /**
+         * Sets timeout for a complete call: connecting, writing request, waiting for and reading response. The call
+         * is cancelled when the timeout expires.
+         *
+         * @param timeout timeout, 0 for no timeout
+         * @param unit time unit
+         * @return itself
+         */
+        public Builder setCallTimeout(long timeout, TimeUnit unit) {
+            this.callTimeout = toMillis("timeout", timeout, unit);
+            return this;
+        }
+
+        /**
+         * Sets {@link java.net.SocketOptions#TCP_NODELAY} option.
+         *
+         * @param tcpNoDelay value of the option or {@code null} for platform's default
+         * @return itself
+         */
+        public Builder setTcpNoDelay(Boolean tcpNoDelay) {
+            this.tcpNoDelay = tcpNoDelay;
+            return this;
+        }
+
+        /**
+         * Sets {@link java.net.SocketOptions#SO_KEEPALIVE} option.
+         *
+         * @param keepAlive value of the option or {@code null} for platform's default
+         * @return itself
+         */
+        public Builder setKeepAlive(Boolean keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        /**
+         * Sets {@link java.net.SocketOptions#SO_SNDBUF} option.
+         *
+         * @param sendBufferSize size of the buffer in bytes or {@code null} for platform's default
+         * @return itself
+         */
+        public Builder setSendBufferSize(Integer sendBufferSize) {
+            this.sendBufferSize = sendBufferSize == null ? null : checkPositive("sendBufferSize", sendBufferSize);
+            return this;
+        }
+
+        /**
+         * Sets {@link java.net.SocketOptions#SO_RCVBUF} option.
+         *
+         * @param receiveBufferSize size of the buffer in bytes or {@code null} for platform's default
+         * @return itself
+         */
+        public Builder setReceiveBufferSize(Integer receiveBufferSize) {
+            this.receiveBufferSize = receiveBufferSize == null ? null :
+                    checkPositive("receiveBufferSize", receiveBufferSize);
+            return this;
+        }
+
+        /**
+         * Creates instance of {@link HttpClientConfig}.
+         *
+         * @return configuration
+         */
+        public HttpClientConfig create() {
+            return new HttpClientConfig(this);
+        }
+
+        private static long toMillis(String name, long duration, TimeUnit unit) {
+            if (duration < 0) {
+                throw new IllegalArgumentException(name + " should not be negative");
+            }
+            return checkNotNull(unit, "unit").toMillis(duration);
+        }
+
+        private static int checkPositive(String name, int value) {
+            if (value < 1) {
+                throw new IllegalArgumentException(name + " should be greater than 0");
+            }
+            return value;
+        }
+    }
+}
@@ -25,8 +25,10 @@
 package com.yandex.money.api.net.clients;
 
 import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 
+import javax.net.SocketFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
 import java.security.GeneralSecurityException;
@@ -49,7 +51,18 @@ public final class HttpClientFactory {
      * @return new HTTP client
      */
     public static OkHttpClient newOkHttpClient(boolean enableLogging) {
-        OkHttpClient.Builder builder = createDefaultOkHttpClientBuilder();
+        return newOkHttpClient(HttpClientConfig.DEFAULT, enableLogging);
+    }
+
+    /**
+     * Creates new {@link OkHttpClient} instance.
+     *
+     * @param config configuration of a client
+     * @param enableLogging {@code true} if logging is required
+     * @return new HTTP client
+     */
+    public static OkHttpClient newOkHttpClient(HttpClientConfig config, boolean enableLogging) {
+        OkHttpClient.Builder builder = createOkHttpClientBuilder(config);
         if (enableLogging) {
             applyLogging(builder);
         }
@@ -62,13 +75,39 @@ public final class HttpClientFactory {
      * @return instance of {@link OkHttpClient.Builder}
      */
     public static OkHttpClient.Builder createDefaultOkHttpClientBuilder() {
-        final long timeout = 30;
-        return new OkHttpClient.Builder()
-                .readTimeout(timeout, TimeUnit.SECONDS)
-                .connectTimeout(timeout, TimeUnit.SECONDS)
-                .connectionPool(new ConnectionPool(4, 10L, TimeUnit.MINUTES))
+        return createOkHttpClientBuilder(HttpClientConfig.DEFAULT);
+    }
+
+    /**
+     * Creates {@link OkHttpClient.Builder} initialized with parameters of a configuration. Call timeout is not
+     * applied by OkHttp, {@link DefaultApiClient} takes care of it.
+     *
+     * @param config configuration of a client
+     * @return instance of {@link OkHttpClient.Builder}
+     */
+    public static OkHttpClient.Builder createOkHttpClientBuilder(HttpClientConfig config) {
+        checkNotNull(config, "config");
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(config.maxRequests);
+        dispatcher.setMaxRequestsPerHost(config.maxRequestsPerHost);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .readTimeout(config.readTimeout, TimeUnit.MILLISECONDS)
+                .connectTimeout(config.connectTimeout, TimeUnit.MILLISECONDS)
+                .writeTimeout(config.writeTimeout, TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(config.maxIdleConnections, config.keepAliveDuration,
+                        TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
                 .followSslRedirects(false)
                 .followRedirects(false);
+        if (config.protocols != null) {
+            builder.protocols(config.protocols);
+        }
+        if (config.hasSocketOptions()) {
+            builder.socketFactory(new ConfiguredSocketFactory(SocketFactory.getDefault(), config));
+        }
+        return builder;
     }
 
     /**
@@ -87,7 +126,20 @@ public final class HttpClientFactory {
      * @param sslSocketFactory SSL socket factory
      */
     public static void applyLogging(OkHttpClient.Builder builder, SSLSocketFactory sslSocketFactory) {
-        checkNotNull(builder, "builder").sslSocketFactory(new WireLoggingSocketFactory(sslSocketFactory));
+        applyLogging(builder, sslSocketFactory, WireCapture.getDefault());
+    }
+
+    /**
+     * Applies logging to OkHttp client. Bytes of connections are captured by {@code capture} and logged
+     * asynchronously.
+     *
+     * @param builder OkHttp client builder
+     * @param sslSocketFactory SSL socket factory
+     * @param capture wire capture to use
+     */
+    public static void applyLogging(OkHttpClient.Builder builder, SSLSocketFactory sslSocketFactory,
+                                    WireCapture capture) {
+        checkNotNull(builder, "builder").sslSocketFactory(new WireLoggingSocketFactory(sslSocketFactory, capture));
     }
 
     private static SSLSocketFactory createSslSocketFactory() {
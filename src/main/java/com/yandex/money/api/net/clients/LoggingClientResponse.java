@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import com.yandex.money.api.net.HttpClientResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * Logs a body of a response read with {@link #getByteStream()}. Used in debug mode regardless of a transport.
+ */
+final class LoggingClientResponse implements HttpClientResponse {
+
+    private final HttpClientResponse response;
+
+    LoggingClientResponse(HttpClientResponse response) {
+        this.response = checkNotNull(response, "response");
+    }
+
+    @Override
+    public int getCode() {
+        return response.getCode();
+    }
+
+    @Override
+    public String getMessage() {
+        return response.getMessage();
+    }
+
+    @Override
+    public String getUrl() {
+        return response.getUrl();
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return response.getHeader(name);
+    }
+
+    @Override
+    public String getBody() throws IOException {
+        return response.getBody();
+    }
+
+    @Override
+    public InputStream getByteStream() {
+        return new ResponseLoggingInputStream(response.getByteStream());
+    }
+}
@@ -24,7 +24,6 @@
 
 package com.yandex.money.api.net.clients;
 
-import com.yandex.money.api.net.HttpClientResponse;
 import okhttp3.Response;
 
 import java.io.IOException;
@@ -33,16 +32,14 @@ import java.io.InputStream;
 import static com.yandex.money.api.util.Common.checkNotNull;
 
 /**
- * Implementation of {@link HttpClientResponse} for OkHttp.
+ * Implementation of {@link TransportResponse} for OkHttp.
  */
-final class OkHttpClientResponse implements HttpClientResponse {
+final class OkHttpClientResponse implements TransportResponse {
 
     private final Response response;
-    private final boolean debug;
 
-    OkHttpClientResponse(Response response, boolean debug) {
+    OkHttpClientResponse(Response response) {
         this.response = checkNotNull(response, "response");
-        this.debug = debug;
     }
 
     @Override
@@ -72,7 +69,11 @@ final class OkHttpClientResponse implements HttpClientResponse {
 
     @Override
     public InputStream getByteStream() {
-        InputStream stream = response.body().byteStream();
-        return debug ? new ResponseLoggingInputStream(stream) : stream;
+        return response.body().byteStream();
+    }
+
+    @Override
+    public void close() {
+        response.close();
     }
 }
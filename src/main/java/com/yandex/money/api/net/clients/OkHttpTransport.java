@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * {@link Transport} on top of {@link OkHttpClient}. This is the default transport of {@link DefaultApiClient}: it
+ * pools connections, supports HTTP/2 and provides detailed timings to {@link ClientMetricsListener} and state of
+ * connection pool and dispatcher to {@link ClientStats}.
+ */
+public final class OkHttpTransport implements Transport {
+
+    private final OkHttpClient httpClient;
+
+    /**
+     * Constructor.
+     *
+     * @param httpClient HTTP client to use, see {@link HttpClientFactory}
+     */
+    public OkHttpTransport(OkHttpClient httpClient) {
+        this.httpClient = checkNotNull(httpClient, "httpClient");
+    }
+
+    /**
+     * @return HTTP client of this transport
+     */
+    public OkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    @Override
+    public Call newCall(Request request) {
+        return new OkHttpCall(httpClient.newCall(checkNotNull(request, "request")));
+    }
+
+    private static final class OkHttpCall implements Call {
+
+        private final okhttp3.Call call;
+
+        OkHttpCall(okhttp3.Call call) {
+            this.call = call;
+        }
+
+        @Override
+        public TransportResponse execute() throws IOException {
+            return new OkHttpClientResponse(call.execute());
+        }
+
+        @Override
+        public void enqueue(final Callback callback) {
+            checkNotNull(callback, "callback");
+            call.enqueue(new okhttp3.Callback() {
+                @Override
+                public void onFailure(okhttp3.Call call, IOException e) {
+                    callback.onFailure(e);
+                }
+
+                @Override
+                public void onResponse(okhttp3.Call call, Response response) {
+                    callback.onResponse(new OkHttpClientResponse(response));
+                }
+            });
+        }
+
+        @Override
+        public void cancel() {
+            call.cancel();
+        }
+    }
+}
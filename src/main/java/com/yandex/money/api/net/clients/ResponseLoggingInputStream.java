@@ -26,51 +26,82 @@ package com.yandex.money.api.net.clients;
 
 import com.yandex.money.api.util.logging.Log;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.yandex.money.api.util.Common.checkNotNull;
 
 /**
  * Logging wrapper for server responses
- * Supposes, that responses in UTF-8
+ * Supposes, that responses in UTF-8. Responses are buffered only if logging is enabled.
+ * <p/>
+ * At most {@link #DEFAULT_LIMIT} bytes of a response are kept: the head and the tail of it, so memory used per
+ * response does not depend on its size. Buffers are pooled, responses are logged on a background thread.
  */
 final class ResponseLoggingInputStream extends InputStream {
 
+    /**
+     * Max number of bytes of a response to log.
+     */
+    static final int DEFAULT_LIMIT = 16 * 1024;
+
     private static final String TAG = ResponseLoggingInputStream.class.getName();
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int MAX_POOLED_BUFFERS = 8;
+    private static final Queue<byte[]> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOL_SIZE = new AtomicInteger();
+
+    static final int MAX_PENDING_LOGS = 64;
+    private static final Executor LOG_EXECUTOR = createLogExecutor();
 
     private final InputStream inputStream;
-    private final ByteArrayOutputStream buffer;
+    private final int half;
+
+    private byte[] buffer;
+    private long count;
+    private boolean closed;
 
     ResponseLoggingInputStream(InputStream inputStream) {
         this.inputStream = checkNotNull(inputStream, "input stream");
-        this.buffer = new ByteArrayOutputStream();
+        this.half = DEFAULT_LIMIT / 2;
+        this.buffer = Log.isEnabled(TAG, Log.Level.INFO) ? acquireBuffer() : null;
     }
 
     @Override
     public int read() throws IOException {
         int c = inputStream.read();
-        if (c > -1) {
-            buffer.write((byte) c);
+        if (c > -1 && buffer != null) {
+            if (count < half) {
+                buffer[(int) count] = (byte) c;
+            } else {
+                buffer[half + (int) ((count - half) % half)] = (byte) c;
+            }
+            count++;
         }
         return c;
     }
 
     @Override
     public int read(byte b[]) throws IOException {
-        int read = inputStream.read(b);
-        if (read > -1) {
-            buffer.write(b, 0, read);
-        }
-        return read;
+        return read(b, 0, b.length);
     }
 
     @Override
     public int read(byte b[], int off, int len) throws IOException {
         int read = inputStream.read(b, off, len);
-        if (read > -1) {
-            buffer.write(b, off, read);
+        if (read > -1 && buffer != null) {
+            capture(b, off, read);
         }
         return read;
     }
@@ -78,7 +109,108 @@ final class ResponseLoggingInputStream extends InputStream {
     @Override
     public void close() throws IOException {
         inputStream.close();
-        buffer.close();
-        Log.i(TAG, buffer.toString("UTF-8"));
+        if (buffer != null && !closed) {
+            closed = true;
+            final byte[] buffer = this.buffer;
+            final long count = this.count;
+            this.buffer = null;
+            try {
+                LOG_EXECUTOR.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            Log.i(TAG, format(buffer, count, half));
+                        } finally {
+                            releaseBuffer(buffer);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // too many pending logs, the response is not logged
+                releaseBuffer(buffer);
+            }
+        }
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        if (count < half) {
+            int n = (int) Math.min(len, half - count);
+            System.arraycopy(b, off, buffer, (int) count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+        if (len > half) {
+            count += len - half;
+            off += len - half;
+            len = half;
+        }
+        while (len > 0) {
+            int position = (int) ((count - half) % half);
+            int n = Math.min(len, half - position);
+            System.arraycopy(b, off, buffer, half + position, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    static String format(byte[] buffer, long count, int half) {
+        if (count <= half) {
+            return new String(buffer, 0, (int) count, UTF_8);
+        }
+        long tailCount = count - half;
+        int tailLength = (int) Math.min(tailCount, half);
+        int tailStart = (int) ((tailCount - tailLength) % half);
+        byte[] tail = new byte[tailLength];
+        int first = Math.min(tailLength, half - tailStart);
+        System.arraycopy(buffer, half + tailStart, tail, 0, first);
+        System.arraycopy(buffer, half, tail, first, tailLength - first);
+
+        StringBuilder builder = new StringBuilder(half + tailLength + 64)
+                .append(new String(buffer, 0, half, UTF_8));
+        if (tailCount > tailLength) {
+            builder.append("\n... ")
+                    .append(tailCount - tailLength)
+                    .append(" bytes skipped ...\n");
+        }
+        return builder.append(new String(tail, UTF_8)).toString();
+    }
+
+    private static byte[] acquireBuffer() {
+        byte[] buffer = POOL.poll();
+        if (buffer == null) {
+            return new byte[DEFAULT_LIMIT];
+        }
+        POOL_SIZE.decrementAndGet();
+        return buffer;
+    }
+
+    private static void releaseBuffer(byte[] buffer) {
+        if (POOL_SIZE.incrementAndGet() <= MAX_POOLED_BUFFERS) {
+            POOL.offer(buffer);
+        } else {
+            POOL_SIZE.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return number of buffers in the pool
+     */
+    static int getPooledBufferCount() {
+        return POOL_SIZE.get();
+    }
+
+    private static Executor createLogExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(0, 1, 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<Runnable>(MAX_PENDING_LOGS), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "yandex-money-response-log");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        return executor;
     }
 }
@@ -0,0 +1,269 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import com.yandex.money.api.net.ApiRequest;
+import okhttp3.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces concurrent identical requests. The first caller of {@link #join(ApiRequest, Request)} that starts a flight
+ * executes the request, others wait for its response. Requests are identical if they are of the same class and have
+ * the same HTTP method, URL and headers.
+ */
+final class SingleFlight {
+
+    private final ConcurrentMap<String, Flight<?>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Joins a flight of identical requests, a new flight is created if there is no one in progress. Caller must
+     * call {@link Flight#tryStart()} to find out if it should execute the request.
+     *
+     * @param apiRequest API request, its class is a part of a key, so flights of different types never mix
+     * @param request HTTP request
+     * @param <T> response document type
+     * @return flight
+     */
+    @SuppressWarnings("unchecked")
+    <T> Flight<T> join(ApiRequest<T> apiRequest, Request request) {
+        String key = apiRequest.getClass().getName() + ' ' + request.method() + ' ' + request.url() + '\n' +
+                request.headers();
+        Flight<T> flight = new Flight<>(key);
+        Flight<?> current = flights.putIfAbsent(key, flight);
+        return current == null ? flight : (Flight<T>) current;
+    }
+
+    /**
+     * Single execution of a request shared by several callers. Leader of a flight reports its result with
+     * {@link #onSuccess(Object)} or {@link #onFailure(Exception)}, an {@link Error} is reported as
+     * {@link ExecutionException} caused by the error.
+     */
+    final class Flight<T> implements ApiCallback<T> {
+
+        private final String key;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        // guarded by this
+        private final List<Waiter> waiters = new ArrayList<>();
+        private Future<?> call;
+        private boolean done;
+        private boolean abandoned;
+        private T result;
+        private Exception exception;
+
+        Flight(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return {@code true} if the caller is a leader of the flight and must execute the request
+         */
+        boolean tryStart() {
+            return started.compareAndSet(false, true);
+        }
+
+        /**
+         * Sets asynchronous call of the leader. It is cancelled when all waiters are cancelled.
+         *
+         * @param call call of the leader
+         */
+        void setCall(Future<?> call) {
+            boolean cancel;
+            synchronized (this) {
+                this.call = call;
+                cancel = !done && !abandoned && waiters.isEmpty();
+            }
+            if (cancel) {
+                cancel();
+            }
+        }
+
+        /**
+         * Creates a future of the flight's response.
+         *
+         * @param callback callback to notify, can be {@code null}
+         * @return future of the response or {@code null} if the flight is cancelled, caller should join a new flight
+         *         in this case
+         */
+        Future<T> newWaiter(ApiCallback<T> callback) {
+            Waiter waiter = new Waiter(callback);
+            boolean complete;
+            synchronized (this) {
+                if (abandoned) {
+                    return null;
+                }
+                complete = done;
+                if (!done) {
+                    waiters.add(waiter);
+                }
+            }
+            if (complete) {
+                waiter.complete(result, exception);
+            }
+            return waiter;
+        }
+
+        @Override
+        public void onSuccess(T response) {
+            complete(response, null);
+        }
+
+        @Override
+        public void onFailure(Exception exception) {
+            complete(null, exception);
+        }
+
+        private void complete(T result, Exception exception) {
+            flights.remove(key, this);
+            List<Waiter> waiters;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                this.result = result;
+                this.exception = exception;
+                waiters = new ArrayList<>(this.waiters);
+                this.waiters.clear();
+                call = null;
+            }
+            for (Waiter waiter : waiters) {
+                waiter.complete(result, exception);
+            }
+        }
+
+        private void remove(Waiter waiter) {
+            boolean cancel;
+            synchronized (this) {
+                waiters.remove(waiter);
+                cancel = !done && !abandoned && waiters.isEmpty() && call != null;
+            }
+            if (cancel) {
+                cancel();
+            }
+        }
+
+        private void cancel() {
+            Future<?> call;
+            synchronized (this) {
+                abandoned = true;
+                call = this.call;
+                this.call = null;
+            }
+            flights.remove(key, this);
+            if (call != null) {
+                call.cancel(true);
+            }
+        }
+
+        private final class Waiter implements Future<T> {
+
+            private final ApiCallback<T> callback;
+            private final CountDownLatch latch = new CountDownLatch(1);
+            private final AtomicBoolean completed = new AtomicBoolean();
+
+            private volatile boolean cancelled;
+            private volatile T result;
+            private volatile Exception exception;
+
+            Waiter(ApiCallback<T> callback) {
+                this.callback = callback;
+            }
+
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                if (!completed.compareAndSet(false, true)) {
+                    return false;
+                }
+                cancelled = true;
+                latch.countDown();
+                remove(this);
+                return true;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled;
+            }
+
+            @Override
+            public boolean isDone() {
+                return latch.getCount() == 0;
+            }
+
+            @Override
+            public T get() throws InterruptedException, ExecutionException {
+                latch.await();
+                return getResult();
+            }
+
+            @Override
+            public T get(long timeout, TimeUnit unit)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                if (!latch.await(timeout, unit)) {
+                    throw new TimeoutException();
+                }
+                return getResult();
+            }
+
+            void complete(T result, Exception exception) {
+                if (completed.compareAndSet(false, true)) {
+                    this.result = result;
+                    this.exception = exception;
+                    latch.countDown();
+                    if (callback != null) {
+                        if (exception == null) {
+                            callback.onSuccess(result);
+                        } else {
+                            callback.onFailure(exception);
+                        }
+                    }
+                }
+            }
+
+            private T getResult() throws ExecutionException {
+                if (cancelled) {
+                    throw new CancellationException();
+                }
+                if (exception != null) {
+                    throw exception instanceof ExecutionException ?
+                            (ExecutionException) exception : new ExecutionException(exception);
+                }
+                return result;
+            }
+        }
+    }
+}
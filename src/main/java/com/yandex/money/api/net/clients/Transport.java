@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import okhttp3.Request;
+
+import java.io.IOException;
+
+/**
+ * HTTP transport of {@link DefaultApiClient}: executes prepared HTTP requests synchronously or asynchronously and
+ * returns their responses. {@link OkHttpTransport} is used by default, {@link UrlConnectionTransport} is an
+ * alternative that does not depend on OkHttp's connection pool and dispatcher. To use a transport set it with
+ * {@link DefaultApiClient.Builder#setTransport(Transport)}.
+ * <p/>
+ * Requests are described with OkHttp's {@link Request}, a transport must honour its method, URL, headers and body.
+ * Implementations must be thread safe.
+ */
+public interface Transport {
+
+    /**
+     * Prepares a request to be executed.
+     *
+     * @param request HTTP request
+     * @return call that can be executed once
+     */
+    Call newCall(Request request);
+
+    /**
+     * Single call of a transport. A call is executed either with {@link #execute()} or with
+     * {@link #enqueue(Callback)}, but not both.
+     */
+    interface Call {
+
+        /**
+         * Executes the call on the calling thread. Caller must close the response.
+         *
+         * @return response
+         * @throws IOException if the call failed or has been cancelled
+         */
+        TransportResponse execute() throws IOException;
+
+        /**
+         * Executes the call asynchronously and notifies {@code callback} when the response is received.
+         *
+         * @param callback callback to notify
+         */
+        void enqueue(Callback callback);
+
+        /**
+         * Cancels the call. A call in progress fails with {@link IOException}.
+         */
+        void cancel();
+    }
+
+    /**
+     * Receives the result of an asynchronous call. Exactly one of the methods is called for every call.
+     */
+    interface Callback {
+
+        /**
+         * Called when the response is received. Callee must close the response.
+         *
+         * @param response response
+         */
+        void onResponse(TransportResponse response);
+
+        /**
+         * Called when the call failed or has been cancelled.
+         *
+         * @param exception the reason of a failure
+         */
+        void onFailure(IOException exception);
+    }
+}
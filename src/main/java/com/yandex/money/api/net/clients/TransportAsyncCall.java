@@ -0,0 +1,193 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import com.yandex.money.api.net.ApiRequest;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * Asynchronous execution of {@link ApiRequest} on top of {@link Transport.Call#enqueue(Transport.Callback)}. Responses
+ * are parsed on a provided executor. An {@link Error} thrown while parsing is reported to the callback as
+ * {@link ExecutionException} caused by the error.
+ */
+final class TransportAsyncCall<T> implements Future<T>, Transport.Callback {
+
+    private final ApiRequest<T> request;
+    private final ApiCallback<T> callback;
+    private final Executor executor;
+    private final boolean debugMode;
+    private final CallRecorder recorder;
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    private volatile Transport.Call call;
+    private volatile CallWatchdog watchdog;
+    private volatile boolean cancelled;
+    private volatile T result;
+    private volatile Exception exception;
+
+    TransportAsyncCall(ApiRequest<T> request, ApiCallback<T> callback, Executor executor, boolean debugMode,
+                       CallRecorder recorder) {
+        this.request = checkNotNull(request, "request");
+        this.callback = callback;
+        this.executor = checkNotNull(executor, "executor");
+        this.debugMode = debugMode;
+        this.recorder = checkNotNull(recorder, "recorder");
+    }
+
+    /**
+     * Enqueues the call.
+     *
+     * @param call call to enqueue
+     * @param callTimeout call timeout in milliseconds, 0 for no timeout
+     */
+    void enqueue(Transport.Call call, long callTimeout) {
+        this.call = checkNotNull(call, "call");
+        watchdog = CallWatchdog.start(call, callTimeout);
+        call.enqueue(this);
+        if (cancelled) {
+            call.cancel();
+        }
+    }
+
+    @Override
+    public void onFailure(IOException exception) {
+        fail(exception);
+    }
+
+    @Override
+    public void onResponse(final TransportResponse response) {
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    parse(response);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            response.close();
+            fail(e);
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!done.compareAndSet(false, true)) {
+            return false;
+        }
+        cancelled = true;
+        CallWatchdog.stop(watchdog);
+        recorder.onCancel();
+        Transport.Call call = this.call;
+        if (call != null) {
+            call.cancel();
+        }
+        latch.countDown();
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return latch.getCount() == 0;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        latch.await();
+        return getResult();
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!latch.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return getResult();
+    }
+
+    private void parse(TransportResponse response) {
+        try {
+            succeed(request.parse(debugMode ? new LoggingClientResponse(response) : response));
+        } catch (Exception e) {
+            fail(e);
+        } catch (Error e) {
+            fail(new ExecutionException(e));
+            throw e;
+        } finally {
+            response.close();
+        }
+    }
+
+    private void succeed(T value) {
+        if (done.compareAndSet(false, true)) {
+            CallWatchdog.stop(watchdog);
+            result = value;
+            recorder.onSuccess(value);
+            latch.countDown();
+            if (callback != null) {
+                callback.onSuccess(value);
+            }
+        }
+    }
+
+    private void fail(Exception e) {
+        if (done.compareAndSet(false, true)) {
+            CallWatchdog.stop(watchdog);
+            exception = e = CallWatchdog.translate(watchdog, e);
+            recorder.onFailure(e);
+            latch.countDown();
+            if (callback != null) {
+                callback.onFailure(e);
+            }
+        }
+    }
+
+    private T getResult() throws ExecutionException {
+        if (cancelled) {
+            throw new CancellationException();
+        }
+        if (exception != null) {
+            throw exception instanceof ExecutionException ?
+                    (ExecutionException) exception : new ExecutionException(exception);
+        }
+        return result;
+    }
+}
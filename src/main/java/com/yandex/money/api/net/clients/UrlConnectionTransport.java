@@ -0,0 +1,332 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * {@link Transport} on top of {@link HttpURLConnection} of the platform. Connections are pooled by the platform, so
+ * the transport has no state of its own except for an executor of asynchronous calls. Only
+ * {@link HttpClientConfig#connectTimeout}, {@link HttpClientConfig#readTimeout} and
+ * {@link HttpClientConfig#maxRequests} are applied, HTTP/2 is not supported. Timings of call phases are not recorded:
+ * {@link ClientMetricsListener} receives total durations only. To create an instance of this class use
+ * {@link UrlConnectionTransport.Builder}.
+ */
+public final class UrlConnectionTransport implements Transport {
+
+    private static final InputStream EMPTY_STREAM = new ByteArrayInputStream(new byte[0]);
+
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final SSLSocketFactory sslSocketFactory;
+    private final Executor executor;
+
+    private UrlConnectionTransport(Builder builder) {
+        connectTimeout = toIntMillis(builder.config.connectTimeout);
+        readTimeout = toIntMillis(builder.config.readTimeout);
+        sslSocketFactory = builder.sslSocketFactory;
+        executor = builder.executor == null ? newExecutor(builder.config.maxRequests) : builder.executor;
+    }
+
+    @Override
+    public Call newCall(Request request) {
+        return new UrlConnectionCall(checkNotNull(request, "request"));
+    }
+
+    private HttpURLConnection open(Request request) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) request.url().url().openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setInstanceFollowRedirects(false);
+        connection.setUseCaches(false);
+        if (sslSocketFactory != null && connection instanceof HttpsURLConnection) {
+            ((HttpsURLConnection) connection).setSSLSocketFactory(sslSocketFactory);
+        }
+        connection.setRequestMethod(request.method());
+
+        Headers headers = request.headers();
+        for (int i = 0; i < headers.size(); ++i) {
+            connection.addRequestProperty(headers.name(i), headers.value(i));
+        }
+        return connection;
+    }
+
+    private static void writeBody(HttpURLConnection connection, RequestBody body) throws IOException {
+        MediaType contentType = body.contentType();
+        if (contentType != null && connection.getRequestProperty("Content-Type") == null) {
+            connection.setRequestProperty("Content-Type", contentType.toString());
+        }
+        long contentLength = body.contentLength();
+        if (contentLength >= 0) {
+            connection.setFixedLengthStreamingMode(contentLength);
+        } else {
+            connection.setChunkedStreamingMode(0);
+        }
+        connection.setDoOutput(true);
+
+        BufferedSink sink = Okio.buffer(Okio.sink(connection.getOutputStream()));
+        try {
+            body.writeTo(sink);
+        } finally {
+            sink.close();
+        }
+    }
+
+    private static int toIntMillis(long timeout) {
+        return (int) Math.min(timeout, Integer.MAX_VALUE);
+    }
+
+    private static Executor newExecutor(int maxRequests) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxRequests, maxRequests, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "YandexMoney URL connection");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Builder for {@link UrlConnectionTransport}.
+     */
+    public static final class Builder {
+
+        private HttpClientConfig config = HttpClientConfig.DEFAULT;
+        private SSLSocketFactory sslSocketFactory;
+        private Executor executor;
+
+        /**
+         * Sets configuration of connections. Default value is {@link HttpClientConfig#DEFAULT}.
+         *
+         * @param config configuration to use
+         * @return itself
+         */
+        public Builder setConfig(HttpClientConfig config) {
+            this.config = checkNotNull(config, "config");
+            return this;
+        }
+
+        /**
+         * Sets SSL socket factory for HTTPS connections. By default the platform's one is used.
+         *
+         * @param sslSocketFactory SSL socket factory
+         * @return itself
+         */
+        public Builder setSslSocketFactory(SSLSocketFactory sslSocketFactory) {
+            this.sslSocketFactory = sslSocketFactory;
+            return this;
+        }
+
+        /**
+         * Sets executor of asynchronous calls. By default calls are executed on a pool of daemon threads limited by
+         * {@link HttpClientConfig#maxRequests}.
+         *
+         * @param executor executor to use
+         * @return itself
+         */
+        public Builder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Creates instance of {@link UrlConnectionTransport}.
+         *
+         * @return transport
+         */
+        public UrlConnectionTransport create() {
+            return new UrlConnectionTransport(this);
+        }
+    }
+
+    private final class UrlConnectionCall implements Call, Runnable {
+
+        private final Request request;
+        private final AtomicBoolean executed = new AtomicBoolean();
+
+        private volatile HttpURLConnection connection;
+        private volatile boolean cancelled;
+        private volatile Callback callback;
+
+        UrlConnectionCall(Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public TransportResponse execute() throws IOException {
+            checkNotExecuted();
+            return doExecute();
+        }
+
+        @Override
+        public void enqueue(Callback callback) {
+            checkNotNull(callback, "callback");
+            checkNotExecuted();
+            this.callback = callback;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                callback.onFailure(new IOException("call rejected", e));
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            HttpURLConnection connection = this.connection;
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+
+        @Override
+        public void run() {
+            TransportResponse response;
+            try {
+                response = doExecute();
+            } catch (IOException e) {
+                callback.onFailure(e);
+                return;
+            }
+            callback.onResponse(response);
+        }
+
+        private void checkNotExecuted() {
+            if (!executed.compareAndSet(false, true)) {
+                throw new IllegalStateException("call has already been executed");
+            }
+        }
+
+        private TransportResponse doExecute() throws IOException {
+            if (cancelled) {
+                throw new IOException("Canceled");
+            }
+            HttpURLConnection connection = open(request);
+            this.connection = connection;
+            try {
+                if (cancelled) {
+                    throw new IOException("Canceled");
+                }
+                RequestBody body = request.body();
+                if (body != null) {
+                    writeBody(connection, body);
+                }
+                int code = connection.getResponseCode();
+                InputStream stream = code >= HttpURLConnection.HTTP_BAD_REQUEST
+                        ? connection.getErrorStream()
+                        : connection.getInputStream();
+                return new UrlConnectionResponse(connection, code, stream == null ? EMPTY_STREAM : stream);
+            } catch (IOException e) {
+                connection.disconnect();
+                throw cancelled ? new IOException("Canceled", e) : e;
+            }
+        }
+    }
+
+    private static final class UrlConnectionResponse implements TransportResponse {
+
+        private final HttpURLConnection connection;
+        private final int code;
+        private final String message;
+        private final InputStream stream;
+
+        UrlConnectionResponse(HttpURLConnection connection, int code, InputStream stream) throws IOException {
+            this.connection = connection;
+            this.code = code;
+            this.message = connection.getResponseMessage();
+            this.stream = stream;
+        }
+
+        @Override
+        public int getCode() {
+            return code;
+        }
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String getUrl() {
+            return connection.getURL().toString();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return connection.getHeaderField(name);
+        }
+
+        @Override
+        public String getBody() throws IOException {
+            BufferedSource source = Okio.buffer(Okio.source(stream));
+            try {
+                return source.readUtf8();
+            } finally {
+                source.close();
+            }
+        }
+
+        @Override
+        public InputStream getByteStream() {
+            return stream;
+        }
+
+        @Override
+        public void close() {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                connection.disconnect();
+            }
+        }
+    }
+}
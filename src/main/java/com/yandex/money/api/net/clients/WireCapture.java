@@ -0,0 +1,383 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import com.yandex.money.api.util.Numbers;
+import com.yandex.money.api.util.logging.Log;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Captures raw bytes of connections for wire logging. I/O threads only copy bytes into a preallocated off-heap ring
+ * buffer, a background thread formats, redacts and logs them. If the buffer is full, new records are dropped, so
+ * capturing never blocks I/O. Connections can be sampled to reduce the load further.
+ * <p/>
+ * Values of {@code Authorization}, {@code Cookie} and {@code Set-Cookie} headers and of sensitive form parameters
+ * and JSON string fields such as {@code access_token} are redacted. Redaction works within a single captured block,
+ * so a value split between blocks may be logged partially.
+ *
+ * @see HttpClientFactory#applyLogging(okhttp3.OkHttpClient.Builder, javax.net.ssl.SSLSocketFactory, WireCapture)
+ */
+public final class WireCapture implements Closeable {
+
+    private static final String TAG = WireLoggingSocketFactory.class.getName();
+
+    private static final Pattern SENSITIVE = Pattern.compile(
+            "((?:Authorization|Cookie|Set-Cookie): )[^\\[\\r\\n]*|" +
+            "((?:access_token|client_secret|csc|code|password)=)[^&\\s\\[\\]]*|" +
+            "(\"(?:access_token|client_secret|csc|code|password)\"\\s*:\\s*\")[^\"]*",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Size of a record header: connection id, direction, original length and captured length.
+     */
+    private static final int HEADER_SIZE = 13;
+    private static final byte READ = 0;
+    private static final byte WRITE = 1;
+    private static final long IDLE_WAIT = 50;
+
+    private static volatile WireCapture defaultCapture;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int maxRecordSize;
+    private final double sampleRate;
+    private final byte[] scratch;
+    private final byte[] header = new byte[HEADER_SIZE];
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+
+    private long head;
+    private long tail;
+    private volatile boolean closed;
+
+    private WireCapture(Builder builder) {
+        capacity = builder.bufferSize;
+        maxRecordSize = builder.maxRecordSize;
+        sampleRate = builder.sampleRate;
+        buffer = ByteBuffer.allocateDirect(capacity);
+        scratch = new byte[maxRecordSize];
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }, "yandex-money-wire-capture");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Gets capture with default settings. It is created on first use and shared.
+     *
+     * @return default capture
+     */
+    public static WireCapture getDefault() {
+        WireCapture capture = defaultCapture;
+        if (capture == null) {
+            synchronized (WireCapture.class) {
+                capture = defaultCapture;
+                if (capture == null) {
+                    capture = new Builder().create();
+                    defaultCapture = capture;
+                }
+            }
+        }
+        return capture;
+    }
+
+    /**
+     * @return number of records dropped because the buffer was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stops the background thread and waits for it to finish. Records that are not logged yet are discarded.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        if (Thread.currentThread() == thread) {
+            return;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Opens a new connection for capturing.
+     *
+     * @return id of a connection or {@code -1} if the connection is not sampled or capturing is disabled
+     */
+    int openConnection() {
+        if (closed || !Log.isEnabled(TAG, Log.Level.INFO)) {
+            return -1;
+        }
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return -1;
+        }
+        return connections.incrementAndGet() & Integer.MAX_VALUE;
+    }
+
+    void read(int connection, byte[] data, int off, int len) {
+        put(connection, READ, data, off, len, 0);
+    }
+
+    void read(int connection, int b) {
+        put(connection, READ, null, 0, 1, b);
+    }
+
+    void write(int connection, byte[] data, int off, int len) {
+        put(connection, WRITE, data, off, len, 0);
+    }
+
+    void write(int connection, int b) {
+        put(connection, WRITE, null, 0, 1, b);
+    }
+
+    private void put(int connection, byte direction, byte[] data, int off, int len, int b) {
+        int captured = Math.min(len, maxRecordSize);
+        int size = HEADER_SIZE + captured;
+        synchronized (buffer) {
+            if (capacity - (tail - head) < size) {
+                dropped.incrementAndGet();
+                return;
+            }
+            putInt(header, 0, connection);
+            header[4] = direction;
+            putInt(header, 5, len);
+            putInt(header, 9, captured);
+            int position = copy(header, 0, HEADER_SIZE, (int) (tail % capacity));
+            if (data == null) {
+                buffer.put(position, (byte) b);
+            } else {
+                copy(data, off, captured, position);
+            }
+            tail += size;
+        }
+    }
+
+    private static void putInt(byte[] data, int off, int value) {
+        data[off] = (byte) (value >>> 24);
+        data[off + 1] = (byte) (value >>> 16);
+        data[off + 2] = (byte) (value >>> 8);
+        data[off + 3] = (byte) value;
+    }
+
+    private int copy(byte[] data, int off, int len, int position) {
+        int first = Math.min(len, capacity - position);
+        buffer.position(position);
+        buffer.put(data, off, first);
+        if (first < len) {
+            buffer.position(0);
+            buffer.put(data, off + first, len - first);
+            return len - first;
+        }
+        return (position + first) % capacity;
+    }
+
+    private int take(byte[] data, int len, int position) {
+        int first = Math.min(len, capacity - position);
+        buffer.position(position);
+        buffer.get(data, 0, first);
+        if (first < len) {
+            buffer.position(0);
+            buffer.get(data, first, len - first);
+            return len - first;
+        }
+        return (position + first) % capacity;
+    }
+
+    private void drain() {
+        while (!closed) {
+            String record;
+            try {
+                record = poll();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "unable to format wire", e);
+                continue;
+            }
+            if (record == null) {
+                try {
+                    Thread.sleep(IDLE_WAIT);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            } else {
+                try {
+                    Log.i(TAG, record);
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "unable to log wire", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest record from the buffer. Must be called by a single thread: the background thread or, after
+     * {@link #close()}, any other.
+     *
+     * @return formatted record or {@code null} if the buffer is empty
+     */
+    String poll() {
+        int connection;
+        boolean write;
+        int length;
+        int captured;
+        synchronized (buffer) {
+            if (head == tail) {
+                return null;
+            }
+            int position = take(header, HEADER_SIZE, (int) (head % capacity));
+            ByteBuffer wrapped = ByteBuffer.wrap(header);
+            connection = wrapped.getInt();
+            write = wrapped.get() == WRITE;
+            length = wrapped.getInt();
+            captured = wrapped.getInt();
+            take(scratch, captured, position);
+            head += HEADER_SIZE + captured;
+        }
+        return format(connection, write, length, scratch, captured);
+    }
+
+    static String format(int connection, boolean write, int length, byte[] data, int captured) {
+        StringBuilder buffer = new StringBuilder(captured + 64)
+                .append(write ? "WRITE:" : "READ:")
+                .append(" connection ")
+                .append(connection)
+                .append(" length ")
+                .append(length);
+        if (captured < length) {
+            buffer.append(" captured ").append(captured);
+        }
+        buffer.append('\n');
+        for (int i = 0; i < captured; i++) {
+            byte b = data[i];
+            if (b == 13) {
+                buffer.append("[\\r]");
+            } else if (b == 10) {
+                buffer.append("[\\n]\n");
+            } else if (b >= 0 && b < 32) {
+                buffer.append(" ").append(Numbers.byteToHex(b));
+            } else {
+                buffer.append((char) (b & 0xff));
+            }
+        }
+        return redact(buffer);
+    }
+
+    static String redact(CharSequence text) {
+        Matcher matcher = SENSITIVE.matcher(text);
+        if (!matcher.find()) {
+            return text.toString();
+        }
+        StringBuffer result = new StringBuffer(text.length());
+        do {
+            String prefix = matcher.group(1) != null ? matcher.group(1)
+                    : matcher.group(2) != null ? matcher.group(2) : matcher.group(3);
+            matcher.appendReplacement(result, Matcher.quoteReplacement(prefix + "<redacted>"));
+        } while (matcher.find());
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    /**
+     * Creates {@link WireCapture}.
+     */
+    public static final class Builder {
+
+        private int bufferSize = 1024 * 1024;
+        private int maxRecordSize = 16 * 1024;
+        private double sampleRate = 1;
+
+        /**
+         * Sets size of the ring buffer. Default value is 1 MB.
+         *
+         * @param bufferSize size of the buffer in bytes
+         * @return itself
+         */
+        public Builder setBufferSize(int bufferSize) {
+            if (bufferSize <= 0) {
+                throw new IllegalArgumentException("bufferSize must be positive");
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Sets max number of bytes captured from a single read or write. Default value is 16 KB.
+         *
+         * @param maxRecordSize max size of a record in bytes
+         * @return itself
+         */
+        public Builder setMaxRecordSize(int maxRecordSize) {
+            if (maxRecordSize <= 0) {
+                throw new IllegalArgumentException("maxRecordSize must be positive");
+            }
+            this.maxRecordSize = maxRecordSize;
+            return this;
+        }
+
+        /**
+         * Sets share of connections to capture. Default value is {@code 1}, all connections are captured.
+         *
+         * @param sampleRate share of connections from {@code 0} to {@code 1}
+         * @return itself
+         */
+        public Builder setSampleRate(double sampleRate) {
+            if (sampleRate < 0 || sampleRate > 1) {
+                throw new IllegalArgumentException("sampleRate must be in range from 0 to 1");
+            }
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * Creates instance of {@link WireCapture} and starts its background thread. Call {@link WireCapture#close()}
+         * to stop it.
+         *
+         * @return wire capture
+         */
+        public WireCapture create() {
+            if (maxRecordSize + HEADER_SIZE > bufferSize) {
+                throw new IllegalArgumentException("maxRecordSize does not fit into the buffer");
+            }
+            return new WireCapture(this);
+        }
+    }
+}
@@ -24,7 +24,6 @@
 
 package com.yandex.money.api.net.clients;
 
-import com.yandex.money.api.util.Numbers;
 import com.yandex.money.api.util.logging.Log;
 
 import javax.net.ssl.HandshakeCompletedListener;
@@ -45,7 +44,8 @@ import java.nio.channels.SocketChannel;
 import static com.yandex.money.api.util.Common.checkNotNull;
 
 /**
- * Logging wrapper for socket factory.
+ * Logging wrapper for socket factory. Bytes of connections are captured by {@link WireCapture} and logged
+ * asynchronously.
  *
  * @author Roman Tsirulnikov (romanvt@yamoney.ru)
  */
@@ -54,9 +54,11 @@ final class WireLoggingSocketFactory extends SSLSocketFactory {
     private static final String TAG = WireLoggingSocketFactory.class.getName();
 
     private final SSLSocketFactory delegate;
+    private final WireCapture capture;
 
-    WireLoggingSocketFactory(SSLSocketFactory sslSocketFactory) {
+    WireLoggingSocketFactory(SSLSocketFactory sslSocketFactory, WireCapture capture) {
         this.delegate = checkNotNull(sslSocketFactory, "sslSocketFactory");
+        this.capture = checkNotNull(capture, "capture");
     }
 
     @Override
@@ -71,74 +73,56 @@ final class WireLoggingSocketFactory extends SSLSocketFactory {
 
     public Socket createSocket(Socket s, String host, int port,
                                boolean autoClose) throws IOException {
-        Log.i(TAG, "Creating socket: " + host + ":" + port);
-        return new WireLogSocket((SSLSocket) delegate.createSocket(s, host, port, autoClose));
+        Log.log(Log.Level.INFO, TAG, "Creating socket: %s:%d", host, port);
+        return new WireLogSocket(capture, (SSLSocket) delegate.createSocket(s, host, port, autoClose));
     }
 
     @Override
     public Socket createSocket(String s, int i) throws IOException {
-        Log.i(TAG, "Creating socket: " + s + ":" + i);
-        return new WireLogSocket((SSLSocket) delegate.createSocket(s, i));
+        Log.log(Log.Level.INFO, TAG, "Creating socket: %s:%d", s, i);
+        return new WireLogSocket(capture, (SSLSocket) delegate.createSocket(s, i));
     }
 
     @Override
     public Socket createSocket(String s, int i, InetAddress inetAddress, int i2) throws IOException {
-        Log.i(TAG, "Creating socket: " + inetAddress);
-        return new WireLogSocket((SSLSocket) delegate.createSocket(s, i, inetAddress, i2));
+        Log.log(Log.Level.INFO, TAG, "Creating socket: %s", inetAddress);
+        return new WireLogSocket(capture, (SSLSocket) delegate.createSocket(s, i, inetAddress, i2));
     }
 
     @Override
     public Socket createSocket(InetAddress inetAddress, int i) throws IOException {
-        Log.i(TAG, "Creating socket: " + inetAddress);
-        return new WireLogSocket((SSLSocket) delegate.createSocket(inetAddress, i));
+        Log.log(Log.Level.INFO, TAG, "Creating socket: %s", inetAddress);
+        return new WireLogSocket(capture, (SSLSocket) delegate.createSocket(inetAddress, i));
     }
 
     @Override
     public Socket createSocket(InetAddress inetAddress, int i, InetAddress inetAddress2, int i2) throws IOException {
-        Log.i(TAG, "Creating socket: " + inetAddress);
-        return new WireLogSocket((SSLSocket) delegate.createSocket(inetAddress, i, inetAddress2, i2));
+        Log.log(Log.Level.INFO, TAG, "Creating socket: %s", inetAddress);
+        return new WireLogSocket(capture, (SSLSocket) delegate.createSocket(inetAddress, i, inetAddress2, i2));
     }
 
     private static class WireLogSocket extends SSLSocket {
         private final SSLSocket delegate;
+        private final WireCapture capture;
+        private final int connection;
 
-        WireLogSocket(SSLSocket s) {
+        WireLogSocket(WireCapture capture, SSLSocket s) {
             super();
             this.delegate = s;
-        }
-
-        private static void logWire(String prefix, byte[] data, int off, int len) {
-            StringBuilder buffer = new StringBuilder(prefix)
-                    .append(" block buffer ")
-                    .append(data.length)
-                    .append(" offset ")
-                    .append(off)
-                    .append(" length ")
-                    .append(len)
-                    .append('\n');
-            for (int i = 0; i < len; i++) {
-                byte b = data[off + i];
-                if (b == 13) {
-                    buffer.append("[\\r]");
-                } else if (b == 10) {
-                    buffer.append("[\\n]\n");
-                } else if (b < 32) {
-                    buffer.append(" ").append(Numbers.byteToHex(b));
-                } else {
-                    buffer.append((char) b);
-                }
-            }
-            Log.i(TAG, buffer.toString());
+            this.capture = capture;
+            this.connection = capture.openConnection();
         }
 
         @Override
         public OutputStream getOutputStream() throws IOException {
-            return new LoggingOutputStream(delegate.getOutputStream());
+            OutputStream outputStream = delegate.getOutputStream();
+            return connection < 0 ? outputStream : new LoggingOutputStream(outputStream, capture, connection);
         }
 
         @Override
         public InputStream getInputStream() throws IOException {
-            return new LoggingInputStream(delegate.getInputStream());
+            InputStream inputStream = delegate.getInputStream();
+            return connection < 0 ? inputStream : new LoggingInputStream(inputStream, capture, connection);
         }
 
         @Override
@@ -427,35 +411,45 @@ final class WireLoggingSocketFactory extends SSLSocketFactory {
         }
 
         private static class LoggingOutputStream extends FilterOutputStream {
-            LoggingOutputStream(OutputStream out) {
+            private final WireCapture capture;
+            private final int connection;
+
+            LoggingOutputStream(OutputStream out, WireCapture capture, int connection) {
                 super(out);
+                this.capture = capture;
+                this.connection = connection;
             }
 
             @Override
             public void write(byte[] b, int off, int len)
                     throws IOException {
                 out.write(b, off, len);
-                logWire("WRITE:", b, off, len);
+                capture.write(connection, b, off, len);
             }
 
             @Override
             public void write(int b) throws IOException {
                 out.write(b);
-                logWire("WRITE:", new byte[]{(byte) b}, 0, 1);
+                capture.write(connection, b);
             }
 
         }
 
         private static class LoggingInputStream extends FilterInputStream {
-            LoggingInputStream(InputStream out) {
-                super(out);
+            private final WireCapture capture;
+            private final int connection;
+
+            LoggingInputStream(InputStream in, WireCapture capture, int connection) {
+                super(in);
+                this.capture = capture;
+                this.connection = connection;
             }
 
             @Override
             public int read() throws IOException {
                 int b = in.read();
                 if (b >= 0) {
-                    logWire("READ:", new byte[]{(byte) b}, 0, 1);
+                    capture.read(connection, b);
                 }
                 return b;
             }
@@ -464,11 +458,11 @@ final class WireLoggingSocketFactory extends SSLSocketFactory {
             public int read(byte b[], int off, int len) throws IOException {
                 int result = in.read(b, off, len);
                 if (result > 0) {
-                    logWire("READ:", b, off, result);
+                    capture.read(connection, b, off, result);
                 }
                 return result;
             }
 
         }
     }
-}
\ No newline at end of file
+}
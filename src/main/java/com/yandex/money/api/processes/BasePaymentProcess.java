@@ -27,8 +27,11 @@ package com.yandex.money.api.processes;
 import com.yandex.money.api.methods.BaseProcessPayment;
 import com.yandex.money.api.methods.BaseRequestPayment;
 import com.yandex.money.api.net.ApiRequest;
+import com.yandex.money.api.net.clients.ApiCallback;
 import com.yandex.money.api.net.clients.ApiClient;
-import com.yandex.money.api.util.Threads;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.yandex.money.api.util.Common.checkNotNull;
 
@@ -65,35 +68,13 @@ public abstract class BasePaymentProcess<RP extends BaseRequestPayment,
 
     @Override
     public final boolean proceed() throws Exception {
-        switch (state) {
-            case CREATED:
-                executeRequestPayment();
-                break;
-            case STARTED:
-                executeProcessPayment();
-                break;
-            case PROCESSING:
-                executeRepeatProcessPayment();
-                break;
-        }
-
+        run(prepareProceed());
         return isCompleted();
     }
 
     @Override
     public final boolean repeat() throws Exception {
-        switch (state) {
-            case STARTED:
-                executeRequestPayment();
-                break;
-            case PROCESSING:
-                executeProcessPayment();
-                break;
-            case COMPLETED:
-                executeRepeatProcessPayment();
-                break;
-        }
-
+        run(prepareRepeat());
         return isCompleted();
     }
 
@@ -165,46 +146,163 @@ public abstract class BasePaymentProcess<RP extends BaseRequestPayment,
 
     protected abstract SavedState<RP, PP> createSavedState(RP requestPayment, PP processPayment, State state);
 
-    private void executeRequestPayment() throws Exception {
-        requestPayment = execute(createRequestPayment());
-        state = State.STARTED;
+    /**
+     * Prepares a step to perform on {@link #proceed()}.
+     *
+     * @return step or {@code null} if nothing to perform
+     */
+    final Step<?> prepareProceed() {
+        switch (state) {
+            case CREATED:
+                return new RequestPaymentStep(createRequestPayment());
+            case STARTED:
+                return new ProcessPaymentStep(createProcessPayment());
+            case PROCESSING:
+                return new ProcessPaymentStep(createRepeatProcessPayment());
+            default:
+                return null;
+        }
     }
 
-    private void executeProcessPayment() throws Exception {
-        executeProcessPayment(createProcessPayment());
+    /**
+     * Prepares a step to perform on {@link #repeat()}.
+     *
+     * @return step or {@code null} if nothing to perform
+     */
+    final Step<?> prepareRepeat() {
+        switch (state) {
+            case STARTED:
+                return new RequestPaymentStep(createRequestPayment());
+            case PROCESSING:
+                return new ProcessPaymentStep(createProcessPayment());
+            case COMPLETED:
+                return new ProcessPaymentStep(createRepeatProcessPayment());
+            default:
+                return null;
+        }
     }
 
-    private void executeRepeatProcessPayment() throws Exception {
-        executeProcessPayment(createRepeatProcessPayment());
+    /**
+     * @return client of this process
+     */
+    final ApiClient getClient() {
+        return client;
     }
 
-    private void executeProcessPayment(final ApiRequest<PP> request) throws Exception {
-        BaseProcessPayment.Status previousStatus = processPayment == null ? null :
-                processPayment.status;
-        processPayment = execute(request);
+    private void run(Step<?> step) throws Exception {
+        if (step != null) {
+            long retry;
+            while ((retry = step.execute(client)) >= 0) {
+                TimeUnit.MILLISECONDS.sleep(retry);
+            }
+        }
+    }
 
-        switch (processPayment.status) {
-            case EXT_AUTH_REQUIRED:
-                if (previousStatus != BaseProcessPayment.Status.EXT_AUTH_REQUIRED) {
-                    state = State.PROCESSING;
-                    return;
+    private boolean isCompleted() {
+        return state == State.COMPLETED;
+    }
+
+    /**
+     * Single request of a process. Completing a step changes state of the process.
+     *
+     * @param <T> response type
+     */
+    abstract class Step<T> {
+
+        final ApiRequest<T> request;
+
+        Step(ApiRequest<T> request) {
+            this.request = checkNotNull(request, "request");
+        }
+
+        /**
+         * Executes the request synchronously and completes the step.
+         *
+         * @param client client to use
+         * @return delay in milliseconds before the request should be executed again or -1 if the step is done
+         * @throws Exception if something went wrong
+         */
+        final long execute(ApiClient client) throws Exception {
+            return complete(client.execute(request));
+        }
+
+        /**
+         * Executes the request asynchronously and completes the step.
+         *
+         * @param client client to use
+         * @param callback receives delay in milliseconds before the request should be executed again or -1 if the
+         *                 step is done
+         * @return future of the response
+         */
+        final Future<T> executeAsync(ApiClient client, final ApiCallback<Long> callback) {
+            return client.executeAsync(request, new ApiCallback<T>() {
+                @Override
+                public void onSuccess(T response) {
+                    long retry;
+                    try {
+                        retry = complete(response);
+                    } catch (RuntimeException e) {
+                        callback.onFailure(e);
+                        return;
+                    }
+                    callback.onSuccess(retry);
                 }
-            case IN_PROGRESS:
-                state = State.PROCESSING;
-                Threads.sleep(processPayment.nextRetry);
-                executeProcessPayment(request);
-                return;
+
+                @Override
+                public void onFailure(Exception exception) {
+                    callback.onFailure(exception);
+                }
+            });
         }
 
-        state = State.COMPLETED;
+        /**
+         * Completes the step.
+         *
+         * @param response response to the request
+         * @return delay in milliseconds before the request should be executed again or -1 if the step is done
+         */
+        abstract long complete(T response);
     }
 
-    private <T> T execute(ApiRequest<T> apiRequest) throws Exception {
-        return client.execute(apiRequest);
+    private final class RequestPaymentStep extends Step<RP> {
+
+        RequestPaymentStep(ApiRequest<RP> request) {
+            super(request);
+        }
+
+        @Override
+        long complete(RP response) {
+            requestPayment = response;
+            state = State.STARTED;
+            return -1;
+        }
     }
 
-    private boolean isCompleted() {
-        return state == State.COMPLETED;
+    private final class ProcessPaymentStep extends Step<PP> {
+
+        ProcessPaymentStep(ApiRequest<PP> request) {
+            super(request);
+        }
+
+        @Override
+        long complete(PP response) {
+            BaseProcessPayment.Status previousStatus = processPayment == null ? null : processPayment.status;
+            processPayment = response;
+
+            switch (response.status) {
+                case EXT_AUTH_REQUIRED:
+                    if (previousStatus != BaseProcessPayment.Status.EXT_AUTH_REQUIRED) {
+                        state = State.PROCESSING;
+                        return -1;
+                    }
+                case IN_PROGRESS:
+                    state = State.PROCESSING;
+                    return Math.max(0, response.nextRetry);
+            }
+
+            state = State.COMPLETED;
+            return -1;
+        }
     }
 
     /**
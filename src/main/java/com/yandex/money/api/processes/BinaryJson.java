@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.processes;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+/**
+ * Compact binary form of JSON trees. Each value is a tag byte followed by its contents, lengths are written as
+ * variable length integers and strings in UTF-8. Numbers are written as strings to keep their precision.
+ */
+final class BinaryJson {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int NUMBER = 3;
+    private static final int STRING = 4;
+    private static final int ARRAY = 5;
+    private static final int OBJECT = 6;
+
+    private BinaryJson() {
+    }
+
+    static void write(JsonElement element, DataOutput out) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            out.writeByte(NULL);
+        } else if (element.isJsonPrimitive()) {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                out.writeByte(primitive.getAsBoolean() ? TRUE : FALSE);
+            } else {
+                out.writeByte(primitive.isNumber() ? NUMBER : STRING);
+                writeString(primitive.getAsString(), out);
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            out.writeByte(ARRAY);
+            writeVarInt(array.size(), out);
+            for (JsonElement item : array) {
+                write(item, out);
+            }
+        } else {
+            JsonObject object = element.getAsJsonObject();
+            out.writeByte(OBJECT);
+            writeVarInt(object.entrySet().size(), out);
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                writeString(entry.getKey(), out);
+                write(entry.getValue(), out);
+            }
+        }
+    }
+
+    static JsonElement read(DataInput in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case NULL:
+                return JsonNull.INSTANCE;
+            case FALSE:
+                return new JsonPrimitive(false);
+            case TRUE:
+                return new JsonPrimitive(true);
+            case NUMBER:
+                try {
+                    return new JsonPrimitive(new BigDecimal(readString(in)));
+                } catch (NumberFormatException e) {
+                    throw new IOException("invalid number", e);
+                }
+            case STRING:
+                return new JsonPrimitive(readString(in));
+            case ARRAY: {
+                JsonArray array = new JsonArray();
+                for (int i = readVarInt(in); i > 0; --i) {
+                    array.add(read(in));
+                }
+                return array;
+            }
+            case OBJECT: {
+                JsonObject object = new JsonObject();
+                for (int i = readVarInt(in); i > 0; --i) {
+                    String key = readString(in);
+                    object.add(key, read(in));
+                }
+                return object;
+            }
+            default:
+                throw new IOException("unknown tag: " + tag);
+        }
+    }
+
+    static void writeString(String value, DataOutput out) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        writeVarInt(bytes.length, out);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    static void writeVarInt(int value, DataOutput out) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IOException("negative value");
+                }
+                return value;
+            }
+        }
+        throw new IOException("malformed variable length integer");
+    }
+}
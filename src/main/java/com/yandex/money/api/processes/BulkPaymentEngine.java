@@ -0,0 +1,709 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.processes;
+
+import com.yandex.money.api.methods.BaseProcessPayment;
+import com.yandex.money.api.methods.BaseRequestPayment;
+import com.yandex.money.api.methods.params.PaymentParams;
+import com.yandex.money.api.model.MoneySource;
+import com.yandex.money.api.model.Wallet;
+import com.yandex.money.api.net.clients.ApiCallback;
+import com.yandex.money.api.net.clients.ApiClient;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * <p>Runs a lot of payments concurrently. Each payment is a separate payment process which is driven through its
+ * states asynchronously: requests are executed with {@link ApiClient#executeAsync(com.yandex.money.api.net.ApiRequest,
+ * ApiCallback)} and retries are scheduled on a shared {@link ScheduledExecutorService}.</p>
+ *
+ * <p>The number of payments in progress is limited, next payment is taken from a source only when one of the running
+ * payments is finished. The rate of requests to a single host can be limited as well. Saved state of a process is
+ * passed to a {@link Listener} after each request, so an interrupted batch can be resumed.</p>
+ *
+ * <p>The engine is thread safe and can run several batches at once. Note that the number of concurrent requests is
+ * also limited by HTTP client's dispatcher.</p>
+ */
+public final class BulkPaymentEngine {
+
+    private final ApiClient client;
+    private final ScheduledExecutorService scheduler;
+    private final ProcessFactory processFactory;
+    private final int maxConcurrency;
+    private final long requestInterval;
+    private final long maxWait;
+    private final ConcurrentMap<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+
+    BulkPaymentEngine(Builder builder) {
+        client = checkNotNull(builder.client, "client");
+        scheduler = checkNotNull(builder.scheduler, "scheduler");
+        processFactory = builder.processFactory;
+        maxConcurrency = builder.maxConcurrency;
+        requestInterval = builder.maxRequestsPerSecond == 0 ? 0 :
+                (long) Math.ceil(TimeUnit.SECONDS.toNanos(1) / builder.maxRequestsPerSecond);
+        maxWait = builder.maxWait;
+    }
+
+    /**
+     * Runs payments. Blocks until all payments are finished. Payments are taken from the iterator on the calling
+     * thread.
+     *
+     * @param payments payments to run
+     * @param listener listener to notify
+     * @return report of the batch
+     * @throws InterruptedException if the calling thread is interrupted, running payments are cancelled in this case
+     */
+    public Report run(Iterator<? extends PaymentParams> payments, Listener listener) throws InterruptedException {
+        return new Batch(checkNotNull(listener, "listener")).run(checkNotNull(payments, "payments"));
+    }
+
+    /**
+     * Creates payment processes.
+     */
+    public interface ProcessFactory {
+        /**
+         * Creates process for a payment.
+         *
+         * @param client client to run the process on
+         * @param params payment parameters
+         * @return payment process
+         */
+        BasePaymentProcess<?, ?> create(ApiClient client, PaymentParams params);
+    }
+
+    /**
+     * Receives progress of a batch. Methods are called on HTTP client's threads or scheduler's threads, so
+     * implementations should be thread safe.
+     */
+    public interface Listener {
+        /**
+         * Called after each request of a payment process.
+         *
+         * @param params payment parameters
+         * @param savedState current state of the process
+         */
+        void onCheckpoint(PaymentParams params, BasePaymentProcess.SavedState<?, ?> savedState);
+
+        /**
+         * Called when a payment is finished.
+         *
+         * @param outcome outcome of the payment
+         */
+        void onOutcome(Outcome outcome);
+    }
+
+    /**
+     * Status of a finished payment.
+     */
+    public enum Status {
+        /**
+         * Payment is successful.
+         */
+        SUCCESS,
+        /**
+         * Payment is refused by request payment or process payment method.
+         */
+        REFUSED,
+        /**
+         * Payment requires external authorization, it can not be completed by the engine.
+         */
+        EXT_AUTH_REQUIRED,
+        /**
+         * Payment is still in progress after max wait time. It can be proceeded later using saved state.
+         */
+        IN_PROGRESS,
+        /**
+         * Request failed.
+         */
+        FAILED
+    }
+
+    /**
+     * Outcome of a single payment.
+     */
+    public static final class Outcome {
+
+        public final PaymentParams params;
+        public final Status status;
+        /**
+         * Last request payment response, can be {@code null}.
+         */
+        public final BaseRequestPayment requestPayment;
+        /**
+         * Last process payment response, can be {@code null}.
+         */
+        public final BaseProcessPayment processPayment;
+        /**
+         * Exception if status is {@link Status#FAILED}.
+         */
+        public final Exception exception;
+        /**
+         * Time from the start of the payment to its end in milliseconds.
+         */
+        public final long latency;
+
+        Outcome(PaymentParams params, Status status, BaseRequestPayment requestPayment,
+                BaseProcessPayment processPayment, Exception exception, long latency) {
+            this.params = params;
+            this.status = status;
+            this.requestPayment = requestPayment;
+            this.processPayment = processPayment;
+            this.exception = exception;
+            this.latency = latency;
+        }
+
+        @Override
+        public String toString() {
+            return "Outcome{" +
+                    "params=" + params +
+                    ", status=" + status +
+                    ", requestPayment=" + requestPayment +
+                    ", processPayment=" + processPayment +
+                    ", exception=" + exception +
+                    ", latency=" + latency +
+                    '}';
+        }
+    }
+
+    /**
+     * Statistics of a batch.
+     */
+    public static final class Report {
+
+        /**
+         * Number of payments.
+         */
+        public final int count;
+        /**
+         * Time of the batch in milliseconds.
+         */
+        public final long elapsed;
+        /**
+         * Min latency of a payment in milliseconds.
+         */
+        public final long minLatency;
+        /**
+         * Max latency of a payment in milliseconds.
+         */
+        public final long maxLatency;
+
+        private final Map<Status, Integer> counts;
+        private final long totalLatency;
+
+        Report(int count, long elapsed, long minLatency, long maxLatency, long totalLatency,
+               Map<Status, Integer> counts) {
+            this.count = count;
+            this.elapsed = elapsed;
+            this.minLatency = minLatency;
+            this.maxLatency = maxLatency;
+            this.totalLatency = totalLatency;
+            this.counts = Collections.unmodifiableMap(counts);
+        }
+
+        /**
+         * @param status status of payments
+         * @return number of payments with the status
+         */
+        public int getCount(Status status) {
+            Integer value = counts.get(checkNotNull(status, "status"));
+            return value == null ? 0 : value;
+        }
+
+        /**
+         * @return mean latency of a payment in milliseconds
+         */
+        public double getMeanLatency() {
+            return count == 0 ? 0 : (double) totalLatency / count;
+        }
+
+        /**
+         * @return payments per second
+         */
+        public double getThroughput() {
+            return elapsed == 0 ? 0 : count * 1000.0 / elapsed;
+        }
+
+        @Override
+        public String toString() {
+            return "Report{" +
+                    "count=" + count +
+                    ", counts=" + counts +
+                    ", elapsed=" + elapsed +
+                    ", throughput=" + getThroughput() +
+                    ", minLatency=" + minLatency +
+                    ", meanLatency=" + getMeanLatency() +
+                    ", maxLatency=" + maxLatency +
+                    '}';
+        }
+    }
+
+    public static final class Builder {
+
+        private ApiClient client;
+        private ScheduledExecutorService scheduler;
+        private ProcessFactory processFactory = new WalletProcessFactory();
+        private int maxConcurrency = 16;
+        private double maxRequestsPerSecond;
+        private long maxWait = TimeUnit.MINUTES.toMillis(1);
+
+        /**
+         * Sets API client.
+         *
+         * @param client client to run payments on
+         * @return itself
+         */
+        public Builder setClient(ApiClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Sets scheduler.
+         *
+         * @param scheduler scheduler to schedule retries and rate limited requests on
+         * @return itself
+         */
+        public Builder setScheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Sets factory of payment processes.
+         *
+         * @param processFactory factory of processes, by default {@link PaymentProcess} paid from the wallet is
+         *                       created
+         * @return itself
+         */
+        public Builder setProcessFactory(ProcessFactory processFactory) {
+            this.processFactory = checkNotNull(processFactory, "processFactory");
+            return this;
+        }
+
+        /**
+         * Sets max number of concurrent payments.
+         *
+         * @param maxConcurrency max number of payments in progress, default is 16
+         * @return itself
+         */
+        public Builder setMaxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency should be greater than 0");
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Sets max rate of requests.
+         *
+         * @param maxRequestsPerSecond max rate of requests to a single host, {@code 0} for no limit (default)
+         * @return itself
+         */
+        public Builder setMaxRequestsPerSecond(double maxRequestsPerSecond) {
+            if (!(maxRequestsPerSecond >= 0)) {
+                throw new IllegalArgumentException("maxRequestsPerSecond should not be negative");
+            }
+            this.maxRequestsPerSecond = maxRequestsPerSecond;
+            return this;
+        }
+
+        /**
+         * Sets max time to wait for a payment in progress.
+         *
+         * @param maxWait max total time to wait for retries of a single payment, default is 1 minute
+         * @param unit time unit of {@code maxWait}
+         * @return itself
+         */
+        public Builder setMaxWait(long maxWait, TimeUnit unit) {
+            if (maxWait < 0) {
+                throw new IllegalArgumentException("maxWait should not be negative");
+            }
+            this.maxWait = checkNotNull(unit, "unit").toMillis(maxWait);
+            return this;
+        }
+
+        /**
+         * Creates instance of {@link BulkPaymentEngine}.
+         *
+         * @return engine
+         */
+        public BulkPaymentEngine create() {
+            return new BulkPaymentEngine(this);
+        }
+    }
+
+    private RateLimiter getLimiter(BasePaymentProcess<?, ?>.Step<?> step) {
+        String host = URI.create(step.request.requestUrl(client.getHostsProvider())).getHost();
+        if (host == null) {
+            host = "";
+        }
+        RateLimiter limiter = limiters.get(host);
+        if (limiter == null) {
+            RateLimiter newLimiter = new RateLimiter(requestInterval);
+            limiter = limiters.putIfAbsent(host, newLimiter);
+            if (limiter == null) {
+                limiter = newLimiter;
+            }
+        }
+        return limiter;
+    }
+
+    /**
+     * Spaces out requests evenly, allowing no bursts. Requests that can not be executed right away reserve their time
+     * in advance, so gaps before it can be used by other requests.
+     */
+    static final class RateLimiter {
+
+        private final long interval;
+        private final long origin = System.nanoTime();
+
+        // guarded by this, reserved times relative to origin
+        private final NavigableSet<Long> reserved = new TreeSet<>();
+
+        RateLimiter(long interval) {
+            this.interval = interval;
+        }
+
+        /**
+         * Reserves time for a request.
+         *
+         * @param notBefore earliest time of the request as returned by {@link System#nanoTime()}
+         * @return delay in nanoseconds before the request can be executed
+         */
+        synchronized long reserve(long notBefore) {
+            long now = System.nanoTime() - origin;
+            while (!reserved.isEmpty() && reserved.first() <= now - interval) {
+                reserved.pollFirst();
+            }
+
+            long at = Math.max(now, notBefore - origin);
+            Long lower = reserved.floor(at);
+            if (lower != null && at - lower < interval) {
+                at = lower + interval;
+            }
+            Long higher;
+            while ((higher = reserved.ceiling(at)) != null && higher - at < interval) {
+                at = higher + interval;
+            }
+            reserved.add(at);
+            return at - now;
+        }
+    }
+
+    /**
+     * State of a single run.
+     */
+    private final class Batch {
+
+        private final Listener listener;
+        private final Semaphore permits = new Semaphore(maxConcurrency);
+        private final Set<Payment> running = Collections.newSetFromMap(new ConcurrentHashMap<Payment, Boolean>());
+
+        // guarded by this
+        private final Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        private int count;
+        private long minLatency = Long.MAX_VALUE;
+        private long maxLatency;
+        private long totalLatency;
+
+        Batch(Listener listener) {
+            this.listener = listener;
+        }
+
+        Report run(Iterator<? extends PaymentParams> payments) throws InterruptedException {
+            long started = System.nanoTime();
+            try {
+                while (true) {
+                    permits.acquire();
+                    if (!payments.hasNext()) {
+                        permits.release();
+                        break;
+                    }
+                    Payment payment = new Payment(this, payments.next());
+                    running.add(payment);
+                    payment.start();
+                }
+                permits.acquire(maxConcurrency);
+                permits.release(maxConcurrency);
+            } catch (InterruptedException | RuntimeException e) {
+                for (Payment payment : running) {
+                    payment.cancel();
+                }
+                throw e;
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            synchronized (this) {
+                return new Report(count, elapsed, count == 0 ? 0 : minLatency, maxLatency, totalLatency, counts);
+            }
+        }
+
+        void finish(Payment payment, Outcome outcome) {
+            synchronized (this) {
+                Integer statusCount = counts.get(outcome.status);
+                counts.put(outcome.status, statusCount == null ? 1 : statusCount + 1);
+                count++;
+                minLatency = Math.min(minLatency, outcome.latency);
+                maxLatency = Math.max(maxLatency, outcome.latency);
+                totalLatency += outcome.latency;
+            }
+            try {
+                listener.onOutcome(outcome);
+            } finally {
+                running.remove(payment);
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Single payment of a batch.
+     */
+    private final class Payment implements ApiCallback<Long>, Runnable {
+
+        private final Batch batch;
+        private final PaymentParams params;
+        private final long started = System.nanoTime();
+        private final long deadline = started + TimeUnit.MILLISECONDS.toNanos(maxWait);
+
+        private BasePaymentProcess<?, ?> process;
+        private BasePaymentProcess<?, ?>.Step<?> step;
+
+        // guarded by this
+        private Future<?> pending;
+        private boolean done;
+
+        Payment(Batch batch, PaymentParams params) {
+            this.batch = batch;
+            this.params = params;
+        }
+
+        void start() {
+            try {
+                process = processFactory.create(client, params);
+                next();
+            } catch (RuntimeException e) {
+                onFailure(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                setPending(step.executeAsync(client, this));
+            } catch (RuntimeException e) {
+                onFailure(e);
+            }
+        }
+
+        @Override
+        public void onSuccess(Long retry) {
+            try {
+                batch.listener.onCheckpoint(params, process.getSavedState());
+                if (retry >= 0) {
+                    if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retry) - deadline > 0) {
+                        finish(Status.IN_PROGRESS, null);
+                    } else {
+                        schedule(TimeUnit.MILLISECONDS.toNanos(retry));
+                    }
+                    return;
+                }
+
+                BaseRequestPayment requestPayment = process.getRequestPayment();
+                BaseProcessPayment processPayment = process.getProcessPayment();
+                if (requestPayment != null && requestPayment.status == BaseRequestPayment.Status.REFUSED) {
+                    finish(Status.REFUSED, null);
+                } else if (processPayment != null &&
+                        processPayment.status == BaseProcessPayment.Status.EXT_AUTH_REQUIRED) {
+                    finish(Status.EXT_AUTH_REQUIRED, null);
+                } else {
+                    next();
+                }
+            } catch (RuntimeException e) {
+                onFailure(e);
+            }
+        }
+
+        @Override
+        public void onFailure(Exception exception) {
+            finish(Status.FAILED, exception);
+        }
+
+        void cancel() {
+            Future<?> pending;
+            synchronized (this) {
+                done = true;
+                pending = this.pending;
+                this.pending = null;
+            }
+            if (pending != null) {
+                pending.cancel(true);
+            }
+        }
+
+        private void next() {
+            step = process.prepareProceed();
+            if (step == null) {
+                BaseProcessPayment processPayment = process.getProcessPayment();
+                Status status = processPayment == null ? null : getStatus(processPayment.status);
+                if (status == null) {
+                    finish(Status.FAILED,
+                            new IllegalStateException("payment completed without process payment status"));
+                } else {
+                    finish(status, null);
+                }
+            } else {
+                schedule(0);
+            }
+        }
+
+        private void schedule(long delay) {
+            if (requestInterval > 0) {
+                delay = getLimiter(step).reserve(System.nanoTime() + delay);
+            }
+            if (delay <= 0) {
+                run();
+            } else {
+                try {
+                    setPending(scheduler.schedule(this, delay, TimeUnit.NANOSECONDS));
+                } catch (RejectedExecutionException e) {
+                    onFailure(e);
+                }
+            }
+        }
+
+        private void setPending(Future<?> future) {
+            boolean cancel;
+            synchronized (this) {
+                cancel = done;
+                if (!done) {
+                    pending = future;
+                }
+            }
+            if (cancel) {
+                future.cancel(true);
+            }
+        }
+
+        private void finish(Status status, Exception exception) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                pending = null;
+            }
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            batch.finish(this, new Outcome(params,
+                    status,
+                    process == null ? null : process.getRequestPayment(),
+                    process == null ? null : process.getProcessPayment(),
+                    exception,
+                    latency));
+        }
+    }
+
+    private static Status getStatus(BaseProcessPayment.Status status) {
+        if (status == null) {
+            return null;
+        }
+        switch (status) {
+            case SUCCESS:
+                return Status.SUCCESS;
+            case REFUSED:
+                return Status.REFUSED;
+            case EXT_AUTH_REQUIRED:
+                return Status.EXT_AUTH_REQUIRED;
+            case IN_PROGRESS:
+                return Status.IN_PROGRESS;
+            default:
+                return null;
+        }
+    }
+
+    private static final class WalletProcessFactory implements ProcessFactory {
+        @Override
+        public BasePaymentProcess<?, ?> create(ApiClient client, PaymentParams params) {
+            return new PaymentProcess(client, new ParamsProvider(params, Wallet.INSTANCE));
+        }
+    }
+
+    private static final class ParamsProvider implements IPaymentProcess.ParameterProvider {
+
+        private final PaymentParams params;
+        private final MoneySource moneySource;
+
+        ParamsProvider(PaymentParams params, MoneySource moneySource) {
+            this.params = checkNotNull(params, "params");
+            this.moneySource = moneySource;
+        }
+
+        @Override
+        public String getPatternId() {
+            return params.patternId;
+        }
+
+        @Override
+        public Map<String, String> getPaymentParameters() {
+            return params.paymentParams;
+        }
+
+        @Override
+        public MoneySource getMoneySource() {
+            return moneySource;
+        }
+
+        @Override
+        public String getCsc() {
+            return null;
+        }
+
+        @Override
+        public String getExtAuthSuccessUri() {
+            return null;
+        }
+
+        @Override
+        public String getExtAuthFailUri() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.processes;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * <p>{@link SavedStateStore} backed by an append-only journal in a memory-mapped file. Every change is a record
+ * appended to the journal, so writing a state costs a single copy to memory and does not require a system call.
+ * The mapping grows when the journal is full, records of removed and replaced states are dropped by rewriting the
+ * journal when they take more than half of it.</p>
+ *
+ * <p>Records are protected by checksums. When opened the journal is read until the first incomplete or damaged
+ * record, so a journal torn by a crash loses only the changes that were not written completely. Without
+ * {@code sync} the changes survive a crash of the process but can be lost on a crash of the system.</p>
+ *
+ * <p>Current records are kept in memory and decoded only by {@link #getAll()}. The store is thread
+ * safe, but a journal must not be opened by more than one store at a time.</p>
+ *
+ * <p>Java 7 and Android have no way to unmap a file explicitly, so a mapping replaced by growth or compaction is
+ * released when it is garbage collected. The journal is replaced with {@link File#renameTo(File)}: on systems that do
+ * not allow replacing a file that exists or is mapped (Windows) compaction is skipped and the journal keeps
+ * growing.</p>
+ *
+ * @param <S> type of saved state
+ */
+public final class MappedSavedStateStore<S> implements SavedStateStore<S> {
+
+    /**
+     * Default size of the mapped region, it is also a step of its growth.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1024 * 1024;
+
+    private static final int MAGIC = 0x594d5353;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private final File file;
+    private final Codec<S> codec;
+    private final int segmentSize;
+    private final boolean sync;
+
+    // guarded by this
+    private final Map<String, byte[]> states = new LinkedHashMap<>();
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private long liveSize;
+    private boolean closed;
+
+    /**
+     * Opens a journal with default segment size and without sync.
+     *
+     * @param file file of the journal, created if it does not exist
+     * @param codec codec of saved states
+     * @throws IOException if the journal can not be opened
+     */
+    public MappedSavedStateStore(File file, Codec<S> codec) throws IOException {
+        this(file, codec, DEFAULT_SEGMENT_SIZE, false);
+    }
+
+    /**
+     * Opens a journal.
+     *
+     * @param file file of the journal, created if it does not exist
+     * @param codec codec of saved states
+     * @param segmentSize initial size of the mapped region and step of its growth in bytes
+     * @param sync if {@code true} every change is forced to the storage device before the method returns
+     * @throws IOException if the journal can not be opened
+     */
+    public MappedSavedStateStore(File file, Codec<S> codec, int segmentSize, boolean sync) throws IOException {
+        if (segmentSize < HEADER_SIZE) {
+            throw new IllegalArgumentException("segmentSize should be at least " + HEADER_SIZE);
+        }
+        this.file = checkNotNull(file, "file");
+        this.codec = checkNotNull(codec, "codec");
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        open();
+    }
+
+    @Override
+    public void put(String id, S savedState) throws IOException {
+        checkNotNull(id, "id");
+        checkNotNull(savedState, "savedState");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        codec.write(savedState, out);
+        byte[] state = bytes.toByteArray();
+
+        bytes.reset();
+        out.writeByte(PUT);
+        BinaryJson.writeString(id, out);
+        out.write(state);
+        byte[] record = bytes.toByteArray();
+
+        synchronized (this) {
+            checkOpen();
+            append(record);
+            replace(id, record);
+        }
+    }
+
+    @Override
+    public void remove(String id) throws IOException {
+        checkNotNull(id, "id");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(REMOVE);
+        BinaryJson.writeString(id, out);
+        byte[] record = bytes.toByteArray();
+
+        synchronized (this) {
+            checkOpen();
+            if (states.containsKey(id)) {
+                append(record);
+                replace(id, null);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, S> getAll() throws IOException {
+        Map<String, byte[]> states;
+        synchronized (this) {
+            checkOpen();
+            states = new LinkedHashMap<>(this.states);
+        }
+        Map<String, S> result = new LinkedHashMap<>(states.size());
+        for (Map.Entry<String, byte[]> entry : states.entrySet()) {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry.getValue()));
+            in.readByte();
+            BinaryJson.readString(in);
+            result.put(entry.getKey(), codec.read(in));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            buffer.force();
+            buffer = null;
+            channel.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MappedSavedStateStore{" +
+                "file=" + file +
+                '}';
+    }
+
+    private void open() throws IOException {
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("journal is too large: " + file);
+            }
+            map(Math.max((int) size, segmentSize));
+            if (size == 0) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                position = HEADER_SIZE;
+            } else if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("not a saved state journal: " + file);
+            } else if (buffer.getInt(4) != VERSION) {
+                throw new IOException("unsupported journal version: " + buffer.getInt(4));
+            } else {
+                recover();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void recover() throws IOException {
+        int position = HEADER_SIZE;
+        int capacity = buffer.capacity();
+        while (capacity - position >= RECORD_HEADER_SIZE) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > capacity - position - RECORD_HEADER_SIZE) {
+                break;
+            }
+            byte[] record = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position(position + RECORD_HEADER_SIZE);
+            view.get(record);
+            if (checksum(record) != buffer.getInt(position + 4) || !apply(record)) {
+                break;
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        this.position = position;
+
+        // clear the tail, so garbage of a torn record is never mistaken for a record
+        ByteBuffer tail = buffer.duplicate();
+        tail.position(position);
+        while (tail.hasRemaining()) {
+            tail.put((byte) 0);
+        }
+    }
+
+    private boolean apply(byte[] record) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        try {
+            byte type = in.readByte();
+            String id = BinaryJson.readString(in);
+            switch (type) {
+                case PUT:
+                    replace(id, record);
+                    return true;
+                case REMOVE:
+                    replace(id, null);
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void replace(String id, byte[] record) {
+        byte[] previous = record == null ? states.remove(id) : states.put(id, record);
+        if (previous != null) {
+            liveSize -= RECORD_HEADER_SIZE + previous.length;
+        }
+        if (record != null) {
+            liveSize += RECORD_HEADER_SIZE + record.length;
+        }
+    }
+
+    private void append(byte[] record) throws IOException {
+        int size = RECORD_HEADER_SIZE + record.length;
+        if (buffer.capacity() - position < size) {
+            if (liveSize + size <= (position - HEADER_SIZE) / 2) {
+                compact();
+            }
+            if (buffer.capacity() - position < size) {
+                grow(size);
+            }
+        }
+
+        ByteBuffer view = buffer.duplicate();
+        view.position(position + RECORD_HEADER_SIZE);
+        view.put(record);
+        buffer.putInt(position + 4, checksum(record));
+        // length is written last: a record without length is ignored on recovery
+        buffer.putInt(position, record.length);
+        position += size;
+        if (sync) {
+            buffer.force();
+        }
+    }
+
+    private void grow(int size) throws IOException {
+        long required = (long) position + size;
+        long capacity = Math.max((long) buffer.capacity() * 2, (required + segmentSize - 1) / segmentSize * segmentSize);
+        if (required > Integer.MAX_VALUE) {
+            throw new IOException("journal is too large: " + file);
+        }
+        map((int) Math.min(capacity, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Rewrites the journal keeping only the current states. The new journal is written to a temporary file which
+     * atomically replaces the old one.
+     *
+     * @return {@code true} if the journal has been replaced, {@code false} if the system does not allow it
+     */
+    private boolean compact() throws IOException {
+        ByteBuffer journal = ByteBuffer.allocate((int) (HEADER_SIZE + liveSize));
+        journal.putInt(MAGIC).putInt(VERSION);
+        for (byte[] record : states.values()) {
+            journal.putInt(record.length).putInt(checksum(record)).put(record);
+        }
+        journal.flip();
+
+        File temp = new File(file.getPath() + ".tmp");
+        FileChannel tempChannel = new RandomAccessFile(temp, "rw").getChannel();
+        try {
+            tempChannel.truncate(0);
+            while (journal.hasRemaining()) {
+                tempChannel.write(journal);
+            }
+            tempChannel.force(true);
+        } finally {
+            tempChannel.close();
+        }
+
+        buffer.force();
+        if (!temp.renameTo(file)) {
+            // the old journal is left intact
+            temp.delete();
+            return false;
+        }
+        buffer = null;
+        channel.close();
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        map(Math.max(journal.limit(), segmentSize));
+        position = journal.limit();
+        return true;
+    }
+
+    private void map(int size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private int checksum(byte[] record) {
+        crc.reset();
+        crc.update(record, 0, record.length);
+        return (int) crc.getValue();
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("store is closed");
+        }
+    }
+}
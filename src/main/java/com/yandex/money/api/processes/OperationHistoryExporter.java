@@ -0,0 +1,344 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.processes;
+
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.net.clients.ApiCallback;
+import com.yandex.money.api.net.clients.ApiClient;
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * <p>Exports operation history of a time range using several concurrent requests.</p>
+ *
+ * <p>The range is split into disjoint time windows which are fetched in parallel. If the first page of a window is
+ * not the last one the rest of the window is split again into smaller windows according to the density of
+ * operations on that page. A window that can not be split any further is paged sequentially with
+ * {@link OperationHistory#nextRecord}.</p>
+ *
+ * <p>Operations are passed to a {@link Sink} on the calling thread in the same order as API returns them: from the
+ * latest to the earliest one. No more than {@link #MAX_BUFFERED_PAGES} pages are kept ahead of the sink: when the
+ * limit is reached only the window that is passed to the sink next is fetched. Note that the number of concurrent
+ * requests is also limited by HTTP client's dispatcher.</p>
+ */
+public final class OperationHistoryExporter {
+
+    /**
+     * Max number of records per page.
+     */
+    private static final int RECORDS = 100;
+
+    /**
+     * Max number of fetched pages that are not passed to a sink yet.
+     */
+    static final int MAX_BUFFERED_PAGES = 16;
+
+    private final ApiClient client;
+    private final int parallelism;
+    private final Set<OperationHistory.FilterType> types;
+
+    /**
+     * Constructor.
+     *
+     * @param client client to fetch operations with
+     * @param parallelism max number of concurrent requests
+     * @param types types of operations to export, empty set for all operations
+     */
+    public OperationHistoryExporter(ApiClient client, int parallelism, Set<OperationHistory.FilterType> types) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism should be greater than 0");
+        }
+        this.client = checkNotNull(client, "client");
+        this.parallelism = parallelism;
+        this.types = Collections.unmodifiableSet(new HashSet<>(checkNotNull(types, "types")));
+    }
+
+    /**
+     * Exports operations of range {@code [from, till)}. Blocks until all operations are passed to the sink.
+     *
+     * @param from start of the range, inclusive
+     * @param till end of the range, exclusive
+     * @param sink sink to pass operations to
+     * @return number of exported operations
+     * @throws Exception if operations can not be fetched or the sink fails
+     */
+    public long export(DateTime from, DateTime till, Sink sink) throws Exception {
+        checkNotNull(from, "from");
+        checkNotNull(till, "till");
+        if (from.isAfter(till)) {
+            throw new IllegalArgumentException("'from' should be before 'till'");
+        }
+        return new Export(from.getMillis(), till.getMillis(), checkNotNull(sink, "sink")).run();
+    }
+
+    /**
+     * Receives exported operations.
+     */
+    public interface Sink {
+        /**
+         * Accepts next operation.
+         *
+         * @param operation operation
+         * @throws Exception if operation can not be accepted, the export is stopped in this case
+         */
+        void accept(Operation operation) throws Exception;
+    }
+
+    /**
+     * State of a single export.
+     */
+    private final class Export {
+
+        private final long from;
+        private final Sink sink;
+        private final Queue<Window> windows = new PriorityQueue<>(11, new Comparator<Window>() {
+            @Override
+            public int compare(Window lhs, Window rhs) {
+                // the latest windows are fetched first, they are the first to be passed to a sink
+                return lhs.till > rhs.till ? -1 : (lhs.till < rhs.till ? 1 : 0);
+            }
+        });
+        // completed segments by their ends
+        private final Map<Long, Window> segments = new HashMap<>();
+        private final Set<Future<OperationHistory>> requests = new HashSet<>();
+
+        private long cursor;
+        private int bufferedPages;
+        private Exception failure;
+        private boolean stopped;
+
+        Export(long from, long till, Sink sink) {
+            this.from = from;
+            this.cursor = till;
+            this.sink = sink;
+
+            long step = Math.max(1, (till - from + parallelism - 1) / parallelism);
+            for (long end = till; end > from; end -= step) {
+                windows.add(new Window(Math.max(from, end - step), end));
+            }
+        }
+
+        long run() throws Exception {
+            long count = 0;
+            try {
+                dispatch();
+                while (true) {
+                    Window segment;
+                    synchronized (this) {
+                        while (failure == null && cursor > from && !segments.containsKey(cursor)) {
+                            wait();
+                        }
+                        if (failure != null) {
+                            throw failure;
+                        }
+                        if (cursor == from) {
+                            return count;
+                        }
+                        segment = segments.remove(cursor);
+                        cursor = segment.from;
+                        bufferedPages -= segment.pages;
+                    }
+                    dispatch();
+                    for (Operation operation : segment.operations) {
+                        sink.accept(operation);
+                        ++count;
+                    }
+                }
+            } finally {
+                stop();
+            }
+        }
+
+        private void dispatch() {
+            while (true) {
+                final Window window;
+                synchronized (this) {
+                    if (stopped || requests.size() >= parallelism || windows.isEmpty()) {
+                        return;
+                    }
+                    // when the buffer is full only the window at the cursor is fetched, it releases the buffer
+                    if (bufferedPages >= MAX_BUFFERED_PAGES && windows.peek().till != cursor) {
+                        return;
+                    }
+                    window = windows.poll();
+                }
+                final FutureHolder holder = new FutureHolder();
+                Future<OperationHistory> future = client.executeAsync(window.createRequest(),
+                        new ApiCallback<OperationHistory>() {
+                            @Override
+                            public void onSuccess(OperationHistory response) {
+                                complete(holder, window, response, null);
+                            }
+
+                            @Override
+                            public void onFailure(Exception exception) {
+                                complete(holder, window, null, exception);
+                            }
+                        });
+                synchronized (this) {
+                    if (holder.done) {
+                        continue;
+                    }
+                    holder.future = future;
+                    requests.add(future);
+                }
+            }
+        }
+
+        private void complete(FutureHolder holder, Window window, OperationHistory response, Exception exception) {
+            synchronized (this) {
+                holder.done = true;
+                if (holder.future != null) {
+                    requests.remove(holder.future);
+                }
+                if (stopped) {
+                    return;
+                }
+                if (exception == null && response.error != null) {
+                    exception = new IllegalStateException("operation history error: " + response.error.code);
+                }
+                if (exception != null) {
+                    failure = exception;
+                } else {
+                    onPage(window, response);
+                }
+                notifyAll();
+            }
+            dispatch();
+        }
+
+        // guarded by this
+        private void onPage(Window window, OperationHistory page) {
+            List<Operation> operations = page.operations;
+            ++bufferedPages;
+            if (window.request != null || page.nextRecord == null || operations.isEmpty()) {
+                window.operations.addAll(operations);
+                ++window.pages;
+                if (page.nextRecord == null) {
+                    segments.put(window.till, window);
+                } else {
+                    window.request = window.request(page.nextRecord);
+                    windows.add(window);
+                }
+                return;
+            }
+
+            // operations at the same millisecond as the earliest one may be on the next page, they are left for
+            // the rest of the window
+            long earliest = operations.get(operations.size() - 1).datetime.getMillis();
+            long boundary = earliest + 1;
+            if (boundary >= window.till) {
+                window.operations.addAll(operations);
+                ++window.pages;
+                window.request = window.request(page.nextRecord);
+                windows.add(window);
+                return;
+            }
+
+            Window head = new Window(boundary, window.till);
+            head.pages = 1;
+            for (Operation operation : operations) {
+                if (operation.datetime.getMillis() >= boundary) {
+                    head.operations.add(operation);
+                }
+            }
+            segments.put(head.till, head);
+
+            long covered = window.till - earliest;
+            long rest = boundary - window.from;
+            long expected = (long) Math.ceil((double) operations.size() * rest / covered / RECORDS);
+            long parts = Math.max(1, Math.min(Math.min(expected, parallelism), rest));
+            long step = (rest + parts - 1) / parts;
+            for (long end = boundary; end > window.from; end -= step) {
+                windows.add(new Window(Math.max(window.from, end - step), end));
+            }
+        }
+
+        private void stop() {
+            List<Future<OperationHistory>> pending;
+            synchronized (this) {
+                stopped = true;
+                pending = new ArrayList<>(requests);
+                requests.clear();
+            }
+            for (Future<OperationHistory> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Time window {@code [from, till)} and operations fetched for it.
+     */
+    private final class Window {
+
+        final long from;
+        final long till;
+        final List<Operation> operations = new ArrayList<>();
+
+        // number of pages operations are fetched with
+        int pages;
+
+        // request for the next page of a window that is paged sequentially
+        OperationHistory.Request request;
+
+        Window(long from, long till) {
+            this.from = from;
+            this.till = till;
+        }
+
+        OperationHistory.Request createRequest() {
+            return request == null ? new OperationHistory.Request.Builder()
+                    .setTypes(types)
+                    .setFrom(new DateTime(from))
+                    .setTill(new DateTime(till))
+                    .setRecords(RECORDS)
+                    .create() : request;
+        }
+
+        OperationHistory.Request request(String nextRecord) {
+            return createRequest().nextPage(nextRecord);
+        }
+    }
+
+    private static final class FutureHolder {
+        Future<OperationHistory> future;
+        boolean done;
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.processes;
+
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.net.clients.ApiCallback;
+import com.yandex.money.api.net.clients.ApiClient;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.Future;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * <p>Lazily iterates over all operations of user's history following {@link OperationHistory#nextRecord} markers. The
+ * next page is requested in background with {@link ApiClient#executeAsync(com.yandex.money.api.net.ApiRequest,
+ * ApiCallback)} while current one is consumed. No more than {@code maxPages} pages are fetched ahead.</p>
+ *
+ * <p>If a page can not be fetched or contains an error {@link #hasNext()} and {@link #next()} throw
+ * {@link IllegalStateException}. Call {@link #close()} to stop fetching if iteration is abandoned. This class is not
+ * thread safe and should be consumed by one thread.</p>
+ */
+public final class OperationHistoryIterator implements Iterator<Operation>, Closeable {
+
+    /**
+     * Default number of pages that can be fetched ahead.
+     */
+    public static final int DEFAULT_MAX_PAGES = 2;
+
+    private final ApiClient client;
+    private final int maxPages;
+    private final Queue<List<Operation>> pages = new ArrayDeque<>();
+
+    private Iterator<Operation> current = Collections.<Operation>emptyList().iterator();
+
+    // guarded by this
+    private OperationHistory.Request nextRequest;
+    private Future<OperationHistory> pendingPage;
+    private long fetchCount;
+    private boolean fetching;
+    private boolean closed;
+    private Exception failure;
+
+    /**
+     * Constructor.
+     *
+     * @param client client to fetch pages with
+     * @param request request for the first page
+     */
+    public OperationHistoryIterator(ApiClient client, OperationHistory.Request request) {
+        this(client, request, DEFAULT_MAX_PAGES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param client client to fetch pages with
+     * @param request request for the first page
+     * @param maxPages max number of pages to fetch ahead
+     */
+    public OperationHistoryIterator(ApiClient client, OperationHistory.Request request, int maxPages) {
+        if (maxPages < 1) {
+            throw new IllegalArgumentException("maxPages should be greater than 0");
+        }
+        this.client = checkNotNull(client, "client");
+        this.nextRequest = checkNotNull(request, "request");
+        this.maxPages = maxPages;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            List<Operation> page = takePage();
+            if (page == null) {
+                return false;
+            }
+            current = page.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public Operation next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * Stops fetching pages. Operations of already fetched pages are still available.
+     */
+    @Override
+    public void close() {
+        Future<OperationHistory> page;
+        synchronized (this) {
+            closed = true;
+            nextRequest = null;
+            // a cancelled call never reports back, so waiting consumers must not expect it
+            fetching = false;
+            page = pendingPage;
+            pendingPage = null;
+            notifyAll();
+        }
+        if (page != null) {
+            page.cancel(true);
+        }
+    }
+
+    private List<Operation> takePage() {
+        fetchIfRequired();
+        List<Operation> page;
+        synchronized (this) {
+            while (true) {
+                page = pages.poll();
+                if (page != null) {
+                    break;
+                }
+                if (failure != null) {
+                    throw new IllegalStateException("unable to fetch operation history", failure);
+                }
+                if (!fetching) {
+                    return null;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while waiting for operation history", e);
+                }
+            }
+        }
+        fetchIfRequired();
+        return page;
+    }
+
+    private void fetchIfRequired() {
+        final OperationHistory.Request request;
+        final long fetch;
+        synchronized (this) {
+            if (fetching || closed || failure != null || nextRequest == null || pages.size() >= maxPages) {
+                return;
+            }
+            request = nextRequest;
+            nextRequest = null;
+            fetching = true;
+            fetch = ++fetchCount;
+        }
+
+        Future<OperationHistory> page = client.executeAsync(request, new ApiCallback<OperationHistory>() {
+            @Override
+            public void onSuccess(OperationHistory response) {
+                onPage(request, response);
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                onPageFailure(exception);
+            }
+        });
+
+        // the callback may have been called already and the next fetch may have been started from it
+        boolean cancel = false;
+        synchronized (this) {
+            if (closed) {
+                cancel = true;
+            } else if (fetching && fetchCount == fetch) {
+                pendingPage = page;
+            }
+        }
+        if (cancel) {
+            page.cancel(true);
+        }
+    }
+
+    private void onPage(OperationHistory.Request request, OperationHistory response) {
+        synchronized (this) {
+            fetching = false;
+            pendingPage = null;
+            if (closed) {
+                return;
+            }
+            if (response.error != null) {
+                failure = new IllegalStateException("operation history error: " + response.error.code);
+            } else {
+                pages.add(response.operations);
+                nextRequest = response.nextRecord == null ? null : request.nextPage(response.nextRecord);
+            }
+            notifyAll();
+        }
+        fetchIfRequired();
+    }
+
+    private synchronized void onPageFailure(Exception exception) {
+        fetching = false;
+        pendingPage = null;
+        if (!closed) {
+            failure = exception;
+        }
+        notifyAll();
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.processes;
+
+import com.yandex.money.api.net.clients.ApiCallback;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
+/**
+ * <p>Runs payment processes asynchronously. Unlike {@link BasePaymentProcess#proceed()} it does not block a thread
+ * while a payment is in progress: requests are executed with {@link
+ * com.yandex.money.api.net.clients.ApiClient#executeAsync(com.yandex.money.api.net.ApiRequest, ApiCallback)} and
+ * retries are scheduled on a shared {@link ScheduledExecutorService}. So a lot of pending payments can wait on a few
+ * threads.</p>
+ *
+ * <p>Total time of waiting for retries is limited. When the limit is exceeded the process stays in progress and the
+ * future returns {@code false}, the process can be proceeded later. A process must not be used by other threads
+ * while it is run by this class.</p>
+ */
+public final class PaymentProcessRunner {
+
+    private final ScheduledExecutorService scheduler;
+    private final long maxWait;
+
+    /**
+     * Constructor.
+     *
+     * @param scheduler scheduler to schedule retries on
+     * @param maxWait max total time to wait for retries of a single run
+     * @param unit time unit of {@code maxWait}
+     */
+    public PaymentProcessRunner(ScheduledExecutorService scheduler, long maxWait, TimeUnit unit) {
+        if (maxWait < 0) {
+            throw new IllegalArgumentException("maxWait should not be negative");
+        }
+        this.scheduler = checkNotNull(scheduler, "scheduler");
+        this.maxWait = checkNotNull(unit, "unit").toMillis(maxWait);
+    }
+
+    /**
+     * Asynchronous version of {@link BasePaymentProcess#proceed()}.
+     *
+     * @param process process to proceed
+     * @param callback callback to notify, can be {@code null}
+     * @return future that returns {@code true} if the process is completed
+     */
+    public Future<Boolean> proceed(BasePaymentProcess<?, ?> process, ApiCallback<Boolean> callback) {
+        return run(process, checkNotNull(process, "process").prepareProceed(), callback);
+    }
+
+    /**
+     * Asynchronous version of {@link BasePaymentProcess#repeat()}.
+     *
+     * @param process process to repeat
+     * @param callback callback to notify, can be {@code null}
+     * @return future that returns {@code true} if the process is completed
+     */
+    public Future<Boolean> repeat(BasePaymentProcess<?, ?> process, ApiCallback<Boolean> callback) {
+        return run(process, checkNotNull(process, "process").prepareRepeat(), callback);
+    }
+
+    private Future<Boolean> run(BasePaymentProcess<?, ?> process, BasePaymentProcess<?, ?>.Step<?> step,
+                                ApiCallback<Boolean> callback) {
+        Run run = new Run(process, step, callback);
+        if (step == null) {
+            run.complete();
+        } else {
+            run.execute();
+        }
+        return run;
+    }
+
+    private final class Run implements Future<Boolean>, ApiCallback<Long>, Runnable {
+
+        private final BasePaymentProcess<?, ?> process;
+        private final BasePaymentProcess<?, ?>.Step<?> step;
+        private final ApiCallback<Boolean> callback;
+        private final long deadline;
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        // guarded by this
+        private Future<?> pending;
+        private boolean done;
+        private boolean cancelled;
+        private Boolean result;
+        private Exception exception;
+
+        Run(BasePaymentProcess<?, ?> process, BasePaymentProcess<?, ?>.Step<?> step, ApiCallback<Boolean> callback) {
+            this.process = process;
+            this.step = step;
+            this.callback = callback;
+            this.deadline = System.currentTimeMillis() + maxWait;
+        }
+
+        @Override
+        public void run() {
+            // a stale task can run if it was scheduled concurrently with cancellation
+            if (!isDone()) {
+                execute();
+            }
+        }
+
+        @Override
+        public void onSuccess(Long retry) {
+            if (isDone()) {
+                return;
+            }
+            if (retry < 0) {
+                complete();
+            } else if (System.currentTimeMillis() + retry > deadline) {
+                finish(false, null);
+            } else {
+                try {
+                    setPending(scheduler.schedule(this, retry, TimeUnit.MILLISECONDS));
+                } catch (RejectedExecutionException e) {
+                    onFailure(e);
+                }
+            }
+        }
+
+        @Override
+        public void onFailure(Exception exception) {
+            finish(null, exception);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            Future<?> pending;
+            synchronized (this) {
+                if (done) {
+                    return false;
+                }
+                done = true;
+                cancelled = true;
+                pending = this.pending;
+                this.pending = null;
+            }
+            if (pending != null) {
+                pending.cancel(mayInterruptIfRunning);
+            }
+            latch.countDown();
+            return true;
+        }
+
+        @Override
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return latch.getCount() == 0;
+        }
+
+        @Override
+        public Boolean get() throws InterruptedException, ExecutionException {
+            latch.await();
+            return getResult();
+        }
+
+        @Override
+        public Boolean get(long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            if (!latch.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return getResult();
+        }
+
+        void execute() {
+            try {
+                setPending(step.executeAsync(process.getClient(), this));
+            } catch (RuntimeException e) {
+                onFailure(e);
+            }
+        }
+
+        void complete() {
+            finish(process.getState() == BasePaymentProcess.State.COMPLETED, null);
+        }
+
+        private void setPending(Future<?> future) {
+            boolean cancel;
+            synchronized (this) {
+                cancel = cancelled;
+                if (!done) {
+                    pending = future;
+                }
+            }
+            if (cancel) {
+                future.cancel(true);
+            }
+        }
+
+        private void finish(Boolean result, Exception exception) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                pending = null;
+                this.result = result;
+                this.exception = exception;
+            }
+            latch.countDown();
+            if (callback != null) {
+                if (exception == null) {
+                    callback.onSuccess(result);
+                } else {
+                    callback.onFailure(exception);
+                }
+            }
+        }
+
+        private synchronized Boolean getResult() throws ExecutionException {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            if (exception != null) {
+                throw new ExecutionException(exception);
+            }
+            return result;
+        }
+    }
+}
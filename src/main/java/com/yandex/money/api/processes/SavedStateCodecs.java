@@ -0,0 +1,140 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.processes;
+
+import com.google.gson.JsonElement;
+import com.yandex.money.api.methods.BaseProcessPayment;
+import com.yandex.money.api.methods.BaseRequestPayment;
+import com.yandex.money.api.methods.ProcessExternalPayment;
+import com.yandex.money.api.methods.ProcessPayment;
+import com.yandex.money.api.methods.RequestExternalPayment;
+import com.yandex.money.api.methods.RequestPayment;
+import com.yandex.money.api.typeadapters.TypeAdapter;
+import com.yandex.money.api.typeadapters.methods.ProcessExternalPaymentTypeAdapter;
+import com.yandex.money.api.typeadapters.methods.ProcessPaymentTypeAdapter;
+import com.yandex.money.api.typeadapters.methods.RequestExternalPaymentTypeAdapter;
+import com.yandex.money.api.typeadapters.methods.RequestPaymentTypeAdapter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Codecs of payment processes' saved states. Responses are converted to JSON trees with their type adapters and
+ * written in a compact binary form.
+ */
+public final class SavedStateCodecs {
+
+    /**
+     * Codec of {@link PaymentProcess.SavedState}.
+     */
+    public static final SavedStateStore.Codec<PaymentProcess.SavedState> PAYMENT =
+            new BasePaymentCodec<RequestPayment, ProcessPayment, PaymentProcess.SavedState>(
+                    RequestPaymentTypeAdapter.getInstance(), ProcessPaymentTypeAdapter.getInstance()) {
+                @Override
+                PaymentProcess.SavedState create(RequestPayment requestPayment, ProcessPayment processPayment,
+                                                 int flags) {
+                    return new PaymentProcess.SavedState(requestPayment, processPayment, flags);
+                }
+            };
+
+    /**
+     * Codec of {@link ExternalPaymentProcess.SavedState}.
+     */
+    public static final SavedStateStore.Codec<ExternalPaymentProcess.SavedState> EXTERNAL_PAYMENT =
+            new BasePaymentCodec<RequestExternalPayment, ProcessExternalPayment, ExternalPaymentProcess.SavedState>(
+                    RequestExternalPaymentTypeAdapter.getInstance(), ProcessExternalPaymentTypeAdapter.getInstance()) {
+                @Override
+                ExternalPaymentProcess.SavedState create(RequestExternalPayment requestPayment,
+                                                         ProcessExternalPayment processPayment, int flags) {
+                    return new ExternalPaymentProcess.SavedState(requestPayment, processPayment, flags);
+                }
+            };
+
+    /**
+     * Codec of {@link ExtendedPaymentProcess.SavedState}.
+     */
+    public static final SavedStateStore.Codec<ExtendedPaymentProcess.SavedState> EXTENDED_PAYMENT =
+            new SavedStateStore.Codec<ExtendedPaymentProcess.SavedState>() {
+                @Override
+                public void write(ExtendedPaymentProcess.SavedState savedState, DataOutput out) throws IOException {
+                    BinaryJson.writeVarInt(savedState.getFlags(), out);
+                    PAYMENT.write(savedState.getPaymentProcessSavedState(), out);
+                    EXTERNAL_PAYMENT.write(savedState.getExternalPaymentProcessSavedState(), out);
+                }
+
+                @Override
+                public ExtendedPaymentProcess.SavedState read(DataInput in) throws IOException {
+                    int flags = BinaryJson.readVarInt(in);
+                    PaymentProcess.SavedState paymentSavedState = PAYMENT.read(in);
+                    ExternalPaymentProcess.SavedState externalPaymentSavedState = EXTERNAL_PAYMENT.read(in);
+                    try {
+                        return new ExtendedPaymentProcess.SavedState(paymentSavedState, externalPaymentSavedState,
+                                flags);
+                    } catch (RuntimeException e) {
+                        throw new IOException("invalid saved state", e);
+                    }
+                }
+            };
+
+    private SavedStateCodecs() {
+    }
+
+    private static abstract class BasePaymentCodec<RP extends BaseRequestPayment, PP extends BaseProcessPayment,
+            S extends BasePaymentProcess.SavedState<RP, PP>> implements SavedStateStore.Codec<S> {
+
+        private final TypeAdapter<RP> requestPaymentAdapter;
+        private final TypeAdapter<PP> processPaymentAdapter;
+
+        BasePaymentCodec(TypeAdapter<RP> requestPaymentAdapter, TypeAdapter<PP> processPaymentAdapter) {
+            this.requestPaymentAdapter = requestPaymentAdapter;
+            this.processPaymentAdapter = processPaymentAdapter;
+        }
+
+        @Override
+        public final void write(S savedState, DataOutput out) throws IOException {
+            BinaryJson.writeVarInt(savedState.getFlags(), out);
+            RP requestPayment = savedState.getRequestPayment();
+            BinaryJson.write(requestPayment == null ? null : requestPaymentAdapter.toJsonTree(requestPayment), out);
+            PP processPayment = savedState.getProcessPayment();
+            BinaryJson.write(processPayment == null ? null : processPaymentAdapter.toJsonTree(processPayment), out);
+        }
+
+        @Override
+        public final S read(DataInput in) throws IOException {
+            int flags = BinaryJson.readVarInt(in);
+            JsonElement requestPayment = BinaryJson.read(in);
+            JsonElement processPayment = BinaryJson.read(in);
+            try {
+                return create(requestPayment.isJsonNull() ? null : requestPaymentAdapter.fromJson(requestPayment),
+                        processPayment.isJsonNull() ? null : processPaymentAdapter.fromJson(processPayment), flags);
+            } catch (RuntimeException e) {
+                throw new IOException("invalid saved state", e);
+            }
+        }
+
+        abstract S create(RP requestPayment, PP processPayment, int flags);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.processes;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Durable storage of payment processes' saved states. A process should be put to the store after each of its steps
+ * and removed when it is finished, so unfinished processes can be restored after a restart with
+ * {@link #getAll()}.
+ *
+ * @param <S> type of saved state
+ * @see MappedSavedStateStore
+ * @see SavedStateCodecs
+ */
+public interface SavedStateStore<S> extends Closeable {
+
+    /**
+     * Stores saved state of a process replacing previous one.
+     *
+     * @param id unique id of a process
+     * @param savedState saved state
+     * @throws IOException if state can not be stored
+     */
+    void put(String id, S savedState) throws IOException;
+
+    /**
+     * Removes saved state of a process.
+     *
+     * @param id unique id of a process
+     * @throws IOException if state can not be removed
+     */
+    void remove(String id) throws IOException;
+
+    /**
+     * Gets all stored states.
+     *
+     * @return map of process ids to saved states in order the processes were put for the first time
+     * @throws IOException if states can not be read
+     */
+    Map<String, S> getAll() throws IOException;
+
+    /**
+     * Serializes saved states to a binary form.
+     *
+     * @param <S> type of saved state
+     */
+    interface Codec<S> {
+        /**
+         * Writes saved state.
+         *
+         * @param savedState saved state
+         * @param out output to write to
+         * @throws IOException if state can not be written
+         */
+        void write(S savedState, DataOutput out) throws IOException;
+
+        /**
+         * Reads saved state.
+         *
+         * @param in input to read from
+         * @return saved state
+         * @throws IOException if state can not be read
+         */
+        S read(DataInput in) throws IOException;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.typeadapters;
+
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import static com.yandex.money.api.typeadapters.GsonProvider.getGson;
+import static com.yandex.money.api.typeadapters.GsonProvider.registerTypeAdapter;
+
+/**
+ * Base class for type adapters that read objects directly from {@link JsonReader} without building an intermediate
+ * tree of {@link JsonElement}s. Serialization is still performed with
+ * {@link #serialize(Object, Type, JsonSerializationContext)} which is called with {@code null} context.
+ */
+public abstract class BaseStreamingTypeAdapter<T> extends BaseTypeAdapter<T> {
+
+    private final StreamingTypeAdapter streamingTypeAdapter = new StreamingTypeAdapter();
+
+    public BaseStreamingTypeAdapter() {
+        super(false);
+        registerTypeAdapter(getType(), streamingTypeAdapter);
+    }
+
+    @Override
+    public final T deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
+            throws JsonParseException {
+        return streamingTypeAdapter.fromJsonTree(json);
+    }
+
+    /**
+     * Creates object from {@link JsonReader}.
+     *
+     * @param reader JSON reader positioned at the beginning of a value
+     * @return object or {@code null} if value is JSON null
+     * @throws IOException if unable to read the value
+     */
+    public final T fromJson(JsonReader reader) throws IOException {
+        return streamingTypeAdapter.read(reader);
+    }
+
+    /**
+     * Reads JSON object. Reader is positioned at the beginning of the object and must be positioned right after its
+     * end on return.
+     *
+     * @param reader JSON reader
+     * @return object
+     * @throws IOException if unable to read the object
+     */
+    protected abstract T read(JsonReader reader) throws IOException;
+
+    private final class StreamingTypeAdapter extends com.google.gson.TypeAdapter<T> {
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                getGson().toJson(serialize(value, getType(), null), out);
+            }
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return BaseStreamingTypeAdapter.this.read(in);
+        }
+    }
+}
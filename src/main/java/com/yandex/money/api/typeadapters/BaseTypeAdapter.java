@@ -47,7 +47,13 @@ import static com.yandex.money.api.typeadapters.GsonProvider.registerTypeAdapter
 public abstract class BaseTypeAdapter<T> implements TypeAdapter<T>, JsonSerializer<T>, JsonDeserializer<T> {
 
     public BaseTypeAdapter() {
-        registerTypeAdapter(getType(), this);
+        this(true);
+    }
+
+    BaseTypeAdapter(boolean register) {
+        if (register) {
+            registerTypeAdapter(getType(), this);
+        }
     }
 
     @Override
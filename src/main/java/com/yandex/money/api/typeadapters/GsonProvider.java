@@ -27,26 +27,60 @@ package com.yandex.money.api.typeadapters;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
 /**
+ * Provides {@link Gson} instance with all registered type adapters. Registration invalidates current instance and a new
+ * immutable one is created and published on first use after it. So {@link #getGson()} acquires no locks once all type
+ * adapters are loaded.
+ *
  * @author Slava Yasevich (vyasevich@yamoney.ru)
  */
 public final class GsonProvider {
 
-    private static final GsonBuilder BUILDER = new GsonBuilder();
+    private static final Object LOCK = new Object();
+
+    private static final Map<Class<?>, Object> TYPE_ADAPTERS = new LinkedHashMap<>();
+    private static volatile Gson gson;
+
+    private GsonProvider() {
+    }
+
+    public static Gson getGson() {
+        Gson current = gson;
+        return current == null ? createGson() : current;
+    }
+
+    public static <T> void registerTypeAdapter(Class<T> cls, TypeAdapter<T> typeAdapter) {
+        register(cls, typeAdapter);
+    }
 
-    private static Gson gson = BUILDER.create();
-    private static boolean hasNewTypeAdapter = false;
+    public static <T> void registerTypeAdapter(Class<T> cls, com.google.gson.TypeAdapter<T> typeAdapter) {
+        register(cls, typeAdapter);
+    }
 
-    public static synchronized Gson getGson() {
-        if (hasNewTypeAdapter) {
-            gson = BUILDER.create();
-            hasNewTypeAdapter = false;
+    private static void register(Class<?> cls, Object typeAdapter) {
+        synchronized (LOCK) {
+            TYPE_ADAPTERS.put(checkNotNull(cls, "cls"), checkNotNull(typeAdapter, "typeAdapter"));
+            gson = null;
         }
-        return gson;
     }
 
-    public static synchronized <T> void registerTypeAdapter(Class<T> cls, TypeAdapter<T> typeAdapter) {
-        BUILDER.registerTypeAdapter(cls, typeAdapter);
-        hasNewTypeAdapter = true;
+    private static Gson createGson() {
+        synchronized (LOCK) {
+            Gson current = gson;
+            if (current == null) {
+                GsonBuilder builder = new GsonBuilder();
+                for (Map.Entry<Class<?>, Object> entry : TYPE_ADAPTERS.entrySet()) {
+                    builder.registerTypeAdapter(entry.getKey(), entry.getValue());
+                }
+                current = builder.create();
+                gson = current;
+            }
+            return current;
+        }
     }
 }
@@ -27,7 +27,10 @@ package com.yandex.money.api.typeadapters;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormatter;
@@ -35,6 +38,7 @@ import org.joda.time.format.ISODateTimeFormat;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
@@ -286,16 +290,153 @@ public final class JsonUtils {
      */
     public static byte[] getBytes(JsonElement element) {
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        JsonWriter writer = new JsonWriter(new OutputStreamWriter(stream, Charset.forName("UTF-8")));
-        GsonProvider.getGson().toJson(checkNotNull(element, "element"), writer);
         try {
-            writer.close();
+            write(element, stream);
         } catch (IOException e) {
             throw new JsonIOException(e);
         }
         return stream.toByteArray();
     }
 
+    /**
+     * Writes UTF-8 bytes of JSON element to a stream. The stream is flushed but not closed.
+     *
+     * @param element JSON element
+     * @param stream stream to write to
+     * @throws IOException if stream fails
+     */
+    public static void write(JsonElement element, OutputStream stream) throws IOException {
+        checkNotNull(stream, "stream");
+        JsonWriter writer = new JsonWriter(new OutputStreamWriter(stream, Charset.forName("UTF-8")));
+        try {
+            GsonProvider.getGson().toJson(checkNotNull(element, "element"), writer);
+        } catch (JsonIOException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+        writer.flush();
+    }
+
+    /**
+     * Reads nullable String from a JSON reader. Numbers and booleans are read as strings.
+     *
+     * @param reader JSON reader
+     * @return {@link String} value
+     */
+    public static String nextString(JsonReader reader) throws IOException {
+        switch (checkReader(reader).peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            default:
+                return reader.nextString();
+        }
+    }
+
+    /**
+     * Reads nullable Boolean from a JSON reader.
+     *
+     * @param reader JSON reader
+     * @return {@link Boolean} value
+     */
+    public static Boolean nextBoolean(JsonReader reader) throws IOException {
+        switch (checkReader(reader).peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return reader.nextBoolean();
+            default:
+                return Boolean.parseBoolean(reader.nextString());
+        }
+    }
+
+    /**
+     * Reads nullable Long from a JSON reader.
+     *
+     * @param reader JSON reader
+     * @return {@link Long} value
+     */
+    public static Long nextLong(JsonReader reader) throws IOException {
+        if (checkReader(reader).peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextLong();
+    }
+
+    /**
+     * Reads nullable BigDecimal from a JSON reader.
+     *
+     * @param reader JSON reader
+     * @return {@link java.math.BigDecimal} value
+     */
+    public static BigDecimal nextBigDecimal(JsonReader reader) throws IOException {
+        String value = nextString(reader);
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    /**
+     * Reads nullable DateTime from a JSON reader.
+     *
+     * @param reader JSON reader
+     * @return {@link org.joda.time.DateTime} value
+     */
+    public static DateTime nextDateTime(JsonReader reader) throws IOException {
+        String value = nextString(reader);
+        return value == null ? null : DateTime.parse(value, ISO_FORMATTER);
+    }
+
+    /**
+     * Reads JSON object as key-value pairs. Non-primitive entries are skipped and {@code null} value added using their
+     * keys. Returns {@link Collections#emptyMap()} in case of JSON null.
+     *
+     * @see #map(JsonObject)
+     *
+     * @param reader JSON reader
+     * @return map of string key-value pairs
+     */
+    public static Map<String, String> nextMap(JsonReader reader) throws IOException {
+        if (checkReader(reader).peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> result = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+            if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                result.put(name, null);
+            } else {
+                result.put(name, nextString(reader));
+            }
+        }
+        reader.endObject();
+        return result;
+    }
+
+    /**
+     * Reads next value from a JSON reader as JSON element. Use it for small nested values that are handled by tree
+     * based type adapters.
+     *
+     * @param reader JSON reader
+     * @return JSON element
+     */
+    public static JsonElement nextElement(JsonReader reader) {
+        return new JsonParser().parse(checkReader(reader));
+    }
+
+    private static JsonReader checkReader(JsonReader reader) {
+        return checkNotNull(reader, "reader");
+    }
+
     private static JsonPrimitive getPrimitiveChecked(JsonObject object, String memberName) {
         JsonElement element = checkObject(object).get(checkMemberName(memberName));
         return element == null || element.isJsonNull() ? null : element.getAsJsonPrimitive();
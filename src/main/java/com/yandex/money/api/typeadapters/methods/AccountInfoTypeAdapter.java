@@ -24,31 +24,32 @@
 
 package com.yandex.money.api.typeadapters.methods;
 
-import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
 import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
 import com.yandex.money.api.methods.AccountInfo;
 import com.yandex.money.api.model.AccountStatus;
 import com.yandex.money.api.model.AccountType;
 import com.yandex.money.api.model.BalanceDetails;
-import com.yandex.money.api.typeadapters.BaseTypeAdapter;
+import com.yandex.money.api.typeadapters.BaseStreamingTypeAdapter;
 import com.yandex.money.api.typeadapters.model.BalanceDetailsTypeAdapter;
 import com.yandex.money.api.util.Currency;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 
-import static com.yandex.money.api.typeadapters.JsonUtils.getBigDecimal;
-import static com.yandex.money.api.typeadapters.JsonUtils.getString;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextBigDecimal;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextElement;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextString;
 
 /**
  * Type adapter for {@link AccountInfo}.
  *
  * @author Slava Yasevich (vyasevich@yamoney.ru)
  */
-public final class AccountInfoTypeAdapter extends BaseTypeAdapter<AccountInfo> {
+public final class AccountInfoTypeAdapter extends BaseStreamingTypeAdapter<AccountInfo> {
 
     private static final AccountInfoTypeAdapter INSTANCE = new AccountInfoTypeAdapter();
 
@@ -63,11 +64,9 @@ public final class AccountInfoTypeAdapter extends BaseTypeAdapter<AccountInfo> {
     }
 
     @Override
-    public AccountInfo deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-            throws JsonParseException {
-
+    protected AccountInfo read(JsonReader reader) throws IOException {
         AccountInfo.Builder builder = new AccountInfo.Builder();
-        Delegate.deserialize(json.getAsJsonObject(), builder);
+        Delegate.read(reader, builder);
         return builder.create();
     }
 
@@ -95,27 +94,46 @@ public final class AccountInfoTypeAdapter extends BaseTypeAdapter<AccountInfo> {
         private Delegate() {
         }
 
-        static <T extends AccountInfo.Builder> void deserialize(JsonObject object, T builder) {
+        static <T extends AccountInfo.Builder> void read(JsonReader reader, T builder) throws IOException {
+            String account = null;
+            BigDecimal balance = null;
             Currency currency = null;
-            try {
-                String c = getString(object, MEMBER_CURRENCY);
-                if (c != null) {
-                    int parsed = Integer.parseInt(c);
-                    currency = Currency.parseNumericCode(parsed);
+            String accountStatus = null;
+            String accountType = null;
+            BalanceDetails balanceDetails = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case MEMBER_ACCOUNT:
+                        account = nextString(reader);
+                        break;
+                    case MEMBER_BALANCE:
+                        balance = nextBigDecimal(reader);
+                        break;
+                    case MEMBER_CURRENCY:
+                        currency = parseCurrency(nextString(reader));
+                        break;
+                    case MEMBER_STATUS:
+                        accountStatus = nextString(reader);
+                        break;
+                    case MEMBER_TYPE:
+                        accountType = nextString(reader);
+                        break;
+                    case MEMBER_BALANCE_DETAILS:
+                        balanceDetails = BalanceDetailsTypeAdapter.getInstance().fromJson(nextElement(reader));
+                        break;
+                    default:
+                        reader.skipValue();
                 }
-            } catch (NumberFormatException e) {
-                // see code below
             }
+            reader.endObject();
 
-            BigDecimal balance = getBigDecimal(object, MEMBER_BALANCE);
-            BalanceDetails balanceDetails = BalanceDetailsTypeAdapter.getInstance()
-                    .fromJson(object.get(MEMBER_BALANCE_DETAILS));
-
-            builder.setAccount(getString(object, MEMBER_ACCOUNT))
+            builder.setAccount(account)
                     .setBalance(balance)
                     .setCurrency(currency)
-                    .setAccountStatus(AccountStatus.parse(getString(object, MEMBER_STATUS)))
-                    .setAccountType(AccountType.parse(getString(object, MEMBER_TYPE)))
+                    .setAccountStatus(AccountStatus.parse(accountStatus))
+                    .setAccountType(AccountType.parse(accountType))
                     .setBalanceDetails(balanceDetails);
         }
 
@@ -127,5 +145,13 @@ public final class AccountInfoTypeAdapter extends BaseTypeAdapter<AccountInfo> {
             object.addProperty(MEMBER_TYPE, src.accountType.code);
             object.add(MEMBER_BALANCE_DETAILS, BalanceDetailsTypeAdapter.getInstance().toJsonTree(src.balanceDetails));
         }
+
+        private static Currency parseCurrency(String code) {
+            try {
+                return code == null ? null : Currency.parseNumericCode(Integer.parseInt(code));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
     }
 }
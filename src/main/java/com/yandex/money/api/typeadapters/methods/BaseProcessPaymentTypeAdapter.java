@@ -25,12 +25,18 @@
 package com.yandex.money.api.typeadapters.methods;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import com.yandex.money.api.methods.BaseProcessPayment;
 import com.yandex.money.api.model.Error;
 
+import java.io.IOException;
+
 import static com.yandex.money.api.typeadapters.JsonUtils.getLong;
 import static com.yandex.money.api.typeadapters.JsonUtils.getNotNullMap;
 import static com.yandex.money.api.typeadapters.JsonUtils.getString;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextLong;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextMap;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextString;
 import static com.yandex.money.api.typeadapters.JsonUtils.toJsonObject;
 import static com.yandex.money.api.util.Common.checkNotNull;
 
@@ -69,6 +75,43 @@ final class BaseProcessPaymentTypeAdapter {
             }
         }
 
+        /**
+         * Reads a member of a base process payment object if it is known.
+         *
+         * @param reader JSON reader positioned at the member's value
+         * @param name member's name
+         * @param builder builder to set the value to
+         * @return {@code true} if member's value has been read
+         */
+        static <T extends BaseProcessPayment.Builder> boolean read(JsonReader reader, String name, T builder)
+                throws IOException {
+
+            switch (name) {
+                case MEMBER_STATUS:
+                    builder.setStatus(BaseProcessPayment.Status.parse(nextString(reader)));
+                    return true;
+                case MEMBER_ERROR:
+                    builder.setError(Error.parse(nextString(reader)));
+                    return true;
+                case MEMBER_INVOICE_ID:
+                    builder.setInvoiceId(nextString(reader));
+                    return true;
+                case MEMBER_ACS_URI:
+                    builder.setAcsUri(nextString(reader));
+                    return true;
+                case MEMBER_ACS_PARAMS:
+                    builder.setAcsParams(nextMap(reader));
+                    return true;
+                case MEMBER_NEXT_RETRY:
+                    Long nextRetry = nextLong(reader);
+                    if (nextRetry != null) {
+                        builder.setNextRetry(nextRetry);
+                    }
+                    return true;
+                default:
+                    return false;
+            }
+        }
 
         static <T extends BaseProcessPayment> void serialize(JsonObject object, T value) {
             checkNotNull(object, "object")
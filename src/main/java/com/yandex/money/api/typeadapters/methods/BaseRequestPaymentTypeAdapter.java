@@ -25,12 +25,17 @@
 package com.yandex.money.api.typeadapters.methods;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import com.yandex.money.api.methods.BaseRequestPayment;
 import com.yandex.money.api.methods.BaseRequestPayment.Status;
 import com.yandex.money.api.model.Error;
 
+import java.io.IOException;
+
 import static com.yandex.money.api.typeadapters.JsonUtils.getBigDecimal;
 import static com.yandex.money.api.typeadapters.JsonUtils.getString;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextBigDecimal;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextString;
 import static com.yandex.money.api.util.Common.checkNotNull;
 
 /**
@@ -61,6 +66,38 @@ final class BaseRequestPaymentTypeAdapter {
                     .setTitle(getString(object, MEMBER_TITLE));
         }
 
+        /**
+         * Reads a member of a base request payment object if it is known.
+         *
+         * @param reader JSON reader positioned at the member's value
+         * @param name member's name
+         * @param builder builder to set the value to
+         * @return {@code true} if member's value has been read
+         */
+        static <T extends BaseRequestPayment.Builder> boolean read(JsonReader reader, String name, T builder)
+                throws IOException {
+
+            switch (name) {
+                case MEMBER_STATUS:
+                    builder.setStatus(Status.parse(nextString(reader)));
+                    return true;
+                case MEMBER_ERROR:
+                    builder.setError(Error.parse(nextString(reader)));
+                    return true;
+                case MEMBER_CONTRACT_AMOUNT:
+                    builder.setContractAmount(nextBigDecimal(reader));
+                    return true;
+                case MEMBER_REQUEST_ID:
+                    builder.setRequestId(nextString(reader));
+                    return true;
+                case MEMBER_TITLE:
+                    builder.setTitle(nextString(reader));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
         static <T extends BaseRequestPayment> void serialize(JsonObject object, T value) {
             checkNotNull(object, "object")
                     .addProperty(MEMBER_STATUS, checkNotNull(value, "value").status.code);
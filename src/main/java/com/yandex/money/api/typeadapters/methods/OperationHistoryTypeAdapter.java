@@ -24,26 +24,30 @@
 
 package com.yandex.money.api.typeadapters.methods;
 
-import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
 import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.yandex.money.api.methods.OperationHistory;
 import com.yandex.money.api.model.Error;
-import com.yandex.money.api.typeadapters.BaseTypeAdapter;
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.typeadapters.BaseStreamingTypeAdapter;
 import com.yandex.money.api.typeadapters.model.OperationTypeAdapter;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 
-import static com.yandex.money.api.typeadapters.JsonUtils.getString;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextString;
 
 /**
  * Type adapter for {@link OperationHistory}.
  *
  * @author Anton Ermak (ermak@yamoney.ru)
  */
-public final class OperationHistoryTypeAdapter extends BaseTypeAdapter<OperationHistory> {
+public final class OperationHistoryTypeAdapter extends BaseStreamingTypeAdapter<OperationHistory> {
 
     private static final OperationHistoryTypeAdapter INSTANCE = new OperationHistoryTypeAdapter();
 
@@ -62,13 +66,30 @@ public final class OperationHistoryTypeAdapter extends BaseTypeAdapter<Operation
     }
 
     @Override
-    public OperationHistory deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-            throws JsonParseException {
+    protected OperationHistory read(JsonReader reader) throws IOException {
+        Error error = null;
+        String nextRecord = null;
+        List<Operation> operations = new ArrayList<>();
 
-        JsonObject object = json.getAsJsonObject();
-        return new OperationHistory(Error.parse(getString(object, MEMBER_ERROR)),
-                getString(object, MEMBER_NEXT_RECORD),
-                toEmptyListIfNull(OperationTypeAdapter.getInstance().fromJson(object.getAsJsonArray(MEMBER_OPERATIONS))));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case MEMBER_ERROR:
+                    error = Error.parse(nextString(reader));
+                    break;
+                case MEMBER_NEXT_RECORD:
+                    nextRecord = nextString(reader);
+                    break;
+                case MEMBER_OPERATIONS:
+                    readOperations(reader, operations);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new OperationHistory(error, nextRecord, operations);
     }
 
     @Override
@@ -87,4 +108,18 @@ public final class OperationHistoryTypeAdapter extends BaseTypeAdapter<Operation
     protected Class<OperationHistory> getType() {
         return OperationHistory.class;
     }
+
+    private static void readOperations(JsonReader reader, List<Operation> operations) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return;
+        }
+
+        OperationTypeAdapter adapter = OperationTypeAdapter.getInstance();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            operations.add(adapter.fromJson(reader));
+        }
+        reader.endArray();
+    }
 }
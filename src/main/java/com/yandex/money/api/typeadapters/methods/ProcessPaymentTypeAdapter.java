@@ -24,27 +24,27 @@
 
 package com.yandex.money.api.typeadapters.methods;
 
-import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
 import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
 import com.yandex.money.api.methods.ProcessPayment;
-import com.yandex.money.api.model.DigitalGoods;
-import com.yandex.money.api.typeadapters.BaseTypeAdapter;
+import com.yandex.money.api.typeadapters.BaseStreamingTypeAdapter;
 import com.yandex.money.api.typeadapters.model.DigitalGoodsTypeAdapter;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 
-import static com.yandex.money.api.typeadapters.JsonUtils.getBigDecimal;
-import static com.yandex.money.api.typeadapters.JsonUtils.getString;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextBigDecimal;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextElement;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextString;
 
 /**
  * Type adapter for {@link ProcessPayment}.
  *
  * @author Anton Ermak (ermak@yamoney.ru)
  */
-public final class ProcessPaymentTypeAdapter extends BaseTypeAdapter<ProcessPayment> {
+public final class ProcessPaymentTypeAdapter extends BaseStreamingTypeAdapter<ProcessPayment> {
 
     private static final ProcessPaymentTypeAdapter INSTANCE = new ProcessPaymentTypeAdapter();
 
@@ -69,21 +69,48 @@ public final class ProcessPaymentTypeAdapter extends BaseTypeAdapter<ProcessPaym
     }
 
     @Override
-    public ProcessPayment deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-            throws JsonParseException {
+    protected ProcessPayment read(JsonReader reader) throws IOException {
+        ProcessPayment.Builder builder = new ProcessPayment.Builder();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case MEMBER_PAYMENT_ID:
+                    builder.setPaymentId(nextString(reader));
+                    break;
+                case MEMBER_BALANCE:
+                    builder.setBalance(nextBigDecimal(reader));
+                    break;
+                case MEMBER_PAYER:
+                    builder.setPayer(nextString(reader));
+                    break;
+                case MEMBER_PAYEE:
+                    builder.setPayee(nextString(reader));
+                    break;
+                case MEMBER_CREDIT_AMOUNT:
+                    builder.setCreditAmount(nextBigDecimal(reader));
+                    break;
+                case MEMBER_ACCOUNT_UNBLOCK_URI:
+                    builder.setAccountUnblockUri(nextString(reader));
+                    break;
+                case MEMBER_PAYEE_UID:
+                    builder.setPayeeUid(nextString(reader));
+                    break;
+                case MEMBER_HOLD_FOR_PICKUP_LINK:
+                    builder.setHoldForPickupLink(nextString(reader));
+                    break;
+                case MEMBER_DIGITAL_GOODS:
+                    builder.setDigitalGoods(DigitalGoodsTypeAdapter.getInstance().fromJson(nextElement(reader)));
+                    break;
+                default:
+                    if (!BaseProcessPaymentTypeAdapter.Delegate.read(reader, name, builder)) {
+                        reader.skipValue();
+                    }
+            }
+        }
+        reader.endObject();
 
-        JsonObject object = json.getAsJsonObject();
-        ProcessPayment.Builder builder = new ProcessPayment.Builder()
-                .setPaymentId(getString(object, MEMBER_PAYMENT_ID))
-                .setBalance(getBigDecimal(object, MEMBER_BALANCE))
-                .setPayer(getString(object, MEMBER_PAYER))
-                .setPayee(getString(object, MEMBER_PAYEE))
-                .setCreditAmount(getBigDecimal(object, MEMBER_CREDIT_AMOUNT))
-                .setAccountUnblockUri(getString(object, MEMBER_ACCOUNT_UNBLOCK_URI))
-                .setPayeeUid(getString(object, MEMBER_PAYEE_UID))
-                .setHoldForPickupLink(getString(object, MEMBER_HOLD_FOR_PICKUP_LINK))
-                .setDigitalGoods(deserializeDigitalGoods(object));
-        BaseProcessPaymentTypeAdapter.Delegate.deserialize(object, builder);
         return builder.create();
     }
 
@@ -110,14 +137,4 @@ public final class ProcessPaymentTypeAdapter extends BaseTypeAdapter<ProcessPaym
     protected Class<ProcessPayment> getType() {
         return ProcessPayment.class;
     }
-
-    private static DigitalGoods deserializeDigitalGoods(JsonObject jsonObject) {
-        JsonElement digitalGoods = jsonObject.get(MEMBER_DIGITAL_GOODS);
-        if (digitalGoods != null) {
-            JsonObject jsonDigitalGoods = digitalGoods.getAsJsonObject();
-            return DigitalGoodsTypeAdapter.getInstance().fromJson(jsonDigitalGoods);
-        } else {
-            return null;
-        }
-    }
 }
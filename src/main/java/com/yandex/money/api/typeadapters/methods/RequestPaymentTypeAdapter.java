@@ -25,35 +25,36 @@
 package com.yandex.money.api.typeadapters.methods;
 
 import com.google.gson.JsonArray;
-import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
 import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
 import com.yandex.money.api.methods.RequestPayment;
 import com.yandex.money.api.model.AccountStatus;
 import com.yandex.money.api.model.AccountType;
 import com.yandex.money.api.model.Card;
 import com.yandex.money.api.model.MoneySource;
 import com.yandex.money.api.model.Wallet;
-import com.yandex.money.api.typeadapters.BaseTypeAdapter;
+import com.yandex.money.api.typeadapters.BaseStreamingTypeAdapter;
 import com.yandex.money.api.typeadapters.model.CardTypeAdapter;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 
-import static com.yandex.money.api.typeadapters.JsonUtils.getBigDecimal;
-import static com.yandex.money.api.typeadapters.JsonUtils.getBoolean;
 import static com.yandex.money.api.typeadapters.JsonUtils.getMandatoryBoolean;
-import static com.yandex.money.api.typeadapters.JsonUtils.getString;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextBigDecimal;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextBoolean;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextElement;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextString;
 
 /**
  * Type adapter for {@link RequestPayment}.
  *
  * @author Anton Ermak (ermak@yamoney.ru)
  */
-public final class RequestPaymentTypeAdapter extends BaseTypeAdapter<RequestPayment> {
+public final class RequestPaymentTypeAdapter extends BaseStreamingTypeAdapter<RequestPayment> {
 
     private static final RequestPaymentTypeAdapter INSTANCE = new RequestPaymentTypeAdapter();
 
@@ -77,26 +78,49 @@ public final class RequestPaymentTypeAdapter extends BaseTypeAdapter<RequestPaym
     }
 
     @Override
-    public RequestPayment deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-            throws JsonParseException {
-
-        JsonObject object = json.getAsJsonObject();
-
-        RequestPayment.Builder builder = new RequestPayment.Builder()
-                .setBalance(getBigDecimal(object, MEMBER_BALANCE))
-                .setRecipientAccountStatus(AccountStatus.parse(getString(object, MEMBER_RECIPIENT_ACCOUNT_STATUS)))
-                .setRecipientAccountType(AccountType.parse(getString(object, MEMBER_RECIPIENT_ACCOUNT_TYPE)))
-                .setProtectionCode(getString(object, MEMBER_PROTECTION_CODE))
-                .setAccountUnblockUri(getString(object, MEMBER_ACCOUNT_UNBLOCK_URI))
-                .setExtActionUri(getString(object, MEMBER_EXT_ACTION_URI))
-                .setMultipleRecipientsFound(getBoolean(object, MEMBER_MULTIPLE_RECIPIENTS_FOUND));
-
-        JsonObject moneySourceObject = object.getAsJsonObject(MEMBER_MONEY_SOURCE);
-        if (moneySourceObject != null) {
-            builder.setMoneySources(MoneySourceListTypeAdapter.Delegate.deserialize(moneySourceObject, builder));
+    protected RequestPayment read(JsonReader reader) throws IOException {
+        RequestPayment.Builder builder = new RequestPayment.Builder();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case MEMBER_BALANCE:
+                    builder.setBalance(nextBigDecimal(reader));
+                    break;
+                case MEMBER_RECIPIENT_ACCOUNT_STATUS:
+                    builder.setRecipientAccountStatus(AccountStatus.parse(nextString(reader)));
+                    break;
+                case MEMBER_RECIPIENT_ACCOUNT_TYPE:
+                    builder.setRecipientAccountType(AccountType.parse(nextString(reader)));
+                    break;
+                case MEMBER_PROTECTION_CODE:
+                    builder.setProtectionCode(nextString(reader));
+                    break;
+                case MEMBER_ACCOUNT_UNBLOCK_URI:
+                    builder.setAccountUnblockUri(nextString(reader));
+                    break;
+                case MEMBER_EXT_ACTION_URI:
+                    builder.setExtActionUri(nextString(reader));
+                    break;
+                case MEMBER_MULTIPLE_RECIPIENTS_FOUND:
+                    builder.setMultipleRecipientsFound(nextBoolean(reader));
+                    break;
+                case MEMBER_MONEY_SOURCE:
+                    JsonElement moneySource = nextElement(reader);
+                    if (moneySource.isJsonObject()) {
+                        builder.setMoneySources(MoneySourceListTypeAdapter.Delegate.deserialize(
+                                moneySource.getAsJsonObject(), builder));
+                    }
+                    break;
+                default:
+                    if (!BaseRequestPaymentTypeAdapter.Delegate.read(reader, name, builder)) {
+                        reader.skipValue();
+                    }
+            }
         }
+        reader.endObject();
 
-        BaseRequestPaymentTypeAdapter.Delegate.deserialize(object, builder);
         return builder.create();
     }
 
@@ -24,23 +24,27 @@
 
 package com.yandex.money.api.typeadapters.model;
 
-import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
 import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
 import com.yandex.money.api.model.Operation;
 import com.yandex.money.api.model.PayeeIdentifierType;
-import com.yandex.money.api.typeadapters.BaseTypeAdapter;
+import com.yandex.money.api.typeadapters.BaseStreamingTypeAdapter;
 
+import org.joda.time.DateTime;
+
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
 
 import static com.yandex.money.api.typeadapters.JsonUtils.ISO_FORMATTER;
-import static com.yandex.money.api.typeadapters.JsonUtils.getBigDecimal;
-import static com.yandex.money.api.typeadapters.JsonUtils.getBoolean;
-import static com.yandex.money.api.typeadapters.JsonUtils.getDateTime;
-import static com.yandex.money.api.typeadapters.JsonUtils.getNotNullMap;
-import static com.yandex.money.api.typeadapters.JsonUtils.getString;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextBigDecimal;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextBoolean;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextDateTime;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextElement;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextMap;
+import static com.yandex.money.api.typeadapters.JsonUtils.nextString;
 import static com.yandex.money.api.typeadapters.JsonUtils.toJsonObject;
 
 /**
@@ -48,7 +52,7 @@ import static com.yandex.money.api.typeadapters.JsonUtils.toJsonObject;
  *
  * @author Anton Ermak (ermak@yamoney.ru)
  */
-public final class OperationTypeAdapter extends BaseTypeAdapter<Operation> {
+public final class OperationTypeAdapter extends BaseStreamingTypeAdapter<Operation> {
 
     private static final OperationTypeAdapter INSTANCE = new OperationTypeAdapter();
 
@@ -89,37 +93,97 @@ public final class OperationTypeAdapter extends BaseTypeAdapter<Operation> {
     }
 
     @Override
-    public Operation deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-            throws JsonParseException {
-
-        final JsonObject o = json.getAsJsonObject();
-        return new Operation.Builder()
-                .setOperationId(getString(o, MEMBER_OPERATION_ID))
-                .setStatus(Operation.Status.parseOrThrow(getString(o, MEMBER_STATUS)))
-                .setDatetime(getDateTime(o, MEMBER_DATETIME))
-                .setTitle(getString(o, MEMBER_TITLE))
-                .setPatternId(getString(o, MEMBER_PATTERN_ID))
-                .setDirection(Operation.Direction.parseOrThrow(getString(o, MEMBER_DIRECTION)))
-                .setAmount(getBigDecimal(o, MEMBER_AMOUNT))
-                .setAmountDue(getBigDecimal(o, MEMBER_AMOUNT_DUE))
-                .setFee(getBigDecimal(o, MEMBER_FEE))
-                .setLabel(getString(o, MEMBER_LABEL))
-                .setType(Operation.Type.parseOrThrow(getString(o, MEMBER_TYPE)))
-                .setSender(getString(o, MEMBER_SENDER))
-                .setRecipient(getString(o, MEMBER_RECIPIENT))
-                .setRecipientType(PayeeIdentifierType.parse(getString(o, MEMBER_RECIPIENT_TYPE)))
-                .setMessage(getString(o, MEMBER_MESSAGE))
-                .setComment(getString(o, MEMBER_COMMENT))
-                .setCodepro(getBoolean(o, MEMBER_CODEPRO))
-                .setProtectionCode(getString(o, MEMBER_PROTECTION_CODE))
-                .setExpires(getDateTime(o, MEMBER_EXPIRES))
-                .setAnswerDatetime(getDateTime(o, MEMBER_ANSWER_DATETIME))
-                .setDetails(getString(o, MEMBER_DETAILS))
-                .setRepeatable(getBoolean(o, MEMBER_REPEATABLE))
-                .setPaymentParameters(getNotNullMap(o, MEMBER_PAYMENT_PARAMETERS))
-                .setFavorite(getBoolean(o, MEMBER_FAVOURITE))
-                .setDigitalGoods(DigitalGoodsTypeAdapter.getInstance().fromJson(o.get(
-                        MEMBER_DIGITAL_GOODS)))
+    protected Operation read(JsonReader reader) throws IOException {
+        Operation.Builder builder = new Operation.Builder();
+        DateTime datetime = null;
+        BigDecimal amount = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case MEMBER_OPERATION_ID:
+                    builder.setOperationId(nextString(reader));
+                    break;
+                case MEMBER_STATUS:
+                    builder.setStatus(Operation.Status.parseOrThrow(nextString(reader)));
+                    break;
+                case MEMBER_DATETIME:
+                    datetime = nextDateTime(reader);
+                    break;
+                case MEMBER_TITLE:
+                    builder.setTitle(nextString(reader));
+                    break;
+                case MEMBER_PATTERN_ID:
+                    builder.setPatternId(nextString(reader));
+                    break;
+                case MEMBER_DIRECTION:
+                    builder.setDirection(Operation.Direction.parseOrThrow(nextString(reader)));
+                    break;
+                case MEMBER_AMOUNT:
+                    amount = nextBigDecimal(reader);
+                    break;
+                case MEMBER_AMOUNT_DUE:
+                    builder.setAmountDue(nextBigDecimal(reader));
+                    break;
+                case MEMBER_FEE:
+                    builder.setFee(nextBigDecimal(reader));
+                    break;
+                case MEMBER_LABEL:
+                    builder.setLabel(nextString(reader));
+                    break;
+                case MEMBER_TYPE:
+                    builder.setType(Operation.Type.parseOrThrow(nextString(reader)));
+                    break;
+                case MEMBER_SENDER:
+                    builder.setSender(nextString(reader));
+                    break;
+                case MEMBER_RECIPIENT:
+                    builder.setRecipient(nextString(reader));
+                    break;
+                case MEMBER_RECIPIENT_TYPE:
+                    builder.setRecipientType(PayeeIdentifierType.parse(nextString(reader)));
+                    break;
+                case MEMBER_MESSAGE:
+                    builder.setMessage(nextString(reader));
+                    break;
+                case MEMBER_COMMENT:
+                    builder.setComment(nextString(reader));
+                    break;
+                case MEMBER_CODEPRO:
+                    builder.setCodepro(nextBoolean(reader));
+                    break;
+                case MEMBER_PROTECTION_CODE:
+                    builder.setProtectionCode(nextString(reader));
+                    break;
+                case MEMBER_EXPIRES:
+                    builder.setExpires(nextDateTime(reader));
+                    break;
+                case MEMBER_ANSWER_DATETIME:
+                    builder.setAnswerDatetime(nextDateTime(reader));
+                    break;
+                case MEMBER_DETAILS:
+                    builder.setDetails(nextString(reader));
+                    break;
+                case MEMBER_REPEATABLE:
+                    builder.setRepeatable(nextBoolean(reader));
+                    break;
+                case MEMBER_PAYMENT_PARAMETERS:
+                    builder.setPaymentParameters(nextMap(reader));
+                    break;
+                case MEMBER_FAVOURITE:
+                    builder.setFavorite(nextBoolean(reader));
+                    break;
+                case MEMBER_DIGITAL_GOODS:
+                    builder.setDigitalGoods(DigitalGoodsTypeAdapter.getInstance().fromJson(nextElement(reader)));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return builder.setDatetime(datetime)
+                .setAmount(amount)
                 .create();
     }
 
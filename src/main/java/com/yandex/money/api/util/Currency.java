@@ -224,13 +224,16 @@ public enum Currency {
         ALPHA_MAP = Collections.unmodifiableMap(temp);
     }
 
-    private static final Map<Integer, Currency> NUMERIC_MAP;
+    /**
+     * Currencies indexed by numeric code. ISO 4217 numeric codes consist of three digits.
+     */
+    private static final Currency[] NUMERIC_INDEX = new Currency[1000];
     static {
-        Map<Integer, Currency> temp = new HashMap<>();
         for (Currency value : values()) {
-            temp.put(value.numericCode, value);
+            if (value.numericCode != null) {
+                NUMERIC_INDEX[value.numericCode] = value;
+            }
         }
-        NUMERIC_MAP = Collections.unmodifiableMap(temp);
     }
 
     public final String alphaCode;
@@ -246,6 +249,7 @@ public enum Currency {
     }
 
     public static Currency parseNumericCode(Integer numericCode) {
-        return NUMERIC_MAP.get(numericCode);
+        return numericCode == null || numericCode < 0 || numericCode >= NUMERIC_INDEX.length ?
+                null : NUMERIC_INDEX[numericCode];
     }
 }
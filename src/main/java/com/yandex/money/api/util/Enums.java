@@ -24,13 +24,24 @@
 
 package com.yandex.money.api.util;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import static com.yandex.money.api.util.Common.checkNotNull;
 
 /**
+ * Parses values of {@code enum}s implementing {@link WithCode}. Codes of each {@code enum} are indexed on the first
+ * use, so parsing does not depend on the number of constants.
+ *
  * @author Slava Yasevich
  */
 public final class Enums {
 
+    private static final ConcurrentMap<Class<?>, Index> INDICES = new ConcurrentHashMap<>();
+
     /**
      * Parses {@code code} to using {@code prototype} to get {@code enum}'s declaration.
      *
@@ -78,12 +89,17 @@ public final class Enums {
         if (code == null) {
             return defaultValue;
         }
-        for (T value : checkNotNull(prototype, "prototype").getValues()) {
-            if (code.equals(value.getCode())) {
-                return value;
+        Index index = getIndex(prototype);
+        if (index == null) {
+            for (T value : prototype.getValues()) {
+                if (code.equals(value.getCode())) {
+                    return value;
+                }
             }
+            return defaultValue;
         }
-        return defaultValue;
+        T value = index.get(code);
+        return value == null ? defaultValue : value;
     }
 
     /**
@@ -101,12 +117,100 @@ public final class Enums {
         if (code == null) {
             return defaultValue;
         }
-        for (T value : checkNotNull(prototype, "prototype").getValues()) {
-            if (code.equalsIgnoreCase(value.getCode())) {
-                return value;
+        Index index = getIndex(prototype);
+        if (index == null) {
+            for (T value : prototype.getValues()) {
+                if (code.equalsIgnoreCase(value.getCode())) {
+                    return value;
+                }
             }
+            return defaultValue;
+        }
+        T value = index.getIgnoreCase(code);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Gets index of codes for {@code enum} of {@code prototype}.
+     *
+     * @param prototype prototype to use
+     * @return index or {@code null} if {@code prototype} is not an {@code enum}
+     */
+    private static Index getIndex(WithCode<?> prototype) {
+        if (!(checkNotNull(prototype, "prototype") instanceof Enum)) {
+            return null;
+        }
+        Class<?> type = ((Enum<?>) prototype).getDeclaringClass();
+        Index index = INDICES.get(type);
+        if (index == null) {
+            index = new Index(prototype.getValues());
+            Index current = INDICES.putIfAbsent(type, index);
+            if (current != null) {
+                index = current;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Folds case of {@code code} char by char the same way {@link String#equalsIgnoreCase(String)} compares chars, so
+     * keys of two codes are equal if and only if the codes are equal ignoring case. {@link String#toLowerCase()} is
+     * not used because it is locale dependent and may change length of a string, e.g. for {@code "\u0130"}.
+     *
+     * @param code code
+     * @return case insensitive key
+     */
+    private static String toKey(String code) {
+        char[] chars = null;
+        for (int i = 0; i < code.length(); ++i) {
+            char c = code.charAt(i);
+            char folded = Character.toLowerCase(Character.toUpperCase(c));
+            if (folded != c) {
+                if (chars == null) {
+                    chars = code.toCharArray();
+                }
+                chars[i] = folded;
+            }
+        }
+        return chars == null ? code : new String(chars);
+    }
+
+    /**
+     * Immutable index of {@code enum}'s codes. If several constants have the same code the first one is indexed.
+     */
+    private static final class Index {
+
+        final Map<String, Object> values;
+        final Map<String, Object> valuesIgnoreCase;
+
+        Index(Object[] constants) {
+            Map<String, Object> values = new HashMap<>();
+            Map<String, Object> valuesIgnoreCase = new HashMap<>();
+            for (Object constant : constants) {
+                String code = ((WithCode<?>) constant).getCode();
+                if (code != null) {
+                    if (!values.containsKey(code)) {
+                        values.put(code, constant);
+                    }
+                    String key = toKey(code);
+                    if (!valuesIgnoreCase.containsKey(key)) {
+                        valuesIgnoreCase.put(key, constant);
+                    }
+                }
+            }
+            this.values = Collections.unmodifiableMap(values);
+            this.valuesIgnoreCase = Collections.unmodifiableMap(valuesIgnoreCase);
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T get(String code) {
+            return (T) values.get(code);
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T getIgnoreCase(String code) {
+            return (T) valuesIgnoreCase.get(toKey(code));
         }
-        return defaultValue;
     }
 
     public interface WithCode<T> {
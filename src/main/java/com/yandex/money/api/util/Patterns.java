@@ -24,6 +24,12 @@
 
 package com.yandex.money.api.util;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
 /**
  * Common patterns.
  *
@@ -58,7 +64,49 @@ public final class Patterns {
      */
     public static final String DECIMAL = "[\\+\\-]?\\d*(\\.(\\d*)?)?";
 
+    /**
+     * Max number of patterns cached by {@link #compile(String)}.
+     */
+    private static final int CACHE_SIZE = 512;
+
+    private static final ConcurrentMap<String, Pattern> CACHE = new ConcurrentHashMap<>();
+
     private Patterns() {
         // prevents instantiating of this class
     }
+
+    /**
+     * Compiles regular expression. Compiled patterns are cached, so the same expression is compiled only once.
+     *
+     * @param regex regular expression
+     * @return compiled pattern
+     * @throws java.util.regex.PatternSyntaxException if expression is invalid
+     */
+    public static Pattern compile(String regex) {
+        Pattern pattern = CACHE.get(checkNotNull(regex, "regex"));
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            if (CACHE.size() >= CACHE_SIZE) {
+                CACHE.clear();
+            }
+            CACHE.put(regex, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * Compiled common patterns.
+     */
+    public static final class Compiled {
+
+        public static final Pattern ACCOUNT = Pattern.compile(Patterns.ACCOUNT);
+        public static final Pattern PHONE = Pattern.compile(Patterns.PHONE);
+        public static final Pattern YANDEX = Pattern.compile(Patterns.YANDEX);
+        public static final Pattern EMAIL = Pattern.compile(Patterns.EMAIL);
+        public static final Pattern DECIMAL = Pattern.compile(Patterns.DECIMAL);
+
+        private Compiled() {
+            // prevents instantiating of this class
+        }
+    }
 }
@@ -26,6 +26,7 @@ package com.yandex.money.api.util;
 
 import com.yandex.money.api.net.BaseApiRequest;
 import com.yandex.money.api.net.HttpClientResponse;
+import com.yandex.money.api.util.logging.Log;
 import org.joda.time.DateTime;
 
 import java.io.IOException;
@@ -52,13 +53,11 @@ public final class Responses {
      */
     public static String processError(HttpClientResponse response) throws IOException {
         String field = response.getHeader(HttpHeaders.WWW_AUTHENTICATE);
-        com.yandex.money.api.util.logging.Log.w("Server has responded with a error: " + getError(response) + "\n" +
-                HttpHeaders.WWW_AUTHENTICATE + ": " + field);
-        com.yandex.money.api.util.logging.Log.w(response.getBody());
+        if (Log.isEnabled(Log.Level.WARN)) {
+            Log.w("Server has responded with a error: HTTP " + response.getCode() + " " + response.getMessage() +
+                    "\n" + HttpHeaders.WWW_AUTHENTICATE + ": " + field);
+            Log.w(response.getBody());
+        }
         return field;
     }
-
-    private static String getError(HttpClientResponse response) {
-        return "HTTP " + response.getCode() + " " + response.getMessage();
-    }
 }
@@ -54,7 +54,14 @@ public final class Strings {
      * @return {@code true} if digits only
      */
     public static boolean containsDigitsOnly(String value) {
-        return checkNotNull(value, "value").matches("\\d*");
+        checkNotNull(value, "value");
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -29,7 +29,7 @@ import java.util.logging.Level;
 /**
  * Default {@link Logger} implementation.
  */
-public final class DefaultLogger implements Logger {
+public final class DefaultLogger implements LevelAwareLogger {
 
     private static final DefaultLogger INSTANCE = new DefaultLogger();
 
@@ -43,6 +43,11 @@ public final class DefaultLogger implements Logger {
         return INSTANCE;
     }
 
+    @Override
+    public boolean isEnabled(String tag, Log.Level level) {
+        return getLogger(tag).isLoggable(toLevel(level));
+    }
+
     @Override
     public void d(String tag, String msg) {
         log(Level.FINE, tag, msg);
@@ -101,6 +106,23 @@ public final class DefaultLogger implements Logger {
         getLogger(tag).log(level, msg, tr);
     }
 
+    private static Level toLevel(Log.Level level) {
+        switch (level) {
+            case VERBOSE:
+                return Level.ALL;
+            case DEBUG:
+                return Level.FINE;
+            case INFO:
+                return Level.INFO;
+            case WARN:
+                return Level.WARNING;
+            case ERROR:
+                return Level.SEVERE;
+            default:
+                throw new IllegalArgumentException("unknown level: " + level);
+        }
+    }
+
     private static java.util.logging.Logger getLogger(String tag) {
         return java.util.logging.Logger.getLogger(tag);
     }
@@ -24,9 +24,16 @@
 
 package com.yandex.money.api.util.logging;
 
+import java.util.Locale;
+
+import static com.yandex.money.api.util.Common.checkNotNull;
+
 /**
  * Log messages for a specific system or application component. By default uses {@link DefaultLogger} implementation as
  * a logger.
+ * <p/>
+ * If a logger implements {@link LevelAwareLogger}, use {@link #isEnabled(String, Level)} or
+ * {@link #log(Level, String, String, Object...)} to avoid building messages that will not be logged.
  */
 public final class Log {
 
@@ -55,6 +62,63 @@ public final class Log {
         return logger == null ? DefaultLogger.getInstance() : logger;
     }
 
+    /**
+     * Checks if messages of {@code level} are logged for default tag.
+     *
+     * @param level level of messages
+     * @return {@code true} if messages are logged
+     */
+    public static boolean isEnabled(Level level) {
+        return isEnabled(TAG, level);
+    }
+
+    /**
+     * Checks if messages of {@code level} are logged for {@code tag}. Always {@code true} if current logger does not
+     * implement {@link LevelAwareLogger}.
+     *
+     * @param tag tag
+     * @param level level of messages
+     * @return {@code true} if messages are logged
+     */
+    public static boolean isEnabled(String tag, Level level) {
+        checkNotNull(level, "level");
+        Logger logger = getLogger();
+        return !(logger instanceof LevelAwareLogger) || ((LevelAwareLogger) logger).isEnabled(tag, level);
+    }
+
+    /**
+     * Send a log message of {@code level}. The message is formatted with {@link String#format(String, Object...)}
+     * only if {@code level} is enabled, so arguments are not converted to strings otherwise.
+     *
+     * @param level level of the message
+     * @param tag tag
+     * @param format format of the message
+     * @param args arguments referenced by {@code format}
+     */
+    public static void log(Level level, String tag, String format, Object... args) {
+        if (!isEnabled(tag, level)) {
+            return;
+        }
+        String msg = String.format(Locale.ENGLISH, format, args);
+        switch (level) {
+            case VERBOSE:
+                v(tag, msg);
+                break;
+            case DEBUG:
+                d(tag, msg);
+                break;
+            case INFO:
+                i(tag, msg);
+                break;
+            case WARN:
+                w(tag, msg);
+                break;
+            case ERROR:
+                e(tag, msg);
+                break;
+        }
+    }
+
     /**
      * Send a debug log message using default tag.
      *
@@ -254,4 +318,15 @@ public final class Log {
     public static void w(String tag, String msg, Throwable tr) {
         getLogger().w(tag, msg, tr);
     }
+
+    /**
+     * Levels of log messages.
+     */
+    public enum Level {
+        VERBOSE,
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR
+    }
 }
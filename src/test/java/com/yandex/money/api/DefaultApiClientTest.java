@@ -0,0 +1,440 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api;
+
+import com.google.gson.JsonObject;
+import com.yandex.money.api.methods.InstanceId;
+import com.yandex.money.api.methods.ShowcaseSearch;
+import com.yandex.money.api.model.showcase.Showcase;
+import com.yandex.money.api.net.BaseApiRequest;
+import com.yandex.money.api.net.HttpClientResponse;
+import com.yandex.money.api.net.HttpResourceResponse;
+import com.yandex.money.api.net.ShareableApiRequest;
+import com.yandex.money.api.net.clients.ApiCallback;
+import com.yandex.money.api.net.clients.ApiClient;
+import com.yandex.money.api.net.clients.CallMetrics;
+import com.yandex.money.api.net.clients.ClientStats;
+import com.yandex.money.api.net.clients.ClientStatsExporter;
+import com.yandex.money.api.net.clients.DefaultApiClient;
+import com.yandex.money.api.net.clients.HistogramMetricsListener;
+import com.yandex.money.api.net.clients.LatencyHistogram;
+import com.yandex.money.api.net.clients.Transport;
+import com.yandex.money.api.net.clients.TransportResponse;
+import com.yandex.money.api.net.clients.UrlConnectionTransport;
+import com.yandex.money.api.net.providers.DefaultApiV1HostsProvider;
+import com.yandex.money.api.net.providers.HostsProvider;
+import com.yandex.money.api.util.HttpHeaders;
+import com.yandex.money.api.util.MimeTypes;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class DefaultApiClientTest {
+
+    private final MockWebServer server = new MockWebServer();
+
+    private final HistogramMetricsListener metricsListener = new HistogramMetricsListener();
+
+    private DefaultApiClient client;
+    private DefaultApiClient measuredClient;
+    private DefaultApiClient urlConnectionClient;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        server.start();
+        final String url = server.url("/api").toString();
+        DefaultApiV1HostsProvider hostsProvider = new DefaultApiV1HostsProvider(false) {
+            @Override
+            public String getMoneyApi() {
+                return url;
+            }
+        };
+        client = new DefaultApiClient.Builder()
+                .setClientId("client_id")
+                .setHostsProvider(hostsProvider)
+                .create();
+        measuredClient = new DefaultApiClient.Builder()
+                .setClientId("client_id")
+                .setHostsProvider(hostsProvider)
+                .setRequestCoalescing(false)
+                .setMetricsListener(metricsListener)
+                .create();
+        urlConnectionClient = new DefaultApiClient.Builder()
+                .setClientId("client_id")
+                .setHostsProvider(hostsProvider)
+                .setTransport(new UrlConnectionTransport.Builder().create())
+                .create();
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testWithAccessToken() throws Exception {
+        ApiClient first = client.withAccessToken("first");
+        ApiClient second = client.withAccessToken("second");
+        Assert.assertTrue(first.isAuthorized());
+        Assert.assertFalse(client.isAuthorized());
+        Assert.assertEquals(first.getClientId(), client.getClientId());
+
+        checkAuthorization(first, "Bearer first");
+        checkAuthorization(second, "Bearer second");
+        checkAuthorization(client, null);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testWithAccessTokenIsImmutable() {
+        client.withAccessToken("token").setAccessToken("other");
+    }
+
+    @Test
+    public void testRequestCoalescing() throws Exception {
+        int requests = server.getRequestCount();
+        enqueueSearchResult(300);
+        List<Future<HttpResourceResponse<ShowcaseSearch>>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(client.executeAsync(new ShowcaseSearch.Request("query", 5)));
+        }
+        HttpResourceResponse<ShowcaseSearch> response = client.execute(new ShowcaseSearch.Request("query", 5));
+        for (Future<HttpResourceResponse<ShowcaseSearch>> future : futures) {
+            Assert.assertSame(future.get(), response);
+        }
+        Assert.assertTrue(server.takeRequest().getPath().startsWith("/api/showcase-search?"));
+        Assert.assertEquals(server.getRequestCount(), requests + 1);
+
+        // completed requests are not shared
+        enqueueSearchResult(0);
+        Assert.assertNotSame(client.execute(new ShowcaseSearch.Request("query", 5)), response);
+        server.takeRequest();
+    }
+
+    @Test
+    public void testRequestCoalescingKeepsRequestTypesApart() throws Exception {
+        int requests = server.getRequestCount();
+        enqueueSearchResult(300);
+        enqueueSearchResult(300);
+        Future<HttpResourceResponse<ShowcaseSearch>> first =
+                client.executeAsync(new ShowcaseSearch.Request("types", 5));
+        Future<HttpResourceResponse<ShowcaseSearch>> second =
+                client.executeAsync(new ShowcaseSearch.Request("types", 5) {});
+        Assert.assertNotSame(first.get(), second.get());
+        Assert.assertEquals(server.getRequestCount(), requests + 2);
+        Assert.assertEquals(server.takeRequest().getPath(), server.takeRequest().getPath());
+    }
+
+    @Test
+    public void testRequestCoalescingCancellation() throws Exception {
+        int requests = server.getRequestCount();
+        enqueueSearchResult(300);
+        Future<HttpResourceResponse<ShowcaseSearch>> first =
+                client.executeAsync(new ShowcaseSearch.Request("cancel", 5));
+        Future<HttpResourceResponse<ShowcaseSearch>> second =
+                client.executeAsync(new ShowcaseSearch.Request("cancel", 5));
+        Assert.assertTrue(first.cancel(true));
+        Assert.assertTrue(first.isCancelled());
+        Assert.assertNotNull(second.get().document);
+        Assert.assertEquals(server.getRequestCount(), requests + 1);
+        server.takeRequest();
+    }
+
+    @Test(timeOut = 10000)
+    public void testRequestCoalescingErrors() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setBody("ok"));
+        }
+        try {
+            client.execute(new BrokenRequest(true));
+            Assert.fail("error expected");
+        } catch (AssertionError e) {
+            Assert.assertEquals(e.getMessage(), "broken");
+        }
+        // failed flight is not shared
+        Assert.assertEquals(client.execute(new BrokenRequest(false)), "ok");
+
+        try {
+            client.executeAsync(new BrokenRequest(true)).get();
+            Assert.fail("error expected");
+        } catch (ExecutionException e) {
+            Assert.assertEquals(e.getCause().getMessage(), "broken");
+        }
+        for (int i = 0; i < 3; i++) {
+            server.takeRequest();
+        }
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        enqueueSearchResult(50);
+        measuredClient.execute(new ShowcaseSearch.Request("metrics", 5));
+        enqueueSearchResult(0);
+        measuredClient.executeAsync(new ShowcaseSearch.Request("metrics", 5)).get();
+        server.enqueue(new MockResponse().setResponseCode(500));
+        try {
+            measuredClient.execute(new ShowcaseSearch.Request("metrics", 5));
+            Assert.fail("exception expected");
+        } catch (IOException e) {
+            // expected
+        }
+        server.takeRequest();
+        server.takeRequest();
+        server.takeRequest();
+
+        String method = "/api/showcase-search";
+        Assert.assertEquals(metricsListener.getMethods().size(), 1);
+        LatencyHistogram.Snapshot snapshot = metricsListener.getSnapshot(method);
+        Assert.assertEquals(snapshot.getCount(), 3);
+        Assert.assertTrue(snapshot.getValueAtPercentile(99) >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertEquals(metricsListener.getSnapshot(method, CallMetrics.Phase.WAIT).getCount(), 3);
+        Assert.assertEquals(metricsListener.getOutcomes(method).get("200"), Long.valueOf(2));
+        Assert.assertEquals(metricsListener.getOutcomes(method).get("500"), Long.valueOf(1));
+        Assert.assertEquals(metricsListener.getSnapshot("/api/unknown").getCount(), 0);
+
+        ClientStats stats = measuredClient.getStats();
+        Assert.assertEquals(stats.getCallCount(), 3);
+        Assert.assertEquals(stats.getIoErrorCount(), 1);
+        Assert.assertEquals(stats.getInFlightCount(method), 0);
+        Assert.assertEquals(stats.getInFlightCount(), 0);
+        Assert.assertTrue(stats.getIdleConnectionCount() <= stats.getConnectionCount());
+        Assert.assertEquals(stats.getRunningCallCount(), 0);
+    }
+
+    @Test
+    public void testMetricsOfParameterizedPaths() throws Exception {
+        HistogramMetricsListener listener = new HistogramMetricsListener();
+        DefaultApiClient client = new DefaultApiClient.Builder()
+                .setClientId("client_id")
+                .setHostsProvider(this.client.getHostsProvider())
+                .setMetricsListener(listener)
+                .create();
+        for (long scid = 5551; scid < 5554; ++scid) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+            try {
+                client.execute(new Showcase.Request(scid));
+                Assert.fail("exception expected");
+            } catch (Exception e) {
+                // expected
+            }
+            Assert.assertEquals(server.takeRequest().getPath(), "/api/showcase/" + scid);
+        }
+
+        Assert.assertEquals(listener.getMethods().size(), 1);
+        Assert.assertEquals(listener.getSnapshot("/api/showcase/*").getCount(), 3);
+        Assert.assertEquals(listener.getSnapshot("/api/showcase/5551").getCount(), 0);
+        Assert.assertEquals(client.getStats().getInFlightCounts().keySet(),
+                Collections.singleton("/api/showcase/*"));
+    }
+
+    @Test
+    public void testStatsExport() throws Exception {
+        ObjectName name = ClientStatsExporter.register(client.getStats(), "test");
+        try {
+            Object count = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CallCount");
+            Assert.assertEquals(count, client.getStats().getCallCount());
+        } finally {
+            ClientStatsExporter.unregister("test");
+        }
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    public void testJsonBodyLength() throws Exception {
+        server.enqueue(new MockResponse()
+                .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody(Resources.load("/methods/instance-id-success.json")));
+        final JsonObject json = new JsonObject();
+        json.addProperty("name", "значение");
+        client.execute(new InstanceId.Request("client_id") {
+            {
+                setBody(json);
+            }
+        });
+        RecordedRequest request = server.takeRequest();
+        Assert.assertNull(request.getHeader("Transfer-Encoding"));
+        Assert.assertEquals(request.getHeader("Content-Length"), String.valueOf(request.getBodySize()));
+        Assert.assertEquals(request.getBody().readUtf8(), "{\"name\":\"значение\"}");
+    }
+
+    @Test
+    public void testExecuteAsyncReportsInvalidRequest() throws Exception {
+        final List<Exception> failures = new ArrayList<>();
+        Future<InstanceId> future = client.executeAsync(new InstanceId.Request("client_id") {
+            @Override
+            protected String requestUrlBase(HostsProvider hostsProvider) {
+                return "invalid url";
+            }
+        }, new ApiCallback<InstanceId>() {
+            @Override
+            public void onSuccess(InstanceId response) {
+                Assert.fail("failure expected");
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                failures.add(exception);
+            }
+        });
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals(failures.size(), 1);
+        try {
+            future.get();
+            Assert.fail("exception expected");
+        } catch (ExecutionException e) {
+            Assert.assertSame(e.getCause(), failures.get(0));
+        }
+    }
+
+    @Test
+    public void testUrlConnectionTransport() throws Exception {
+        server.enqueue(new MockResponse()
+                .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody(Resources.load("/methods/instance-id-success.json")));
+        InstanceId instanceId = urlConnectionClient.withAccessToken("token")
+                .execute(new InstanceId.Request("client_id"));
+        Assert.assertNotNull(instanceId.instanceId);
+        RecordedRequest request = server.takeRequest();
+        Assert.assertEquals(request.getMethod(), "POST");
+        Assert.assertEquals(request.getPath(), "/api/instance-id");
+        Assert.assertEquals(request.getHeader(HttpHeaders.AUTHORIZATION), "Bearer token");
+        Assert.assertEquals(request.getBody().readUtf8(), "client_id=client_id");
+
+        enqueueSearchResult(0);
+        Assert.assertNotNull(urlConnectionClient.executeAsync(new ShowcaseSearch.Request("transport", 5)).get()
+                .document);
+        Assert.assertTrue(server.takeRequest().getPath().startsWith("/api/showcase-search?"));
+
+        server.enqueue(new MockResponse().setResponseCode(500));
+        try {
+            urlConnectionClient.execute(new ShowcaseSearch.Request("transport", 5));
+            Assert.fail("exception expected");
+        } catch (IOException e) {
+            // expected
+        }
+        server.takeRequest();
+
+        ClientStats stats = urlConnectionClient.getStats();
+        Assert.assertEquals(stats.getCallCount(), 3);
+        Assert.assertEquals(stats.getIoErrorCount(), 1);
+        Assert.assertEquals(stats.getConnectionCount(), 0);
+    }
+
+    @Test
+    public void testUrlConnectionCallIsEnqueuedOnce() throws Exception {
+        enqueueSearchResult(300);
+        Transport.Call call = new UrlConnectionTransport.Builder().create()
+                .newCall(new Request.Builder().url(server.url("/api/once")).build());
+        final BlockingQueue<Object> results = new LinkedBlockingQueue<>();
+        call.enqueue(new QueueCallback(results));
+        try {
+            call.enqueue(new QueueCallback(new LinkedBlockingQueue<Object>()));
+            Assert.fail("exception expected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Object result = results.poll(5, TimeUnit.SECONDS);
+        Assert.assertTrue(result instanceof TransportResponse, String.valueOf(result));
+        ((TransportResponse) result).close();
+        server.takeRequest();
+    }
+
+    private static final class QueueCallback implements Transport.Callback {
+
+        private final BlockingQueue<Object> results;
+
+        QueueCallback(BlockingQueue<Object> results) {
+            this.results = results;
+        }
+
+        @Override
+        public void onResponse(TransportResponse response) {
+            results.add(response);
+        }
+
+        @Override
+        public void onFailure(IOException exception) {
+            results.add(exception);
+        }
+    }
+
+    private static final class BrokenRequest extends BaseApiRequest<String> implements ShareableApiRequest<String> {
+
+        private final boolean broken;
+
+        BrokenRequest(boolean broken) {
+            this.broken = broken;
+        }
+
+        @Override
+        public Method getMethod() {
+            return Method.GET;
+        }
+
+        @Override
+        public String parse(HttpClientResponse response) throws Exception {
+            if (broken) {
+                throw new AssertionError("broken");
+            }
+            return response.getBody();
+        }
+
+        @Override
+        protected String requestUrlBase(HostsProvider hostsProvider) {
+            return hostsProvider.getMoneyApi() + "/broken";
+        }
+    }
+
+    private void enqueueSearchResult(long delay) {
+        server.enqueue(new MockResponse()
+                .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody("{\"result\":[]}")
+                .setBodyDelay(delay, TimeUnit.MILLISECONDS));
+    }
+
+    private void checkAuthorization(ApiClient client, String expected) throws Exception {
+        server.enqueue(new MockResponse()
+                .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody(Resources.load("/methods/instance-id-success.json")));
+        client.execute(new InstanceId.Request("client_id"));
+        Assert.assertEquals(server.takeRequest().getHeader(HttpHeaders.AUTHORIZATION), expected);
+    }
+}
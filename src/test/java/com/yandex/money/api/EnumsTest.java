@@ -0,0 +1,161 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api;
+
+import com.yandex.money.api.util.Currency;
+import com.yandex.money.api.util.Enums;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class EnumsTest {
+
+    @Test
+    public void testParse() {
+        assertEquals(Enums.parse(Code.FIRST, "code"), Code.FIRST);
+        assertEquals(Enums.parse(Code.FIRST, "CODE"), Code.UPPER);
+        assertEquals(Enums.parse(Code.FIRST, "other"), Code.OTHER);
+        assertNull(Enums.parse(Code.FIRST, "unknown"));
+        assertNull(Enums.parse(Code.FIRST, null));
+        assertEquals(Enums.parse(Code.FIRST, Code.OTHER, "unknown"), Code.OTHER);
+        assertEquals(Enums.parseOrThrow(Code.FIRST, "other"), Code.OTHER);
+    }
+
+    @Test(expectedExceptions = EnumConstantNotPresentException.class)
+    public void testParseOrThrow() {
+        Enums.parseOrThrow(Code.FIRST, "unknown");
+    }
+
+    @Test
+    public void testParseIgnoreCase() {
+        assertEquals(Enums.parseIgnoreCase(Code.FIRST, null, "Code"), Code.FIRST);
+        assertEquals(Enums.parseIgnoreCase(Code.FIRST, null, "CODE"), Code.FIRST);
+        assertEquals(Enums.parseIgnoreCase(Code.FIRST, null, "OTHER"), Code.OTHER);
+        assertEquals(Enums.parseIgnoreCase(Code.FIRST, Code.OTHER, "unknown"), Code.OTHER);
+        assertNull(Enums.parseIgnoreCase(Code.FIRST, null, null));
+    }
+
+    @Test
+    public void testDuplicateCodesKeepFirst() {
+        assertEquals(Enums.parse(Code.FIRST, "code"), Code.FIRST);
+        assertEquals(Enums.parseIgnoreCase(Code.FIRST, null, "cOdE"), Code.FIRST);
+    }
+
+    @Test
+    public void testParseIgnoreCaseMatchesEqualsIgnoreCase() {
+        // lower case of capital I with dot above is two chars long, but it is equal to 'i' ignoring case
+        assertEquals(Enums.parseIgnoreCase(Code.FIRST, null, "İd"), Code.ID);
+        assertEquals(Enums.parseIgnoreCase(Code.FIRST, null, "iD"), Code.ID);
+        assertEquals(Enums.parseIgnoreCase(Code.FIRST, null, "σigma"), Code.SIGMA);
+        assertEquals(Enums.parseIgnoreCase(Code.FIRST, null, "ΣIGMA"), Code.SIGMA);
+        for (String code : new String[] { "İd", "ßs", "SS", "ǅz" }) {
+            for (Code value : Code.values()) {
+                assertEquals(Enums.parseIgnoreCase(Code.FIRST, null, code) == value,
+                        code.equalsIgnoreCase(value.code) && firstIgnoringCase(value), code + " " + value);
+            }
+        }
+    }
+
+    @Test
+    public void testParseNonEnum() {
+        NonEnum prototype = new NonEnum("a");
+        assertEquals(Enums.parse(prototype, "b"), NonEnum.VALUES[1]);
+        assertNull(Enums.parse(prototype, "B"));
+        assertEquals(Enums.parseIgnoreCase(prototype, null, "B"), NonEnum.VALUES[1]);
+    }
+
+    @Test
+    public void testParseNumericCode() {
+        assertEquals(Currency.parseNumericCode(643), Currency.RUB);
+        assertNull(Currency.parseNumericCode(null));
+        assertNull(Currency.parseNumericCode(-1));
+        assertNull(Currency.parseNumericCode(1000));
+        assertNull(Currency.parseNumericCode(Integer.MAX_VALUE));
+        assertNull(Currency.parseNumericCode(1));
+        for (Currency currency : Currency.values()) {
+            if (currency.numericCode != null) {
+                assertEquals(Currency.parseNumericCode(currency.numericCode).numericCode, currency.numericCode);
+            }
+        }
+    }
+
+    private static boolean firstIgnoringCase(Code value) {
+        for (Code other : Code.values()) {
+            if (other.code.equalsIgnoreCase(value.code)) {
+                return other == value;
+            }
+        }
+        return false;
+    }
+
+    private enum Code implements Enums.WithCode<Code> {
+        FIRST("code"),
+        UPPER("CODE"),
+        DUPLICATE("code"),
+        OTHER("other"),
+        ID("id"),
+        SIGMA("ςIGMA"),
+        SHARP_S("ßs"),
+        DZ("Ǆz");
+
+        final String code;
+
+        Code(String code) {
+            this.code = code;
+        }
+
+        @Override
+        public String getCode() {
+            return code;
+        }
+
+        @Override
+        public Code[] getValues() {
+            return values();
+        }
+    }
+
+    private static final class NonEnum implements Enums.WithCode<NonEnum> {
+
+        static final NonEnum[] VALUES = { new NonEnum("a"), new NonEnum("b") };
+
+        final String code;
+
+        NonEnum(String code) {
+            this.code = code;
+        }
+
+        @Override
+        public String getCode() {
+            return code;
+        }
+
+        @Override
+        public NonEnum[] getValues() {
+            return VALUES;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api;
+
+import com.yandex.money.api.methods.InstanceId;
+import com.yandex.money.api.net.clients.ApiClient;
+import com.yandex.money.api.net.clients.DefaultApiClient;
+import com.yandex.money.api.net.clients.HttpClientConfig;
+import com.yandex.money.api.net.clients.HttpClientFactory;
+import com.yandex.money.api.net.providers.DefaultApiV1HostsProvider;
+import com.yandex.money.api.util.HttpHeaders;
+import com.yandex.money.api.util.MimeTypes;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class HttpClientConfigTest {
+
+    @Test
+    public void testFactory() {
+        HttpClientConfig config = new HttpClientConfig.Builder()
+                .setConnectionPool(16, 5, TimeUnit.MINUTES)
+                .setMaxRequests(128)
+                .setMaxRequestsPerHost(32)
+                .setProtocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .setConnectTimeout(5, TimeUnit.SECONDS)
+                .setReadTimeout(20, TimeUnit.SECONDS)
+                .setWriteTimeout(15, TimeUnit.SECONDS)
+                .setTcpNoDelay(true)
+                .create();
+
+        OkHttpClient client = HttpClientFactory.newOkHttpClient(config, false);
+        Assert.assertEquals(client.dispatcher().getMaxRequests(), 128);
+        Assert.assertEquals(client.dispatcher().getMaxRequestsPerHost(), 32);
+        Assert.assertEquals(client.protocols(), Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        Assert.assertEquals(client.connectTimeoutMillis(), 5000);
+        Assert.assertEquals(client.readTimeoutMillis(), 20000);
+        Assert.assertEquals(client.writeTimeoutMillis(), 15000);
+        Assert.assertFalse(client.followRedirects());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testProtocolsWithoutHttp11() {
+        new HttpClientConfig.Builder().setProtocols(Arrays.asList(Protocol.HTTP_2));
+    }
+
+    @Test
+    public void testCallTimeout() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        try {
+            ApiClient client = createClient(server, new HttpClientConfig.Builder()
+                    .setCallTimeout(300, TimeUnit.MILLISECONDS)
+                    .create());
+
+            server.enqueue(createSlowResponse());
+            try {
+                client.execute(new InstanceId.Request("client_id"));
+                Assert.fail("call timeout expected");
+            } catch (InterruptedIOException e) {
+                // expected
+            }
+
+            server.enqueue(createSlowResponse());
+            try {
+                client.executeAsync(new InstanceId.Request("client_id")).get();
+                Assert.fail("call timeout expected");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof InterruptedIOException, String.valueOf(e.getCause()));
+            }
+
+            server.enqueue(new MockResponse()
+                    .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                    .setBody(Resources.load("/methods/instance-id-success.json")));
+            Assert.assertNotNull(client.execute(new InstanceId.Request("client_id")).instanceId);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static ApiClient createClient(MockWebServer server, HttpClientConfig config) {
+        final String url = server.url("/api").toString();
+        return new DefaultApiClient.Builder()
+                .setClientId("client_id")
+                .setHostsProvider(new DefaultApiV1HostsProvider(false) {
+                    @Override
+                    public String getMoneyApi() {
+                        return url;
+                    }
+                })
+                .setHttpClientConfig(config)
+                .create();
+    }
+
+    private static MockResponse createSlowResponse() {
+        return new MockResponse()
+                .setSocketPolicy(SocketPolicy.NO_RESPONSE);
+    }
+}
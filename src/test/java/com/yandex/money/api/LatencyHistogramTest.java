@@ -0,0 +1,71 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api;
+
+import com.yandex.money.api.net.clients.LatencyHistogram;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10000; ++value) {
+            histogram.record(value * 1000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(snapshot.getCount(), 10000);
+        assertEquals(snapshot.getMax(), 10000000);
+        assertEquals(snapshot.getMean(), 5000500.0, 0.001);
+        checkValue(snapshot.getValueAtPercentile(50), 5000000);
+        checkValue(snapshot.getValueAtPercentile(99), 9900000);
+        assertEquals(snapshot.getValueAtPercentile(100), 10000000);
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(snapshot.getCount(), 10000);
+        assertEquals(histogram.snapshot().getCount(), 10001);
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 0; value < 64; ++value) {
+            histogram.record(value);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(snapshot.getValueAtPercentile(0), 0);
+        assertEquals(snapshot.getValueAtPercentile(50), 31);
+        assertEquals(snapshot.getValueAtPercentile(100), 63);
+        assertEquals(new LatencyHistogram().snapshot().getValueAtPercentile(99), 0);
+    }
+
+    private static void checkValue(long actual, long expected) {
+        assertTrue(actual >= expected && actual <= expected * 33 / 32, actual + " is not close to " + expected);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api;
+
+import com.yandex.money.api.util.logging.LevelAwareLogger;
+import com.yandex.money.api.util.logging.Log;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class LogTest {
+
+    @AfterMethod
+    public void tearDown() {
+        Log.setLogger(null);
+    }
+
+    @Test
+    public void testDisabledLevelIsNotFormatted() {
+        TestLogger logger = new TestLogger();
+        Log.setLogger(logger);
+
+        assertFalse(Log.isEnabled("tag", Log.Level.DEBUG));
+        assertTrue(Log.isEnabled("tag", Log.Level.WARN));
+
+        Log.log(Log.Level.DEBUG, "tag", "value: %s", new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("disabled message is formatted");
+            }
+        });
+        Log.log(Log.Level.WARN, "tag", "value: %s, code: %d", "text", 42);
+
+        assertEquals(logger.messages.size(), 1);
+        assertEquals(logger.messages.get(0), "w/tag: value: text, code: 42");
+    }
+
+    private static final class TestLogger implements LevelAwareLogger {
+
+        final List<String> messages = new ArrayList<>();
+
+        @Override
+        public boolean isEnabled(String tag, Log.Level level) {
+            return level.compareTo(Log.Level.INFO) >= 0;
+        }
+
+        @Override
+        public void d(String tag, String msg) {
+            add("d", tag, msg);
+        }
+
+        @Override
+        public void d(String tag, String msg, Throwable tr) {
+            add("d", tag, msg);
+        }
+
+        @Override
+        public void e(String tag, String msg) {
+            add("e", tag, msg);
+        }
+
+        @Override
+        public void e(String tag, String msg, Throwable tr) {
+            add("e", tag, msg);
+        }
+
+        @Override
+        public void i(String tag, String msg) {
+            add("i", tag, msg);
+        }
+
+        @Override
+        public void i(String tag, String msg, Throwable tr) {
+            add("i", tag, msg);
+        }
+
+        @Override
+        public void v(String tag, String msg) {
+            add("v", tag, msg);
+        }
+
+        @Override
+        public void v(String tag, String msg, Throwable tr) {
+            add("v", tag, msg);
+        }
+
+        @Override
+        public void w(String tag, String msg) {
+            add("w", tag, msg);
+        }
+
+        @Override
+        public void w(String tag, String msg, Throwable tr) {
+            add("w", tag, msg);
+        }
+
+        private void add(String level, String tag, String msg) {
+            messages.add(level + "/" + tag + ": " + msg);
+        }
+    }
+}
@@ -45,6 +45,7 @@ import com.yandex.money.api.typeadapters.methods.IncomingTransferRejectTypeAdapt
 import com.yandex.money.api.typeadapters.methods.InstanceIdTypeAdapter;
 import com.yandex.money.api.typeadapters.methods.OperationDetailsTypeAdapter;
 import com.yandex.money.api.typeadapters.methods.OperationHistoryTypeAdapter;
+import com.yandex.money.api.typeadapters.methods.ProcessPaymentTypeAdapter;
 import com.yandex.money.api.typeadapters.methods.RequestExternalPaymentTypeAdapter;
 import com.yandex.money.api.typeadapters.methods.RequestPaymentTypeAdapter;
 import com.yandex.money.api.typeadapters.model.BalanceDetailsTypeAdapter;
@@ -141,6 +142,13 @@ public class ModelTests {
         checkTypeAdapter("/methods/operation-history-4.json", adapter);
     }
 
+    @Test
+    public void testProcessPayment() {
+        ProcessPaymentTypeAdapter adapter = ProcessPaymentTypeAdapter.getInstance();
+        checkTypeAdapter("/methods/process-payment-1.json", adapter);
+        checkTypeAdapter("/methods/process-payment-2.json", adapter);
+    }
+
     @Test
     public void testRequestExternalPayment() {
         RequestExternalPaymentTypeAdapter adapter = RequestExternalPaymentTypeAdapter.getInstance();
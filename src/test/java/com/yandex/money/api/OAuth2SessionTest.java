@@ -49,6 +49,7 @@ import org.testng.annotations.Test;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
+import java.util.concurrent.ExecutionException;
 
 /**
  * @author Slava Yasevich (vyasevich@yamoney.ru)
@@ -101,6 +102,22 @@ public class OAuth2SessionTest {
         executeTest(createResponse().setResponseCode(HttpURLConnection.HTTP_FORBIDDEN), createRequest(true));
     }
 
+    @Test
+    public void testAsync() throws Exception {
+        server.enqueue(createResponse());
+        checkResponse(client.executeAsync(createRequest(true)).get());
+    }
+
+    @Test(expectedExceptions = InvalidTokenException.class)
+    public void testAsyncUnauthorized() throws Throwable {
+        server.enqueue(createResponse().setResponseCode(HttpURLConnection.HTTP_UNAUTHORIZED));
+        try {
+            client.executeAsync(createRequest(true)).get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
     private static MockResponse createResponse() {
         return createResponseBase()
                 .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON);
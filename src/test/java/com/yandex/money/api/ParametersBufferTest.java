@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api;
+
+import com.yandex.money.api.net.ParametersBuffer;
+import okio.Buffer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class ParametersBufferTest {
+
+    private static final String[] VALUES = {
+            "simple", "with space", "a+b=c&d", "~!@#$%^&*()_-.,;:'\"/\\?<>[]{}|`", "кириллица", "日本語",
+            "emoji 😀", "lone \uD83D surrogate", "lone \uDE00 low", "\uD83D", "\u007F\u0080߿ࠀ￿"
+    };
+
+    @Test
+    public void testEncodeUtf8() throws Exception {
+        for (String value : VALUES) {
+            Assert.assertEquals(new String(ParametersBuffer.encodeUtf8(value), "UTF-8"),
+                    URLEncoder.encode(value, "UTF-8"), value);
+        }
+    }
+
+    @Test
+    public void testPrepare() throws Exception {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("key1", "value 1");
+        params.put("", "ignored");
+        params.put("ignored", "");
+        params.put("ignored too", null);
+        params.put("ключ", "значение");
+
+        ParametersBuffer buffer = new ParametersBuffer().setParameters(params);
+        String expected = "key1=value+1&" + URLEncoder.encode("ключ", "UTF-8") + "=" +
+                URLEncoder.encode("значение", "UTF-8");
+        Assert.assertEquals(new String(buffer.prepareBytes(), Charset.forName("UTF-8")), expected);
+        Assert.assertEquals(buffer.prepareGet(), "?" + expected);
+        Assert.assertEquals(buffer.encodedLength(), expected.length());
+
+        Buffer sink = new Buffer();
+        buffer.writeTo(sink);
+        Assert.assertEquals(sink.readUtf8(), expected);
+    }
+
+    @Test
+    public void testEmpty() {
+        ParametersBuffer buffer = new ParametersBuffer();
+        Assert.assertEquals(buffer.prepareBytes().length, 0);
+        Assert.assertEquals(buffer.prepareGet(), "");
+    }
+}
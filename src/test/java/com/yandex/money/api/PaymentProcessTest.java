@@ -38,6 +38,7 @@ import com.yandex.money.api.processes.BasePaymentProcess;
 import com.yandex.money.api.processes.ExtendedPaymentProcess;
 import com.yandex.money.api.processes.ExternalPaymentProcess;
 import com.yandex.money.api.processes.PaymentProcess;
+import com.yandex.money.api.processes.PaymentProcessRunner;
 import com.yandex.money.api.util.HttpHeaders;
 import com.yandex.money.api.util.MimeTypes;
 import okhttp3.mockwebserver.MockResponse;
@@ -51,6 +52,9 @@ import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Slava Yasevich (vyasevich@yamoney.ru)
@@ -88,6 +92,37 @@ public class PaymentProcessTest {
         checkAsyncPaymentProcess(new PaymentProcess(client, parameterProvider));
     }
 
+    @Test
+    public void testScheduledPaymentProcess() throws Exception {
+        enqueuePaymentProcess();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            PaymentProcessRunner runner = new PaymentProcessRunner(scheduler, 1, TimeUnit.MINUTES);
+            PaymentProcess process = new PaymentProcess(client, parameterProvider);
+            Assert.assertFalse(runner.proceed(process, null).get());
+            Assert.assertTrue(runner.proceed(process, null).get());
+            Assert.assertEquals(process.getProcessPayment().status, BaseProcessPayment.Status.SUCCESS);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testScheduledPaymentProcessMaxWait() throws Exception {
+        enqueueResponse("{\"status\":\"success\",\"request_id\":\"1234\",\"contract_amount\":1,\"balance\":1}");
+        enqueueResponse("{\"status\":\"in_progress\",\"next_retry\":60000}");
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            PaymentProcessRunner runner = new PaymentProcessRunner(scheduler, 1, TimeUnit.SECONDS);
+            PaymentProcess process = new PaymentProcess(client, parameterProvider);
+            Assert.assertFalse(runner.proceed(process, null).get());
+            Assert.assertFalse(runner.proceed(process, null).get(10, TimeUnit.SECONDS));
+            Assert.assertEquals(process.getProcessPayment().status, BaseProcessPayment.Status.IN_PROGRESS);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
     @Test
     public void testExternalPaymentProcess() throws Exception {
         enqueueExternalPaymentProcess();
@@ -0,0 +1,272 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import com.yandex.money.api.util.logging.LevelAwareLogger;
+import com.yandex.money.api.util.logging.Log;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class ResponseLoggingInputStreamTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int HALF = ResponseLoggingInputStream.DEFAULT_LIMIT / 2;
+
+    private final TestLogger logger = new TestLogger();
+
+    @BeforeClass
+    public void setUp() {
+        Log.setLogger(logger);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        Log.setLogger(null);
+    }
+
+    @Test
+    public void testSmallResponse() throws Exception {
+        checkBulkRead(100);
+        checkBulkRead(HALF - 1);
+        checkBulkRead(HALF);
+    }
+
+    @Test
+    public void testResponseBetweenHalfAndLimit() throws Exception {
+        checkBulkRead(HALF + 1);
+        checkBulkRead(HALF + 3000);
+        checkBulkRead(ResponseLoggingInputStream.DEFAULT_LIMIT);
+    }
+
+    @Test
+    public void testLargeResponse() throws Exception {
+        checkBulkRead(ResponseLoggingInputStream.DEFAULT_LIMIT + 1);
+        String logged = checkBulkRead(3 * 1024 * 1024 + 17);
+        assertEquals(logged.length(), ResponseLoggingInputStream.DEFAULT_LIMIT + "\n... ".length() +
+                String.valueOf(3 * 1024 * 1024 + 17 - ResponseLoggingInputStream.DEFAULT_LIMIT).length() +
+                " bytes skipped ...\n".length());
+    }
+
+    @Test
+    public void testMixedReads() throws Exception {
+        for (int size : new int[] { HALF - 5, HALF + 5, ResponseLoggingInputStream.DEFAULT_LIMIT + 5, 200000 }) {
+            byte[] data = newResponse(size);
+            ResponseLoggingInputStream stream = new ResponseLoggingInputStream(new ByteArrayInputStream(data));
+            ByteArrayOutputStream read = new ByteArrayOutputStream();
+            byte[] chunk = new byte[5000];
+            int chunkSize = 1;
+            while (true) {
+                int b = stream.read();
+                if (b == -1) {
+                    break;
+                }
+                read.write(b);
+                int count = stream.read(chunk, 3, chunkSize);
+                if (count == -1) {
+                    break;
+                }
+                read.write(chunk, 3, count);
+                chunkSize = chunkSize * 3 % 4993 + 1;
+            }
+            stream.close();
+            assertEquals(read.toByteArray(), data);
+            assertEquals(logger.take(), expected(data));
+        }
+    }
+
+    @Test
+    public void testDoubleCloseLogsOnce() throws Exception {
+        InputStream stream = new ResponseLoggingInputStream(new ByteArrayInputStream(newResponse(10)));
+        readFully(stream);
+        stream.close();
+        stream.close();
+        assertNotNull(logger.take());
+        assertNull(logger.messages.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testRejectedLogReleasesBuffer() throws Exception {
+        logger.gate = new CountDownLatch(1);
+        try {
+            closeResponse();
+            assertTrue(logger.entered.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < ResponseLoggingInputStream.MAX_PENDING_LOGS; ++i) {
+                closeResponse();
+            }
+
+            int pooled = ResponseLoggingInputStream.getPooledBufferCount();
+            closeResponse();
+            assertEquals(ResponseLoggingInputStream.getPooledBufferCount(), pooled + 1);
+        } finally {
+            logger.gate.countDown();
+        }
+        for (int i = 0; i <= ResponseLoggingInputStream.MAX_PENDING_LOGS; ++i) {
+            logger.take();
+        }
+        logger.gate = null;
+    }
+
+    @Test
+    public void testFormat() {
+        byte[] buffer = "0123abcd".getBytes(UTF8);
+        assertEquals(ResponseLoggingInputStream.format(buffer, 3, 4), "012");
+        assertEquals(ResponseLoggingInputStream.format(buffer, 6, 4), "0123ab");
+        // the tail ring holds bytes 8 and 9 ("cd") in place of skipped bytes 4 and 5, then bytes 6 and 7 ("ab")
+        buffer = "0123cdab".getBytes(UTF8);
+        assertEquals(ResponseLoggingInputStream.format(buffer, 10, 4), "0123\n... 2 bytes skipped ...\nabcd");
+    }
+
+    private static void closeResponse() throws IOException {
+        InputStream stream = new ResponseLoggingInputStream(new ByteArrayInputStream(newResponse(10)));
+        readFully(stream);
+        stream.close();
+    }
+
+    private String checkBulkRead(int size) throws Exception {
+        byte[] data = newResponse(size);
+        InputStream stream = new ResponseLoggingInputStream(new ByteArrayInputStream(data));
+        assertEquals(readFully(stream), data);
+        stream.close();
+        String logged = logger.take();
+        assertEquals(logged, expected(data));
+        return logged;
+    }
+
+    private static byte[] readFully(InputStream stream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int count;
+        while ((count = stream.read(buffer)) != -1) {
+            output.write(buffer, 0, count);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] newResponse(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            data[i] = (byte) ('a' + i % 23);
+        }
+        return data;
+    }
+
+    private static String expected(byte[] data) {
+        if (data.length <= HALF) {
+            return new String(data, UTF8);
+        }
+        int tailLength = Math.min(data.length - HALF, HALF);
+        int skipped = data.length - HALF - tailLength;
+        return new String(data, 0, HALF, UTF8) +
+                (skipped > 0 ? "\n... " + skipped + " bytes skipped ...\n" : "") +
+                new String(data, data.length - tailLength, tailLength, UTF8);
+    }
+
+    private static final class TestLogger implements LevelAwareLogger {
+
+        final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+
+        // if set, logging waits for it
+        volatile CountDownLatch gate;
+
+        String take() throws InterruptedException {
+            String message = messages.poll(5, TimeUnit.SECONDS);
+            assertNotNull(message, "response is not logged");
+            return message;
+        }
+
+        @Override
+        public boolean isEnabled(String tag, Log.Level level) {
+            return true;
+        }
+
+        @Override
+        public void d(String tag, String msg) {
+        }
+
+        @Override
+        public void d(String tag, String msg, Throwable tr) {
+        }
+
+        @Override
+        public void e(String tag, String msg) {
+        }
+
+        @Override
+        public void e(String tag, String msg, Throwable tr) {
+        }
+
+        @Override
+        public void i(String tag, String msg) {
+            CountDownLatch gate = this.gate;
+            if (gate != null) {
+                entered.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add(msg);
+        }
+
+        @Override
+        public void i(String tag, String msg, Throwable tr) {
+            messages.add(msg);
+        }
+
+        @Override
+        public void v(String tag, String msg) {
+        }
+
+        @Override
+        public void v(String tag, String msg, Throwable tr) {
+        }
+
+        @Override
+        public void w(String tag, String msg) {
+        }
+
+        @Override
+        public void w(String tag, String msg, Throwable tr) {
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net.clients;
+
+import org.testng.annotations.Test;
+
+import java.nio.charset.Charset;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class WireCaptureTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    @Test
+    public void testRedactHeadersAndForms() {
+        assertEquals(WireCapture.redact("Authorization: Bearer 0123456789[\\r][\\n]\nAccept: */*"),
+                "Authorization: <redacted>[\\r][\\n]\nAccept: */*");
+        assertEquals(WireCapture.redact("client_id=id&access_token=0123&password=secret amount=10"),
+                "client_id=id&access_token=<redacted>&password=<redacted> amount=10");
+        assertEquals(WireCapture.redact("pattern_id=p2p"), "pattern_id=p2p");
+    }
+
+    @Test
+    public void testRedactJson() {
+        assertEquals(WireCapture.redact("{\"access_token\":\"4100.0123\",\"token_type\":\"bearer\"}"),
+                "{\"access_token\":\"<redacted>\",\"token_type\":\"bearer\"}");
+        assertEquals(WireCapture.redact("{\"client_secret\" : \"secret\", \"csc\": \"123\"}"),
+                "{\"client_secret\" : \"<redacted>\", \"csc\": \"<redacted>\"}");
+    }
+
+    @Test
+    public void testFormat() {
+        byte[] data = "POST /oauth/token\r\n\u0001access_token=0123".getBytes(UTF8);
+        assertEquals(WireCapture.format(7, true, data.length, data, data.length),
+                "WRITE: connection 7 length 37\nPOST /oauth/token[\\r][\\n]\n 01access_token=<redacted>");
+        assertEquals(WireCapture.format(7, false, 100, data, 4), "READ: connection 7 length 100 captured 4\nPOST");
+    }
+
+    @Test
+    public void testRecordWrapsAroundBuffer() {
+        WireCapture capture = newCapture();
+        capture.write(1, bytes('a', 16), 0, 16);
+        capture.write(2, bytes('b', 16), 0, 16);
+        assertEquals(capture.poll(), "WRITE: connection 1 length 16\n" + new String(bytes('a', 16), UTF8));
+
+        // the record starts at 58 and wraps around the end of 64 bytes buffer
+        capture.read(3, bytes('c', 16), 0, 16);
+        assertEquals(capture.poll(), "WRITE: connection 2 length 16\n" + new String(bytes('b', 16), UTF8));
+        capture.read(4, 'd');
+        assertEquals(capture.poll(), "READ: connection 3 length 16\n" + new String(bytes('c', 16), UTF8));
+        assertEquals(capture.poll(), "READ: connection 4 length 1\nd");
+        assertNull(capture.poll());
+        assertEquals(capture.getDroppedCount(), 0);
+    }
+
+    @Test
+    public void testDropsRecordsWhenFull() {
+        WireCapture capture = newCapture();
+        capture.write(1, bytes('a', 16), 0, 16);
+        capture.write(1, bytes('b', 16), 0, 16);
+        capture.write(1, bytes('c', 16), 0, 16);
+        capture.write(1, 'd');
+        assertEquals(capture.getDroppedCount(), 2);
+
+        // records above max size are truncated, not dropped
+        assertEquals(capture.poll(), "WRITE: connection 1 length 16\n" + new String(bytes('a', 16), UTF8));
+        assertEquals(capture.poll(), "WRITE: connection 1 length 16\n" + new String(bytes('b', 16), UTF8));
+        capture.write(1, bytes('e', 32), 0, 32);
+        assertEquals(capture.poll(), "WRITE: connection 1 length 32 captured 16\n" + new String(bytes('e', 16), UTF8));
+        assertNull(capture.poll());
+        assertEquals(capture.getDroppedCount(), 2);
+    }
+
+    private static WireCapture newCapture() {
+        WireCapture capture = new WireCapture.Builder()
+                .setBufferSize(64)
+                .setMaxRecordSize(16)
+                .create();
+        // stop the background thread to take records in the test
+        capture.close();
+        return capture;
+    }
+
+    private static byte[] bytes(char c, int count) {
+        byte[] bytes = new byte[count];
+        for (int i = 0; i < count; ++i) {
+            bytes[i] = (byte) c;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.processes;
+
+import com.yandex.money.api.methods.BaseProcessPayment;
+import com.yandex.money.api.methods.BaseRequestPayment;
+import com.yandex.money.api.methods.ProcessPayment;
+import com.yandex.money.api.methods.RequestPayment;
+import com.yandex.money.api.methods.params.P2pTransferParams;
+import com.yandex.money.api.methods.params.PaymentParams;
+import com.yandex.money.api.model.Error;
+import com.yandex.money.api.model.MoneySource;
+import com.yandex.money.api.model.Wallet;
+import com.yandex.money.api.net.clients.ApiClient;
+import com.yandex.money.api.net.clients.DefaultApiClient;
+import com.yandex.money.api.net.providers.DefaultApiV1HostsProvider;
+import com.yandex.money.api.util.HttpHeaders;
+import com.yandex.money.api.util.MimeTypes;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class BulkPaymentEngineTest extends Assert {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final ConcurrentMap<String, Boolean> pending = new ConcurrentHashMap<>();
+
+    private MockWebServer server;
+    private ApiClient client;
+    private ScheduledExecutorService scheduler;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        inFlight.set(0);
+        maxInFlight.set(0);
+        pending.clear();
+        server = new MockWebServer();
+        server.setDispatcher(new PaymentDispatcher());
+        server.start();
+        final String url = server.url("/api").toString();
+        client = new DefaultApiClient.Builder()
+                .setClientId("client_id")
+                .setHostsProvider(new DefaultApiV1HostsProvider(false) {
+                    @Override
+                    public String getMoneyApi() {
+                        return url;
+                    }
+                })
+                .create();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        scheduler.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void testOutcomes() throws Exception {
+        List<PaymentParams> payments = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            payments.add(payment(i % 10 == 0 ? "refused" + i : i % 3 == 0 ? "slow" + i : "ok" + i));
+        }
+
+        BulkPaymentEngine engine = new BulkPaymentEngine.Builder()
+                .setClient(client)
+                .setScheduler(scheduler)
+                .setMaxConcurrency(4)
+                .create();
+        Listener listener = new Listener();
+        BulkPaymentEngine.Report report = engine.run(payments.iterator(), listener);
+
+        assertEquals(report.count, 30);
+        assertEquals(report.getCount(BulkPaymentEngine.Status.REFUSED), 3);
+        assertEquals(report.getCount(BulkPaymentEngine.Status.SUCCESS), 27);
+        assertEquals(report.getCount(BulkPaymentEngine.Status.FAILED), 0);
+        assertTrue(report.minLatency <= report.getMeanLatency());
+        assertTrue(report.getMeanLatency() <= report.maxLatency);
+        assertTrue(maxInFlight.get() <= 4, "max in flight: " + maxInFlight.get());
+
+        assertEquals(listener.outcomes.size(), 30);
+        Set<PaymentParams> finished = new HashSet<>();
+        for (BulkPaymentEngine.Outcome outcome : listener.outcomes) {
+            finished.add(outcome.params);
+            String to = outcome.params.paymentParams.get("to");
+            if (to.startsWith("refused")) {
+                assertEquals(outcome.status, BulkPaymentEngine.Status.REFUSED);
+                assertNull(outcome.processPayment);
+            } else {
+                assertEquals(outcome.status, BulkPaymentEngine.Status.SUCCESS);
+                assertEquals(outcome.processPayment.status, BaseProcessPayment.Status.SUCCESS);
+            }
+        }
+        assertEquals(finished, new HashSet<>(payments));
+        // request payment for all, process payment for not refused, extra retry for slow ones
+        assertEquals(listener.checkpoints.get(), 30 + 27 + 9);
+    }
+
+    @Test
+    public void testMaxWait() throws Exception {
+        BulkPaymentEngine engine = new BulkPaymentEngine.Builder()
+                .setClient(client)
+                .setScheduler(scheduler)
+                .setMaxWait(0, TimeUnit.MILLISECONDS)
+                .create();
+        Listener listener = new Listener();
+        List<PaymentParams> payments = new ArrayList<>();
+        payments.add(payment("slow"));
+        BulkPaymentEngine.Report report = engine.run(payments.iterator(), listener);
+
+        assertEquals(report.getCount(BulkPaymentEngine.Status.IN_PROGRESS), 1);
+        BulkPaymentEngine.Outcome outcome = listener.outcomes.get(0);
+        assertEquals(outcome.processPayment.status, BaseProcessPayment.Status.IN_PROGRESS);
+    }
+
+    @Test
+    public void testRateLimit() throws Exception {
+        BulkPaymentEngine engine = new BulkPaymentEngine.Builder()
+                .setClient(client)
+                .setScheduler(scheduler)
+                .setMaxConcurrency(10)
+                .setMaxRequestsPerSecond(100)
+                .create();
+        List<PaymentParams> payments = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            payments.add(payment("ok" + i));
+        }
+        long started = System.nanoTime();
+        BulkPaymentEngine.Report report = engine.run(payments.iterator(), new Listener());
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertEquals(report.getCount(BulkPaymentEngine.Status.SUCCESS), 10);
+        // 20 requests with 10 ms interval
+        assertTrue(elapsed >= 190, "elapsed: " + elapsed);
+    }
+
+    @Test
+    public void testRateLimiterReservesDelayedRequests() {
+        long interval = TimeUnit.SECONDS.toNanos(1);
+        BulkPaymentEngine.RateLimiter limiter = new BulkPaymentEngine.RateLimiter(interval);
+
+        long retry = System.nanoTime() + 10 * interval;
+        assertTrue(limiter.reserve(retry) >= 9 * interval);
+        // gap before a delayed request is used
+        assertTrue(limiter.reserve(System.nanoTime()) <= interval);
+        // the same time is never reserved twice
+        long delay = limiter.reserve(retry);
+        assertTrue(System.nanoTime() + delay - retry >= interval);
+        assertTrue(System.nanoTime() + delay - retry < 2 * interval);
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        server.shutdown();
+        BulkPaymentEngine engine = new BulkPaymentEngine.Builder()
+                .setClient(client)
+                .setScheduler(scheduler)
+                .create();
+        Listener listener = new Listener();
+        List<PaymentParams> payments = new ArrayList<>();
+        payments.add(payment("ok"));
+        BulkPaymentEngine.Report report = engine.run(payments.iterator(), listener);
+
+        assertEquals(report.getCount(BulkPaymentEngine.Status.FAILED), 1);
+        assertNotNull(listener.outcomes.get(0).exception);
+        assertEquals(listener.checkpoints.get(), 0);
+    }
+
+    @Test
+    public void testCompletedProcessStatuses() throws Exception {
+        BulkPaymentEngine engine = new BulkPaymentEngine.Builder()
+                .setClient(client)
+                .setScheduler(scheduler)
+                .setProcessFactory(new CompletedProcessFactory())
+                .create();
+        Listener listener = new Listener();
+        List<PaymentParams> payments = new ArrayList<>();
+        for (BaseProcessPayment.Status status : BaseProcessPayment.Status.values()) {
+            payments.add(payment(status.name()));
+        }
+        BulkPaymentEngine.Report report = engine.run(payments.iterator(), listener);
+
+        assertEquals(report.count, 4);
+        assertEquals(report.getCount(BulkPaymentEngine.Status.SUCCESS), 1);
+        assertEquals(report.getCount(BulkPaymentEngine.Status.REFUSED), 1);
+        assertEquals(report.getCount(BulkPaymentEngine.Status.EXT_AUTH_REQUIRED), 1);
+        assertEquals(report.getCount(BulkPaymentEngine.Status.IN_PROGRESS), 1);
+        for (BulkPaymentEngine.Outcome outcome : listener.outcomes) {
+            assertEquals(outcome.status.name(), outcome.processPayment.status.name());
+            assertNull(outcome.exception);
+        }
+    }
+
+    private static PaymentParams payment(String to) {
+        return new P2pTransferParams.Builder(to)
+                .setAmount(BigDecimal.ONE)
+                .create();
+    }
+
+    private static final class Listener implements BulkPaymentEngine.Listener {
+
+        final List<BulkPaymentEngine.Outcome> outcomes = new ArrayList<>();
+        final AtomicInteger checkpoints = new AtomicInteger();
+
+        @Override
+        public void onCheckpoint(PaymentParams params, BasePaymentProcess.SavedState<?, ?> savedState) {
+            assertNotNull(savedState.getRequestPayment());
+            checkpoints.incrementAndGet();
+        }
+
+        @Override
+        public synchronized void onOutcome(BulkPaymentEngine.Outcome outcome) {
+            outcomes.add(outcome);
+        }
+    }
+
+    /**
+     * Creates processes which are already completed with process payment status taken from recipient.
+     */
+    private static final class CompletedProcessFactory implements BulkPaymentEngine.ProcessFactory {
+        @Override
+        public BasePaymentProcess<?, ?> create(ApiClient client, final PaymentParams params) {
+            String to = params.paymentParams.get("to");
+            RequestPayment requestPayment = (RequestPayment) new RequestPayment.Builder()
+                    .setBalance(BigDecimal.ONE)
+                    .setRequestId(to)
+                    .setContractAmount(BigDecimal.ONE)
+                    .setStatus(BaseRequestPayment.Status.SUCCESS)
+                    .create();
+            ProcessPayment processPayment = (ProcessPayment) new ProcessPayment.Builder()
+                    .setPaymentId("1")
+                    .setBalance(BigDecimal.ONE)
+                    .setStatus(BaseProcessPayment.Status.valueOf(to))
+                    .setError(Error.NOT_ENOUGH_FUNDS)
+                    .setAcsUri("https://localhost/")
+                    .create();
+            PaymentProcess process = new PaymentProcess(client, new IPaymentProcess.ParameterProvider() {
+                @Override
+                public String getPatternId() {
+                    return params.patternId;
+                }
+
+                @Override
+                public Map<String, String> getPaymentParameters() {
+                    return params.paymentParams;
+                }
+
+                @Override
+                public MoneySource getMoneySource() {
+                    return Wallet.INSTANCE;
+                }
+
+                @Override
+                public String getCsc() {
+                    return null;
+                }
+
+                @Override
+                public String getExtAuthSuccessUri() {
+                    return null;
+                }
+
+                @Override
+                public String getExtAuthFailUri() {
+                    return null;
+                }
+            });
+            process.restoreSavedState(new PaymentProcess.SavedState(requestPayment, processPayment,
+                    BasePaymentProcess.State.COMPLETED));
+            return process;
+        }
+    }
+
+    private final class PaymentDispatcher extends Dispatcher {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            int current = inFlight.incrementAndGet();
+            try {
+                int max;
+                while ((max = maxInFlight.get()) < current && !maxInFlight.compareAndSet(max, current)) {
+                }
+                Thread.sleep(2);
+                HttpUrl form = HttpUrl.parse("http://localhost/?" + request.getBody().readUtf8());
+                if (request.getPath().endsWith("/request-payment")) {
+                    String to = form.queryParameter("to");
+                    if (to.startsWith("refused")) {
+                        return response("{\"status\":\"refused\",\"error\":\"payee_not_found\"}");
+                    }
+                    return response("{\"status\":\"success\",\"request_id\":\"" + to +
+                            "\",\"contract_amount\":1,\"balance\":1}");
+                }
+                String requestId = form.queryParameter("request_id");
+                if (requestId.startsWith("slow") && pending.putIfAbsent(requestId, true) == null) {
+                    return response("{\"status\":\"in_progress\",\"next_retry\":10}");
+                }
+                return response("{\"status\":\"success\",\"payment_id\":\"" + requestId + "\",\"balance\":1}");
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        private MockResponse response(String body) {
+            return new MockResponse()
+                    .setHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                    .setBody(body);
+        }
+    }
+}
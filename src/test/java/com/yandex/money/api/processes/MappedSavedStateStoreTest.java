@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.processes;
+
+import com.yandex.money.api.Resources;
+import com.yandex.money.api.methods.ProcessExternalPayment;
+import com.yandex.money.api.methods.ProcessPayment;
+import com.yandex.money.api.methods.RequestExternalPayment;
+import com.yandex.money.api.methods.RequestPayment;
+import com.yandex.money.api.typeadapters.methods.ProcessExternalPaymentTypeAdapter;
+import com.yandex.money.api.typeadapters.methods.ProcessPaymentTypeAdapter;
+import com.yandex.money.api.typeadapters.methods.RequestExternalPaymentTypeAdapter;
+import com.yandex.money.api.typeadapters.methods.RequestPaymentTypeAdapter;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+public final class MappedSavedStateStoreTest extends Assert {
+
+    private RequestPayment requestPayment;
+    private ProcessPayment processPayment;
+    private File file;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        requestPayment = RequestPaymentTypeAdapter.getInstance()
+                .fromJson(Resources.load("/methods/request-payment-1.json"));
+        processPayment = ProcessPaymentTypeAdapter.getInstance()
+                .fromJson(Resources.load("/methods/process-payment-1.json"));
+        file = File.createTempFile("saved-states", ".journal");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        assertTrue(file.delete());
+    }
+
+    @Test
+    public void testRecovery() throws IOException {
+        MappedSavedStateStore<PaymentProcess.SavedState> store = open();
+        store.put("1", started());
+        store.put("2", started());
+        store.put("3", started());
+        store.remove("2");
+        store.put("1", completed());
+        store.close();
+
+        store = open();
+        Map<String, PaymentProcess.SavedState> states = store.getAll();
+        assertEquals(new ArrayList<>(states.keySet()), Arrays.asList("1", "3"));
+        assertState(states.get("1"), completed());
+        assertState(states.get("3"), started());
+        store.close();
+    }
+
+    @Test
+    public void testTornRecord() throws IOException {
+        MappedSavedStateStore<PaymentProcess.SavedState> store = open();
+        store.put("1", started());
+        store.close();
+        byte[] before = Files.readAllBytes(file.toPath());
+
+        store = open();
+        store.put("2", completed());
+        store.close();
+        byte[] after = Files.readAllBytes(file.toPath());
+
+        int offset = 0;
+        while (before[offset] == after[offset]) {
+            offset++;
+        }
+        RandomAccessFile journal = new RandomAccessFile(file, "rw");
+        try {
+            // damage payload of the last record
+            journal.seek(offset + 20);
+            journal.write(~after[offset + 20]);
+        } finally {
+            journal.close();
+        }
+
+        store = open();
+        assertEquals(new ArrayList<>(store.getAll().keySet()), Arrays.asList("1"));
+        store.put("3", completed());
+        store.close();
+
+        store = open();
+        Map<String, PaymentProcess.SavedState> states = store.getAll();
+        assertEquals(new ArrayList<>(states.keySet()), Arrays.asList("1", "3"));
+        assertState(states.get("3"), completed());
+        store.close();
+    }
+
+    @Test
+    public void testGrowth() throws IOException {
+        MappedSavedStateStore<PaymentProcess.SavedState> store = open(256);
+        for (int i = 0; i < 200; i++) {
+            store.put(String.valueOf(i), started());
+        }
+        store.close();
+
+        store = open(256);
+        Map<String, PaymentProcess.SavedState> states = store.getAll();
+        assertEquals(states.size(), 200);
+        for (int i = 0; i < 200; i++) {
+            assertState(states.get(String.valueOf(i)), started());
+        }
+        store.close();
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        MappedSavedStateStore<PaymentProcess.SavedState> store = open(4096);
+        for (int i = 0; i < 1000; i++) {
+            store.put("1", i % 2 == 0 ? started() : completed());
+            store.put(String.valueOf(i + 1), started());
+            store.remove(String.valueOf(i + 1));
+        }
+        store.close();
+        assertTrue(file.length() <= 8192, "journal size: " + file.length());
+
+        store = open(4096);
+        Map<String, PaymentProcess.SavedState> states = store.getAll();
+        assertEquals(states.size(), 1);
+        assertState(states.get("1"), completed());
+        store.close();
+    }
+
+    @Test
+    public void testExtendedPaymentCodec() throws IOException {
+        RequestExternalPayment requestExternalPayment = RequestExternalPaymentTypeAdapter.getInstance()
+                .fromJson(Resources.load("/methods/request-external-payment-1.json"));
+        ProcessExternalPayment processExternalPayment = ProcessExternalPaymentTypeAdapter.getInstance()
+                .fromJson("{\"status\":\"in_progress\",\"next_retry\":5000}");
+        ExtendedPaymentProcess.SavedState savedState = new ExtendedPaymentProcess.SavedState(started(),
+                new ExternalPaymentProcess.SavedState(requestExternalPayment, processExternalPayment, 2), 11);
+
+        MappedSavedStateStore<ExtendedPaymentProcess.SavedState> store =
+                new MappedSavedStateStore<>(file, SavedStateCodecs.EXTENDED_PAYMENT);
+        store.put("1", savedState);
+        store.close();
+
+        store = new MappedSavedStateStore<>(file, SavedStateCodecs.EXTENDED_PAYMENT);
+        ExtendedPaymentProcess.SavedState restored = store.getAll().get("1");
+        store.close();
+        assertEquals(restored.getFlags(), 11);
+        assertState(restored.getPaymentProcessSavedState(), started());
+        ExternalPaymentProcess.SavedState external = restored.getExternalPaymentProcessSavedState();
+        assertEquals(external.getFlags(), 2);
+        assertEquals(external.getRequestPayment(), requestExternalPayment);
+        assertEquals(external.getProcessPayment(), processExternalPayment);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testNotJournal() throws IOException {
+        Files.write(file.toPath(), "not a journal".getBytes("UTF-8"));
+        open();
+    }
+
+    private MappedSavedStateStore<PaymentProcess.SavedState> open() throws IOException {
+        return open(MappedSavedStateStore.DEFAULT_SEGMENT_SIZE);
+    }
+
+    private MappedSavedStateStore<PaymentProcess.SavedState> open(int segmentSize) throws IOException {
+        return new MappedSavedStateStore<>(file, SavedStateCodecs.PAYMENT, segmentSize, false);
+    }
+
+    private static void assertState(PaymentProcess.SavedState actual, PaymentProcess.SavedState expected) {
+        assertEquals(actual.getFlags(), expected.getFlags());
+        assertEquals(actual.getRequestPayment(), expected.getRequestPayment());
+        assertEquals(actual.getProcessPayment(), expected.getProcessPayment());
+    }
+
+    private PaymentProcess.SavedState started() {
+        return new PaymentProcess.SavedState(requestPayment, null, 1);
+    }
+
+    private PaymentProcess.SavedState completed() {
+        return new PaymentProcess.SavedState(requestPayment, processPayment, 3);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.processes;
+
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.net.clients.ApiClient;
+import com.yandex.money.api.net.clients.DefaultApiClient;
+import com.yandex.money.api.net.providers.DefaultApiV1HostsProvider;
+import com.yandex.money.api.util.HttpHeaders;
+import com.yandex.money.api.util.MimeTypes;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.joda.time.DateTime;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class OperationHistoryExporterTest extends Assert {
+
+    private static final long START = new DateTime(2016, 1, 1, 0, 0).getMillis();
+
+    private final List<Long> history = new ArrayList<>();
+    private final AtomicInteger served = new AtomicInteger();
+
+    private volatile long slowTill;
+    private volatile int servedWhileSlow;
+
+    private MockWebServer server;
+    private ApiClient client;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        history.clear();
+        served.set(0);
+        slowTill = 0;
+        server = new MockWebServer();
+        server.setDispatcher(new HistoryDispatcher());
+        server.start();
+        final String url = server.url("/api").toString();
+        client = new DefaultApiClient.Builder()
+                .setClientId("client_id")
+                .setHostsProvider(new DefaultApiV1HostsProvider(false) {
+                    @Override
+                    public String getMoneyApi() {
+                        return url;
+                    }
+                })
+                .create();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testExport() throws Exception {
+        // dense first hours and a sparse tail with operations sharing the same time
+        for (int i = 0; i < 700; ++i) {
+            history.add(START + i * 1000L);
+        }
+        for (int i = 0; i < 150; ++i) {
+            history.add(START + 10000000L);
+        }
+        for (int i = 0; i < 50; ++i) {
+            history.add(START + 20000000L + i * 100000L);
+        }
+        history.add(START + 40000000L);
+        Collections.sort(history, Collections.reverseOrder());
+
+        checkExport(1);
+        checkExport(4);
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        checkExport(3);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testSinkFailure() throws Exception {
+        history.add(START);
+        new OperationHistoryExporter(client, 2, Collections.<OperationHistory.FilterType>emptySet())
+                .export(new DateTime(START), new DateTime(START + 1000L), new OperationHistoryExporter.Sink() {
+                    @Override
+                    public void accept(Operation operation) {
+                        throw new IllegalStateException();
+                    }
+                });
+    }
+
+    @Test
+    public void testSlowWindowKeepsBufferBounded() throws Exception {
+        for (int i = 0; i < 10000; ++i) {
+            history.add(START + i * 1000L);
+        }
+        Collections.sort(history, Collections.reverseOrder());
+        slowTill = START + 40000001L;
+
+        checkExport(4);
+        assertTrue(servedWhileSlow <= OperationHistoryExporter.MAX_BUFFERED_PAGES + 4,
+                "requests served while the first window is slow: " + servedWhileSlow);
+    }
+
+    private void checkExport(int parallelism) throws Exception {
+        final List<Long> exported = new ArrayList<>();
+        long count = new OperationHistoryExporter(client, parallelism,
+                Collections.<OperationHistory.FilterType>emptySet())
+                .export(new DateTime(START), new DateTime(START + 40000001L), new OperationHistoryExporter.Sink() {
+                    @Override
+                    public void accept(Operation operation) {
+                        exported.add(operation.datetime.getMillis());
+                    }
+                });
+        assertEquals(count, history.size());
+        assertEquals(exported, history);
+    }
+
+    private final class HistoryDispatcher extends Dispatcher {
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            HttpUrl parameters = HttpUrl.parse("http://localhost/?" + request.getBody().readUtf8());
+            long from = DateTime.parse(parameters.queryParameter("from")).getMillis();
+            long till = DateTime.parse(parameters.queryParameter("till")).getMillis();
+            String startRecord = parameters.queryParameter("start_record");
+            int records = Integer.parseInt(parameters.queryParameter("records"));
+            if (till == slowTill && startRecord == null) {
+                int before = served.get();
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                servedWhileSlow = served.get() - before;
+            } else {
+                served.incrementAndGet();
+            }
+
+            List<Long> selected = new ArrayList<>();
+            for (long datetime : history) {
+                if (datetime >= from && datetime < till) {
+                    selected.add(datetime);
+                }
+            }
+            int start = startRecord == null ? 0 : Integer.parseInt(startRecord);
+            int end = Math.min(selected.size(), start + records);
+
+            StringBuilder body = new StringBuilder("{");
+            if (end < selected.size()) {
+                body.append("\"next_record\":\"").append(end).append("\",");
+            }
+            body.append("\"operations\":[");
+            for (int i = start; i < end; ++i) {
+                if (i > start) {
+                    body.append(',');
+                }
+                body.append("{\"operation_id\":\"").append(i)
+                        .append("\",\"status\":\"success\",\"direction\":\"in\",\"amount\":1,\"datetime\":\"")
+                        .append(new DateTime(selected.get(i)))
+                        .append("\",\"title\":\"title\",\"type\":\"deposition\"}");
+            }
+            body.append("]}");
+            return new MockResponse()
+                    .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                    .setBody(body.toString());
+        }
+    }
+}
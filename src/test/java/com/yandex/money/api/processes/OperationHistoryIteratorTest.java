@@ -0,0 +1,227 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.processes;
+
+import com.yandex.money.api.Resources;
+import com.yandex.money.api.authorization.AuthorizationData;
+import com.yandex.money.api.authorization.AuthorizationParameters;
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.net.ApiRequest;
+import com.yandex.money.api.net.UserAgent;
+import com.yandex.money.api.net.clients.ApiCallback;
+import com.yandex.money.api.net.clients.ApiClient;
+import com.yandex.money.api.net.clients.DefaultApiClient;
+import com.yandex.money.api.net.providers.DefaultApiV1HostsProvider;
+import com.yandex.money.api.net.providers.HostsProvider;
+import com.yandex.money.api.typeadapters.methods.OperationHistoryTypeAdapter;
+import com.yandex.money.api.util.HttpHeaders;
+import com.yandex.money.api.util.Language;
+import com.yandex.money.api.util.MimeTypes;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+public final class OperationHistoryIteratorTest extends Assert {
+
+    private MockWebServer server;
+    private ApiClient client;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        final String url = server.url("/api").toString();
+        client = new DefaultApiClient.Builder()
+                .setClientId("client_id")
+                .setHostsProvider(new DefaultApiV1HostsProvider(false) {
+                    @Override
+                    public String getMoneyApi() {
+                        return url;
+                    }
+                })
+                .create();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testFollowsNextRecord() throws Exception {
+        server.enqueue(createResponse(Resources.load("/methods/operation-history-1.json")));
+        server.enqueue(createResponse("{\"operations\":[]}"));
+
+        OperationHistoryIterator iterator = new OperationHistoryIterator(client, createRequest());
+        int count = 0;
+        while (iterator.hasNext()) {
+            assertNotNull(iterator.next());
+            ++count;
+        }
+        assertEquals(count, 3);
+        assertEquals(server.getRequestCount(), 2);
+
+        server.takeRequest();
+        assertTrue(server.takeRequest().getBody().readUtf8().contains("start_record=4"));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testError() throws Exception {
+        server.enqueue(createResponse(Resources.load("/methods/operation-history-4.json")));
+        new OperationHistoryIterator(client, createRequest()).hasNext();
+    }
+
+    @Test
+    public void testCloseCancelsFetchStartedFromSynchronousCallback() throws Exception {
+        final OperationHistory firstPage = OperationHistoryTypeAdapter.getInstance()
+                .fromJson(Resources.load("/methods/operation-history-1.json"));
+        SynchronousClient client = new SynchronousClient(firstPage);
+
+        OperationHistoryIterator iterator = new OperationHistoryIterator(client, createRequest());
+        assertTrue(iterator.hasNext());
+        assertEquals(client.futures.size(), 2);
+        assertTrue(client.futures.get(0).isDone());
+
+        iterator.close();
+        assertTrue(client.futures.get(1).isCancelled());
+    }
+
+    @Test(timeOut = 10000)
+    public void testCloseDuringFetchKeepsFetchedOperations() throws Exception {
+        final OperationHistory firstPage = OperationHistoryTypeAdapter.getInstance()
+                .fromJson(Resources.load("/methods/operation-history-1.json"));
+        SynchronousClient client = new SynchronousClient(firstPage);
+
+        OperationHistoryIterator iterator = new OperationHistoryIterator(client, createRequest());
+        assertTrue(iterator.hasNext());
+        assertFalse(client.futures.get(1).isDone());
+
+        iterator.close();
+        int count = 0;
+        while (iterator.hasNext()) {
+            assertNotNull(iterator.next());
+            ++count;
+        }
+        assertEquals(count, firstPage.operations.size());
+        assertTrue(client.futures.get(1).isCancelled());
+    }
+
+    private static OperationHistory.Request createRequest() {
+        return new OperationHistory.Request.Builder().create();
+    }
+
+    private static MockResponse createResponse(String body) {
+        return new MockResponse()
+                .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody(body);
+    }
+
+    /**
+     * Completes the first request on the calling thread, other requests never complete.
+     */
+    private static final class SynchronousClient implements ApiClient {
+
+        final List<FutureTask<?>> futures = new ArrayList<>();
+        final OperationHistory firstPage;
+
+        SynchronousClient(OperationHistory firstPage) {
+            this.firstPage = firstPage;
+        }
+
+        @Override
+        public <T> Future<T> executeAsync(ApiRequest<T> request, ApiCallback<T> callback) {
+            boolean first = futures.isEmpty();
+            @SuppressWarnings("unchecked")
+            final T response = (T) firstPage;
+            FutureTask<T> future = new FutureTask<>(new Callable<T>() {
+                @Override
+                public T call() {
+                    return response;
+                }
+            });
+            futures.add(future);
+            if (first) {
+                future.run();
+                callback.onSuccess(response);
+            }
+            return future;
+        }
+
+        @Override
+        public <T> Future<T> executeAsync(ApiRequest<T> request) {
+            return executeAsync(request, null);
+        }
+
+        @Override
+        public <T> T execute(ApiRequest<T> request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getClientId() {
+            return "client_id";
+        }
+
+        @Override
+        public Language getLanguage() {
+            return Language.getDefault();
+        }
+
+        @Override
+        public HostsProvider getHostsProvider() {
+            return new DefaultApiV1HostsProvider(false);
+        }
+
+        @Override
+        public UserAgent getUserAgent() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AuthorizationData createAuthorizationData(AuthorizationParameters parameters) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setAccessToken(String accessToken) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isAuthorized() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.showcase;
+
+import com.yandex.money.api.model.showcase.components.containers.Group;
+import com.yandex.money.api.model.showcase.components.uicontrols.Checkbox;
+import com.yandex.money.api.model.showcase.components.uicontrols.Select;
+import com.yandex.money.api.model.showcase.components.uicontrols.Text;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class GroupTest {
+
+    @Test
+    public void testValidationIsUpdated() {
+        Text account = createText("account");
+        Text inn = createText("inn");
+        Group form = createForm(account, inn);
+
+        assertFalse(form.isValid());
+        account.setValue("123");
+        assertFalse(form.isValid());
+        inn.setValue("456");
+        assertTrue(form.isValid());
+        inn.setValue("abc");
+        assertFalse(form.isValid());
+    }
+
+    @Test
+    public void testPaymentParametersAreUpdated() {
+        Text account = createText("account");
+        Text inn = createText("inn");
+        Group form = createForm(account, inn);
+
+        Map<String, String> parameters = form.getPaymentParameters();
+        assertNull(parameters.get("account"));
+        assertSame(form.getPaymentParameters(), parameters);
+
+        account.setValue("123");
+        inn.setValue("456");
+        parameters = form.getPaymentParameters();
+        assertEquals(parameters.get("select"), "value");
+        assertEquals(parameters.get("account"), "123");
+        assertEquals(parameters.get("inn"), "456");
+    }
+
+    @Test
+    public void testCheckboxStateIsUpdated() {
+        Checkbox.Builder builder = new Checkbox.Builder();
+        builder.setName("agree").setValue("yes").setRequired(true);
+        Checkbox agree = builder.create();
+        Group.Builder formBuilder = new Group.Builder();
+        formBuilder.addItem(agree);
+        Group form = formBuilder.create();
+
+        assertFalse(form.isValid());
+        assertNull(form.getPaymentParameters().get("agree"));
+
+        agree.setChecked(true);
+        assertTrue(form.isValid());
+        assertEquals(form.getPaymentParameters().get("agree"), "yes");
+
+        agree.setChecked(false);
+        assertFalse(form.isValid());
+        assertNull(form.getPaymentParameters().get("agree"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testCheckboxFieldIsTracked() {
+        Checkbox.Builder builder = new Checkbox.Builder();
+        builder.setName("agree").setValue("yes").setRequired(true);
+        Checkbox agree = builder.create();
+        Group.Builder nested = new Group.Builder();
+        nested.addItem(agree);
+        Group.Builder formBuilder = new Group.Builder();
+        formBuilder.addItem(nested.create());
+        Group form = formBuilder.create();
+
+        assertFalse(form.isValid());
+        assertNull(form.getPaymentParameters().get("agree"));
+
+        agree.checked = true;
+        assertTrue(form.isValid());
+        assertEquals(form.getPaymentParameters().get("agree"), "yes");
+    }
+
+    private static Group createForm(Text account, Text inn) {
+        Group.Builder option = new Group.Builder();
+        option.addItem(inn);
+
+        Select.Builder selectBuilder = new Select.Builder()
+                .addOption(new Select.Option("label", "value", option.create()));
+        selectBuilder.setName("select");
+        Select select = selectBuilder.create();
+        select.setValue("value");
+
+        Group.Builder nested = new Group.Builder();
+        nested.addItem(select);
+
+        Group.Builder form = new Group.Builder();
+        form.addItem(account).addItem(nested.create());
+        return form.create();
+    }
+
+    private static Text createText(String name) {
+        Text.Builder builder = new Text.Builder()
+                .setPattern("\\d+");
+        builder.setName(name);
+        return builder.create();
+    }
+}
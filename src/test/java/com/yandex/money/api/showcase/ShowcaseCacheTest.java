@@ -0,0 +1,151 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.showcase;
+
+import com.yandex.money.api.Resources;
+import com.yandex.money.api.exceptions.ResourceNotFoundException;
+import com.yandex.money.api.model.showcase.Showcase;
+import com.yandex.money.api.model.showcase.ShowcaseCache;
+import com.yandex.money.api.model.showcase.ShowcaseContext;
+import com.yandex.money.api.net.clients.ApiClient;
+import com.yandex.money.api.net.clients.DefaultApiClient;
+import com.yandex.money.api.net.providers.DefaultApiV1HostsProvider;
+import com.yandex.money.api.typeadapters.model.showcase.ShowcaseTypeAdapter;
+import com.yandex.money.api.util.HttpHeaders;
+import com.yandex.money.api.util.MimeTypes;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+public final class ShowcaseCacheTest extends Assert {
+
+    private static final String LAST_MODIFIED = "Thu, 01 Sep 2016 10:00:00 GMT";
+    private static final String PAST = "Fri, 02 Sep 2016 10:00:00 GMT";
+    private static final String FUTURE = "Fri, 01 Jan 2100 00:00:00 GMT";
+    private static final String SUBMIT_URL = "https://money.yandex.ru/api/showcase/validate/5551/step_INN_3038";
+
+    private MockWebServer server;
+    private ApiClient client;
+    private String showcase;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        showcase = Resources.load("/showcase/showcase_bills.json");
+        server = new MockWebServer();
+        server.start();
+        final String url = server.url("/api").toString();
+        client = new DefaultApiClient.Builder()
+                .setClientId("client_id")
+                .setHostsProvider(new DefaultApiV1HostsProvider(false) {
+                    @Override
+                    public String getMoneyApi() {
+                        return url;
+                    }
+                })
+                .create();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testRevalidation() throws Exception {
+        ShowcaseCache cache = new ShowcaseCache(client, 10);
+        server.enqueue(showcaseResponse(PAST));
+        server.enqueue(new MockResponse()
+                .setResponseCode(HttpURLConnection.HTTP_NOT_MODIFIED)
+                .setHeader(HttpHeaders.EXPIRES, FUTURE));
+
+        ShowcaseContext first = cache.get(5551);
+        RecordedRequest request = server.takeRequest();
+        assertEquals(request.getPath(), "/api/showcase/5551");
+        assertNull(request.getHeader(HttpHeaders.IF_MODIFIED_SINCE));
+        checkContext(first);
+
+        ShowcaseContext second = cache.get(5551);
+        request = server.takeRequest();
+        assertEquals(request.getHeader(HttpHeaders.IF_MODIFIED_SINCE), LAST_MODIFIED);
+        checkContext(second);
+        assertEquals(second.getCurrentStep().showcase, first.getCurrentStep().showcase);
+        assertNotSame(second.getCurrentStep().showcase, first.getCurrentStep().showcase);
+
+        checkContext(cache.get("5551"));
+        assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        ShowcaseCache cache = new ShowcaseCache(client, 1);
+        server.enqueue(showcaseResponse(FUTURE));
+        server.enqueue(showcaseResponse(FUTURE));
+        server.enqueue(showcaseResponse(FUTURE));
+
+        cache.get("first");
+        cache.get("second");
+        assertEquals(cache.size(), 1);
+        cache.get("second");
+        assertEquals(server.getRequestCount(), 2);
+
+        cache.get("first");
+        assertEquals(server.getRequestCount(), 3);
+        server.takeRequest();
+        server.takeRequest();
+        RecordedRequest request = server.takeRequest();
+        assertEquals(request.getPath(), "/api/showcase/first");
+        assertNull(request.getHeader(HttpHeaders.IF_MODIFIED_SINCE));
+    }
+
+    @Test(expectedExceptions = ResourceNotFoundException.class)
+    public void testNotFound() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(HttpURLConnection.HTTP_NOT_FOUND));
+        new ShowcaseCache(client, 10).get("unknown");
+    }
+
+    private MockResponse showcaseResponse(String expires) {
+        return new MockResponse()
+                .setResponseCode(HttpURLConnection.HTTP_MULT_CHOICE)
+                .setHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setHeader(HttpHeaders.LOCATION, SUBMIT_URL)
+                .setHeader(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED)
+                .setHeader(HttpHeaders.EXPIRES, expires)
+                .setBody(showcase);
+    }
+
+    private void checkContext(ShowcaseContext context) {
+        assertEquals(context.getState(), ShowcaseContext.State.HAS_NEXT_STEP);
+        assertEquals(context.getCurrentStep().submitUrl, SUBMIT_URL);
+        Showcase expected = ShowcaseTypeAdapter.getInstance().fromJson(showcase);
+        assertEquals(context.getCurrentStep().showcase, expected);
+    }
+}
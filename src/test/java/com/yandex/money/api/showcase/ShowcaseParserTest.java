@@ -184,7 +184,7 @@ public class ShowcaseParserTest {
         assertTrue(component instanceof Checkbox);
         Checkbox checkbox = (Checkbox) component;
         checkComponentFields(component, "name6", "true");
-        assertTrue(checkbox.checked);
+        assertTrue(checkbox.isChecked());
 
         component = components.get(6);
         assertTrue(component instanceof Date);
@@ -0,0 +1,222 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.showcase;
+
+import com.yandex.money.api.methods.ShowcaseSearch;
+import com.yandex.money.api.model.showcase.ShowcaseReference;
+import com.yandex.money.api.model.showcase.ShowcaseSearchIndex;
+import com.yandex.money.api.net.clients.ApiClient;
+import com.yandex.money.api.net.clients.DefaultApiClient;
+import com.yandex.money.api.net.providers.DefaultApiV1HostsProvider;
+import com.yandex.money.api.util.HttpHeaders;
+import com.yandex.money.api.util.MimeTypes;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public final class ShowcaseSearchIndexTest extends Assert {
+
+    private MockWebServer server;
+    private ShowcaseSearchIndex index;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        final String url = server.url("/api").toString();
+        ApiClient client = new DefaultApiClient.Builder()
+                .setClientId("client_id")
+                .setHostsProvider(new DefaultApiV1HostsProvider(false) {
+                    @Override
+                    public String getMoneyApi() {
+                        return url;
+                    }
+                })
+                .create();
+        index = new ShowcaseSearchIndex(client, 10);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testSearch() throws Exception {
+        enqueue(reference(1, "MTS Mobile", 2), reference(2, "Beeline mobile", 1), reference(3, "Megafon", null));
+
+        // result of the server is returned as is
+        ShowcaseSearch result = index.search("mobile");
+        assertNull(result.error);
+        assertEquals(scids(result.result), Arrays.asList(1L, 2L, 3L));
+        assertEquals(server.getRequestCount(), 1);
+        assertEquals(index.size(), 3);
+
+        assertEquals(scids(index.search("MOB").result), Arrays.asList(2L, 1L));
+        assertEquals(scids(index.search("mob mt").result), Arrays.asList(1L));
+        assertEquals(scids(index.search("bee-mob").result), Arrays.asList(2L));
+        assertEquals(scids(index.search("3").result), Arrays.asList(3L));
+        assertEquals(server.getRequestCount(), 1);
+
+        enqueue(reference(4, "Mosenergosbyt", null));
+        assertEquals(scids(index.search("energy").result), Arrays.asList(4L));
+        assertEquals(server.getRequestCount(), 2);
+        assertEquals(scids(index.find("m")), Arrays.asList(2L, 1L, 3L, 4L));
+    }
+
+    @Test
+    public void testError() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody("{\"error\":\"illegal_param_query\"}"));
+        assertNotNull(index.search("query").error);
+        assertEquals(index.size(), 0);
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        enqueue(reference(1, "MTS", null), reference(2, "MTS Internet", null));
+        index.search("mts");
+        enqueue(reference(3, "Rostelecom", null));
+        index.search("rostelecom");
+        assertEquals(index.size(), 3);
+
+        enqueue(reference(2, "MTS Home Internet", null));
+        enqueue(reference(3, "Rostelecom", null));
+        index.refresh();
+        assertEquals(index.size(), 2);
+        assertTrue(index.find("mts").get(0).title.contains("Home"));
+        assertTrue(index.find("rost").size() == 1);
+    }
+
+    @Test
+    public void testRefreshKeepsAddedShowcases() throws Exception {
+        enqueue(reference(1, "MTS", null));
+        index.search("mts");
+        index.add(Collections.singletonList(new ShowcaseReference.Builder()
+                .setScid(5)
+                .setTitle("Rostelecom")
+                .setFormat(ShowcaseReference.Format.JSON)
+                .create()));
+
+        enqueue(reference(1, "MTS", null));
+        index.refresh();
+        assertEquals(index.size(), 2);
+        assertEquals(scids(index.find("rost")), Arrays.asList(5L));
+    }
+
+    @Test
+    public void testRefreshKeepsResultsOfFailedQueries() throws Exception {
+        enqueue(reference(1, "MTS", null), reference(2, "MTS Internet", null));
+        index.search("mts");
+        enqueue(reference(3, "Rostelecom", null));
+        index.search("rostelecom");
+
+        server.enqueue(new MockResponse().setResponseCode(500));
+        enqueue();
+        index.refresh();
+        assertEquals(index.size(), 2);
+        assertEquals(scids(index.find("mts")), Arrays.asList(1L, 2L));
+        assertTrue(index.find("rost").isEmpty());
+
+        // failed query is sent again, empty one is forgotten
+        enqueue(reference(1, "MTS", null));
+        index.refresh();
+        assertEquals(index.size(), 1);
+        assertEquals(server.getRequestCount(), 5);
+    }
+
+    @Test
+    public void testSearchDuringRefresh() throws Exception {
+        enqueue(reference(1, "MTS", null));
+        index.search("mts");
+        server.takeRequest();
+
+        server.enqueue(createResponse(reference(1, "MTS", null)).setBodyDelay(300, TimeUnit.MILLISECONDS));
+        enqueue(reference(3, "Rostelecom", null));
+        Thread refresh = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    index.refresh();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        refresh.start();
+        assertTrue(server.takeRequest().getPath().contains("query=mts"));
+        assertEquals(scids(index.search("rostelecom").result), Arrays.asList(3L));
+        refresh.join();
+
+        // showcase and query added during refresh are kept
+        assertEquals(index.size(), 2);
+        assertEquals(scids(index.find("rost")), Arrays.asList(3L));
+        enqueue(reference(1, "MTS", null));
+        enqueue(reference(3, "Rostelecom", null));
+        index.refresh();
+        server.takeRequest();
+        assertTrue(server.takeRequest().getPath().contains("query=mts"));
+        assertTrue(server.takeRequest().getPath().contains("query=rostelecom"));
+        assertEquals(index.size(), 2);
+    }
+
+    private void enqueue(String... references) {
+        server.enqueue(createResponse(references));
+    }
+
+    private static MockResponse createResponse(String... references) {
+        StringBuilder body = new StringBuilder("{\"result\":[");
+        for (int i = 0; i < references.length; ++i) {
+            body.append(i == 0 ? "" : ",").append(references[i]);
+        }
+        return new MockResponse()
+                .setHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody(body.append("]}").toString());
+    }
+
+    private static String reference(long scid, String title, Integer top) {
+        return "{\"id\":" + scid + ",\"title\":\"" + title + "\"" + (top == null ? "" : ",\"top\":" + top) +
+                ",\"format\":\"json\"}";
+    }
+
+    private static List<Long> scids(List<ShowcaseReference> references) {
+        List<Long> scids = new ArrayList<>();
+        for (ShowcaseReference reference : references) {
+            scids.add(reference.scid);
+        }
+        return scids;
+    }
+}
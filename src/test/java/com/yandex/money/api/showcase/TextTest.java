@@ -53,6 +53,7 @@ public class TextTest extends ParameterTest {
         Assert.assertFalse(text.isValid("abc"));
         Assert.assertFalse(text.isValid("12"));
         Assert.assertFalse(text.isValid("123456"));
+        Assert.assertEquals(text, builder.create());
 
         testEmptyValues(builder);
     }